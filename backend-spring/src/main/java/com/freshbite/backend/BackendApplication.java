@@ -3,9 +3,14 @@ package com.freshbite.backend;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.util.TimeZone;
+
 @SpringBootApplication
 public class BackendApplication {
   public static void main(String[] args) {
+    // Review timestamps are stored as UTC wall-clock time in TIMESTAMP columns, and
+    // java.sql.Timestamp binds in the JVM zone (surefire pins tests the same way)
+    TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
     SpringApplication.run(BackendApplication.class, args);
   }
 }
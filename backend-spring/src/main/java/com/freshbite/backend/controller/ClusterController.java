@@ -0,0 +1,70 @@
+package com.freshbite.backend.controller;
+
+import com.freshbite.backend.dto.MapClusterResponse;
+import com.freshbite.backend.service.RestaurantClusterIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api")
+public class ClusterController {
+  private static final Logger log = LoggerFactory.getLogger(ClusterController.class);
+  private static final int MAX_ZOOM = 22;
+  private final RestaurantClusterIndex clusterIndex;
+
+  public ClusterController(RestaurantClusterIndex clusterIndex) {
+    this.clusterIndex = clusterIndex;
+  }
+
+  /**
+   * Map markers for the visible viewport: FreshBite restaurants clustered
+   * server-side for the given zoom, each with a count and centroid.
+   *
+   *   GET /api/clusters?minLat=33.2&minLng=-112.4&maxLat=33.7&maxLng=-111.6&zoom=11
+   *   GET /api/clusters?minLat=-20&minLng=170&maxLat=10&maxLng=-170&zoom=4   → crosses the antimeridian
+   */
+  @GetMapping("/clusters")
+  public List<MapClusterResponse> clusters(
+    @RequestParam double minLat,
+    @RequestParam double minLng,
+    @RequestParam double maxLat,
+    @RequestParam double maxLng,
+    @RequestParam int zoom
+  ) {
+    if (minLat > maxLat || minLat < -90 || maxLat > 90) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid latitude range");
+    }
+    if (zoom < 0 || zoom > MAX_ZOOM) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "zoom must be between 0 and " + MAX_ZOOM);
+    }
+    if (!clusterIndex.isReady()) {
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Map clusters are not available");
+    }
+    // Map viewports may report longitudes past ±180 after panning across the antimeridian
+    if (maxLng - minLng >= 360) {
+      minLng = -180;
+      maxLng = 180;
+    } else {
+      minLng = wrapLng(minLng);
+      maxLng = wrapLng(maxLng);
+    }
+
+    long start = System.nanoTime();
+    List<MapClusterResponse> clusters = clusterIndex.clusters(minLat, minLng, maxLat, maxLng, zoom);
+    log.debug("GET /api/clusters zoom={} count={} duration={}us",
+      zoom, clusters.size(), (System.nanoTime() - start) / 1000);
+    return clusters;
+  }
+
+  private static double wrapLng(double lng) {
+    return ((lng + 180) % 360 + 360) % 360 - 180;
+  }
+}
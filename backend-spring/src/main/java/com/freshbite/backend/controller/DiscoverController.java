@@ -1,24 +1,34 @@
 package com.freshbite.backend.controller;
 
-import com.freshbite.backend.domain.Restaurant;
 import com.freshbite.backend.dto.DiscoverResponse;
 import com.freshbite.backend.dto.DiscoveredRestaurant;
+import com.freshbite.backend.repository.NearbyRestaurant;
 import com.freshbite.backend.repository.RestaurantRepository;
+import com.freshbite.backend.service.DiscoverMerger;
+import com.freshbite.backend.service.GeoMath;
 import com.freshbite.backend.service.NominatimService;
 import com.freshbite.backend.service.OverpassService;
+import com.freshbite.backend.service.UpstreamScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * Discover real restaurants from OpenStreetMap data + FreshBite database.
- * Merges results from both sources so manually-added restaurants also appear.
+ * Merges results from both sources so manually-added restaurants also appear,
+ * once each: see {@link DiscoverMerger}.
  */
 @RestController
 @RequestMapping("/api")
@@ -28,13 +38,19 @@ public class DiscoverController {
   private final OverpassService overpassService;
   private final NominatimService nominatimService;
   private final RestaurantRepository restaurantRepository;
+  private final DiscoverMerger discoverMerger;
+  private final Executor executor;
 
   public DiscoverController(OverpassService overpassService,
                             NominatimService nominatimService,
-                            RestaurantRepository restaurantRepository) {
+                            RestaurantRepository restaurantRepository,
+                            DiscoverMerger discoverMerger,
+                            @Qualifier("applicationTaskExecutor") Executor taskExecutor) {
     this.overpassService = overpassService;
     this.nominatimService = nominatimService;
     this.restaurantRepository = restaurantRepository;
+    this.discoverMerger = discoverMerger;
+    this.executor = taskExecutor;
   }
 
   /**
@@ -62,6 +78,16 @@ public class DiscoverController {
     @RequestParam(defaultValue = "5000") int radius,
     @RequestParam(defaultValue = "100") int limit
   ) {
+    try {
+      return discoverNear(lat, lng, location, name, radius, limit);
+    } catch (UpstreamScheduler.RejectedException e) {
+      // Saturated Nominatim/Overpass queue: not a missing place or an empty area
+      log.warn("GET /api/discover UPSTREAM_BUSY location='{}' error={}", location, e.getMessage());
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Map data is busy right now, please retry");
+    }
+  }
+
+  private DiscoverResponse discoverNear(Double lat, Double lng, String location, String name, int radius, int limit) {
     // Clamp parameters
     radius = Math.min(Math.max(radius, 500), 50000);
     limit = Math.min(Math.max(limit, 10), 200);
@@ -106,26 +132,40 @@ public class DiscoverController {
       radius = 50000; // Expand radius for default
     }
 
-    // Step 2: Query Overpass for real restaurants
-    List<OverpassService.OverpassRestaurant> osmResults =
-      overpassService.findNearby(centerLat, centerLng, radius, name, limit);
-
-    // Step 3: Also query FreshBite DB for manually-added restaurants
-    List<Restaurant> dbResults;
-    if (name != null && !name.isBlank()) {
-      dbResults = restaurantRepository.searchByText(name);
-    } else {
-      dbResults = restaurantRepository.searchByText("");
+    // Steps 2 + 3 run concurrently: Overpass for real restaurants, and the FreshBite DB
+    // for manually-added restaurants inside the radius
+    final double qLat = centerLat;
+    final double qLng = centerLng;
+    final int qRadius = radius;
+    final int qLimit = limit;
+    CompletableFuture<List<OverpassService.OverpassRestaurant>> osmFuture = CompletableFuture.supplyAsync(
+      () -> overpassService.findNearby(qLat, qLng, qRadius, name, qLimit), executor);
+    CompletableFuture<List<NearbyRestaurant>> dbFuture = CompletableFuture.supplyAsync(() -> {
+      double radiusKm = qRadius / 1000.0;
+      GeoMath.BoundingBox box = GeoMath.boundingBox(qLat, qLng, radiusKm);
+      return restaurantRepository.findWithinRadius(
+        name != null ? name.trim() : "", qLat, qLng, radiusKm,
+        box.minLat(), box.maxLat(), box.minLng(), box.maxLng(), qLimit
+      );
+    }, executor);
+    List<OverpassService.OverpassRestaurant> osmResults = join(osmFuture);
+    List<NearbyRestaurant> dbResults = join(dbFuture);
+
+    // Step 4: OSM distances in one bulk pass; DB rows come with theirs
+    int osmCount = osmResults.size();
+    double[] lats = new double[osmCount];
+    double[] lngs = new double[osmCount];
+    for (int i = 0; i < osmCount; i++) {
+      lats[i] = osmResults.get(i).latitude();
+      lngs[i] = osmResults.get(i).longitude();
     }
+    double[] osmDistances = new double[osmCount];
+    GeoMath.haversineKm(centerLat, centerLng, lats, lngs, osmDistances, osmCount);
 
-    // Step 4: Convert OSM results to DTOs
-    List<DiscoveredRestaurant> restaurants = new ArrayList<>();
-    final double cLat = centerLat;
-    final double cLng = centerLng;
-
-    for (var osm : osmResults) {
-      double dist = haversine(cLat, cLng, osm.latitude(), osm.longitude());
-      restaurants.add(new DiscoveredRestaurant(
+    List<DiscoveredRestaurant> osmRestaurants = new ArrayList<>(osmCount);
+    for (int i = 0; i < osmCount; i++) {
+      var osm = osmResults.get(i);
+      osmRestaurants.add(new DiscoveredRestaurant(
         osm.osmId(),
         osm.name(),
         osm.cuisine(),
@@ -139,22 +179,16 @@ public class DiscoverController {
         osm.type(),
         osm.latitude(),
         osm.longitude(),
-        Math.round(dist * 100.0) / 100.0,
+        Math.round(osmDistances[i] * 100.0) / 100.0,
         "osm",
         null
       ));
     }
 
-    // Step 5: Merge FreshBite DB restaurants (source = "freshbite")
-    for (Restaurant r : dbResults) {
-      if (r.getLatitude() == null || r.getLongitude() == null) continue;
-      double dist = haversine(cLat, cLng, r.getLatitude(), r.getLongitude());
-      // Only include DB restaurants within the search radius (in km)
-      double radiusKm = radius / 1000.0;
-      if (dist > radiusKm * 1.5) continue; // Allow 50% overshoot for DB results
-
-      restaurants.add(new DiscoveredRestaurant(
-        0L, // no OSM id
+    List<DiscoveredRestaurant> dbRestaurants = new ArrayList<>(dbResults.size());
+    for (NearbyRestaurant r : dbResults) {
+      dbRestaurants.add(new DiscoveredRestaurant(
+        parseOsmId(r.getOsmPlaceId()),
         r.getName(),
         null,
         r.getAddress(),
@@ -167,18 +201,22 @@ public class DiscoverController {
         "restaurant",
         r.getLatitude(),
         r.getLongitude(),
-        Math.round(dist * 100.0) / 100.0,
+        Math.round(r.getDistanceKm() * 100.0) / 100.0,
         "freshbite",
         r.getId()
       ));
     }
 
-    // Sort by distance
-    restaurants.sort((a, b) -> {
-      if (a.distanceKm() == null) return 1;
-      if (b.distanceKm() == null) return -1;
-      return Double.compare(a.distanceKm(), b.distanceKm());
-    });
+    // Step 5: Merge, folding FreshBite duplicates of OSM results into one entry, nearest first
+    List<DiscoveredRestaurant> merged = discoverMerger.merge(osmRestaurants, dbRestaurants);
+    double[] distances = new double[merged.size()];
+    for (int i = 0; i < distances.length; i++) {
+      distances[i] = merged.get(i).distanceKm();
+    }
+    List<DiscoveredRestaurant> restaurants = new ArrayList<>(merged.size());
+    for (int i : GeoMath.sortedIndex(distances, distances.length)) {
+      restaurants.add(merged.get(i));
+    }
 
     return new DiscoverResponse(
       resolvedLocation,
@@ -189,16 +227,22 @@ public class DiscoverController {
     );
   }
 
-  // ── Haversine distance ──────────────────────────────────
-
-  private double haversine(double lat1, double lng1, double lat2, double lng2) {
-    double R = 6371.0; // Earth radius in km
-    double dLat = Math.toRadians(lat2 - lat1);
-    double dLng = Math.toRadians(lng2 - lng1);
-    double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-               Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
-               Math.sin(dLng / 2) * Math.sin(dLng / 2);
-    double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-    return R * c;
+  /** Waits for a branch, rethrowing its own exception rather than a CompletionException. */
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException re) throw re;
+      throw e;
+    }
+  }
+
+  private static long parseOsmId(String osmPlaceId) {
+    if (osmPlaceId == null) return 0L;
+    try {
+      return Long.parseLong(osmPlaceId.trim());
+    } catch (NumberFormatException e) {
+      return 0L;
+    }
   }
 }
@@ -3,14 +3,18 @@ package com.freshbite.backend.controller;
 import com.freshbite.backend.dto.CreateReviewRequest;
 import com.freshbite.backend.dto.DishListItemResponse;
 import com.freshbite.backend.dto.DishSummaryResponse;
+import com.freshbite.backend.dto.ReviewCursor;
 import com.freshbite.backend.dto.ReviewListResponse;
 import com.freshbite.backend.dto.ReviewResponse;
 import com.freshbite.backend.dto.TimeWindow;
 import com.freshbite.backend.service.DishService;
+import com.freshbite.backend.service.DishSummaryPublisher;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -19,18 +23,25 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api")
 public class DishController {
   private static final Logger log = LoggerFactory.getLogger(DishController.class);
+  private static final String NDJSON = "application/x-ndjson";
+  private static final int MAX_PAGE_SIZE = 200;
   private final DishService dishService;
+  private final DishSummaryPublisher dishSummaryPublisher;
 
-  public DishController(DishService dishService) {
+  public DishController(DishService dishService, DishSummaryPublisher dishSummaryPublisher) {
     this.dishService = dishService;
+    this.dishSummaryPublisher = dishSummaryPublisher;
   }
 
   @GetMapping("/dishes")
@@ -44,6 +55,12 @@ public class DishController {
     return dishes;
   }
 
+  /**
+   * Rating stats and risk for the window ending now. Reviews posted through this
+   * API count immediately (buffered mode: once flushed); reviews written directly
+   * by the Next.js routes may be missing for up to
+   * {@code app.review-aggregates.rebuild-minutes} while the aggregate store is on.
+   */
   @GetMapping("/dish/{id}/summary")
   public DishSummaryResponse getSummary(
     @PathVariable String id,
@@ -64,18 +81,52 @@ public class DishController {
     }
   }
 
+  /**
+   * Live summary feed: an initial "summary" event, then one event per visible
+   * change, coalesced and rate-capped per dish by {@link DishSummaryPublisher}.
+   */
+  @GetMapping(value = "/dish/{id}/summary/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public ResponseEntity<SseEmitter> streamSummary(
+    @PathVariable String id,
+    @RequestParam(required = false) String window
+  ) {
+    TimeWindow timeWindow = TimeWindow.from(window, TimeWindow.H24);
+    log.info("GET /api/dish/{}/summary/stream window={}", id, timeWindow.getValue());
+    try {
+      SseEmitter emitter = dishSummaryPublisher.subscribe(id, timeWindow);
+      return ResponseEntity.ok()
+        .header("X-Accel-Buffering", "no") // keep nginx from buffering the stream
+        .body(emitter);
+    } catch (NoSuchElementException ex) {
+      log.warn("GET /api/dish/{}/summary/stream NOT_FOUND", id);
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Dish not found");
+    }
+  }
+
   @GetMapping("/dish/{id}/reviews")
   public ReviewListResponse getReviews(
     @PathVariable String id,
-    @RequestParam(required = false) String window
+    @RequestParam(required = false) String window,
+    @RequestParam(required = false) String cursor,
+    @RequestParam(defaultValue = "50") int limit
   ) {
     TimeWindow timeWindow = TimeWindow.from(window, TimeWindow.D5);
-    log.info("GET /api/dish/{}/reviews window={}", id, timeWindow.getValue());
+    limit = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+    log.info("GET /api/dish/{}/reviews window={} cursor={} limit={}", id, timeWindow.getValue(), cursor, limit);
     long start = System.currentTimeMillis();
+    ReviewCursor position = null;
+    if (cursor != null && !cursor.isBlank()) {
+      try {
+        position = ReviewCursor.decode(cursor);
+      } catch (IllegalArgumentException ex) {
+        log.warn("GET /api/dish/{}/reviews BAD_CURSOR cursor={}", id, cursor);
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+      }
+    }
     try {
-      ReviewListResponse reviews = dishService.getReviews(id, timeWindow);
-      log.info("GET /api/dish/{}/reviews completed count={} duration={}ms",
-        id, reviews.reviews().size(), System.currentTimeMillis() - start);
+      ReviewListResponse reviews = dishService.getReviews(id, timeWindow, position, limit);
+      log.info("GET /api/dish/{}/reviews completed count={} hasMore={} duration={}ms",
+        id, reviews.reviews().size(), reviews.nextCursor() != null, System.currentTimeMillis() - start);
       return reviews;
     } catch (NoSuchElementException ex) {
       log.warn("GET /api/dish/{}/reviews NOT_FOUND duration={}ms", id, System.currentTimeMillis() - start);
@@ -83,6 +134,27 @@ public class DishController {
     }
   }
 
+  /**
+   * Streams the whole window as NDJSON (one ReviewResponse per line) for exports
+   * and clients that want every row without paging.
+   */
+  @GetMapping(value = "/dish/{id}/reviews", params = "format=ndjson", produces = NDJSON)
+  public ResponseEntity<StreamingResponseBody> streamReviews(
+    @PathVariable String id,
+    @RequestParam(required = false) String window
+  ) {
+    TimeWindow timeWindow = TimeWindow.from(window, TimeWindow.D5);
+    log.info("GET /api/dish/{}/reviews?format=ndjson window={}", id, timeWindow.getValue());
+    try {
+      dishService.requireDish(id);
+    } catch (NoSuchElementException ex) {
+      log.warn("GET /api/dish/{}/reviews?format=ndjson NOT_FOUND", id);
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Dish not found");
+    }
+    StreamingResponseBody body = out -> dishService.streamReviews(id, timeWindow, out);
+    return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+  }
+
   @PostMapping("/dish/{id}/reviews")
   public ReviewResponse createReview(
     @PathVariable String id,
@@ -98,6 +170,9 @@ public class DishController {
     } catch (NoSuchElementException ex) {
       log.warn("POST /api/dish/{}/reviews NOT_FOUND duration={}ms", id, System.currentTimeMillis() - start);
       throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Dish not found");
+    } catch (RejectedExecutionException ex) {
+      log.warn("POST /api/dish/{}/reviews BUFFER_FULL duration={}ms", id, System.currentTimeMillis() - start);
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many reviews right now, please retry");
     } catch (Exception e) {
       log.error("POST /api/dish/{}/reviews FAILED error={} duration={}ms", id, e.getMessage(), System.currentTimeMillis() - start, e);
       throw e;
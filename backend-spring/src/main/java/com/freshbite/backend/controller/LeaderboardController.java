@@ -0,0 +1,42 @@
+package com.freshbite.backend.controller;
+
+import com.freshbite.backend.dto.RiskLeaderboardEntry;
+import com.freshbite.backend.service.RiskLeaderboard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api")
+public class LeaderboardController {
+  private static final Logger log = LoggerFactory.getLogger(LeaderboardController.class);
+  private final RiskLeaderboard riskLeaderboard;
+
+  public LeaderboardController(RiskLeaderboard riskLeaderboard) {
+    this.riskLeaderboard = riskLeaderboard;
+  }
+
+  /**
+   * Riskiest dishes right now (24h), served from memory.
+   *
+   *   GET /api/leaderboard/risky                 → global
+   *   GET /api/leaderboard/risky?city=Phoenix    → one city
+   */
+  @GetMapping("/leaderboard/risky")
+  public List<RiskLeaderboardEntry> risky(
+    @RequestParam(required = false) String city,
+    @RequestParam(defaultValue = "10") int limit
+  ) {
+    limit = Math.min(Math.max(limit, 1), 100);
+    long start = System.nanoTime();
+    List<RiskLeaderboardEntry> entries = riskLeaderboard.top(city, limit);
+    log.info("GET /api/leaderboard/risky city={} count={} duration={}us",
+      city, entries.size(), (System.nanoTime() - start) / 1000);
+    return entries;
+  }
+}
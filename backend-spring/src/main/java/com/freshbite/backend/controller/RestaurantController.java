@@ -8,12 +8,16 @@ import com.freshbite.backend.dto.CreateRestaurantRequest;
 import com.freshbite.backend.dto.DishAtRestaurantResponse;
 import com.freshbite.backend.dto.RestaurantResponse;
 import com.freshbite.backend.dto.RestaurantSearchResponse;
+import com.freshbite.backend.event.DishAtRestaurantCreatedEvent;
+import com.freshbite.backend.event.RestaurantCreatedEvent;
 import com.freshbite.backend.repository.DishAtRestaurantRepository;
 import com.freshbite.backend.repository.DishRepository;
 import com.freshbite.backend.repository.RestaurantRepository;
+import com.freshbite.backend.service.SearchService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -27,7 +31,6 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.UUID;
-import java.sql.Timestamp;
 
 @RestController
 @RequestMapping("/api")
@@ -36,15 +39,21 @@ public class RestaurantController {
   private final RestaurantRepository restaurantRepository;
   private final DishRepository dishRepository;
   private final DishAtRestaurantRepository dishAtRestaurantRepository;
+  private final SearchService searchService;
+  private final ApplicationEventPublisher eventPublisher;
 
   public RestaurantController(
     RestaurantRepository restaurantRepository,
     DishRepository dishRepository,
-    DishAtRestaurantRepository dishAtRestaurantRepository
+    DishAtRestaurantRepository dishAtRestaurantRepository,
+    SearchService searchService,
+    ApplicationEventPublisher eventPublisher
   ) {
     this.restaurantRepository = restaurantRepository;
     this.dishRepository = dishRepository;
     this.dishAtRestaurantRepository = dishAtRestaurantRepository;
+    this.searchService = searchService;
+    this.eventPublisher = eventPublisher;
   }
 
   // ── Restaurants ──────────────────────────────────────────
@@ -77,6 +86,7 @@ public class RestaurantController {
     if (request.longitude() != null) restaurant.setLongitude(request.longitude());
 
     Restaurant saved = restaurantRepository.save(restaurant);
+    eventPublisher.publishEvent(new RestaurantCreatedEvent(saved));
     log.info("POST /api/restaurants completed id={}", saved.getId());
     return toRestaurantResponse(saved);
   }
@@ -87,44 +97,16 @@ public class RestaurantController {
   public List<RestaurantSearchResponse> searchRestaurants(
     @RequestParam(defaultValue = "") String q,
     @RequestParam(required = false) Double lat,
-    @RequestParam(required = false) Double lng
+    @RequestParam(required = false) Double lng,
+    @RequestParam(required = false) Double radiusKm
   ) {
-    log.info("GET /api/restaurants/search q={} lat={} lng={}", q, lat, lng);
+    log.info("GET /api/restaurants/search q={} lat={} lng={} radiusKm={}", q, lat, lng, radiusKm);
     long start = System.currentTimeMillis();
-    if (lat != null && lng != null) {
-      // Proximity search with Haversine distance
-      return restaurantRepository.searchNearby(q, lat, lng).stream()
-        .map(row -> {
-          String id = (String) row[0];
-          String name = (String) row[1];
-          String address = (String) row[2];
-          String city = (String) row[3];
-          String state = (String) row[4];
-          String country = (String) row[5];
-          // row[6] = timezone
-          Double latitude = row[7] != null ? ((Number) row[7]).doubleValue() : null;
-          Double longitude = row[8] != null ? ((Number) row[8]).doubleValue() : null;
-          // row[9] = createdAt, row[10] = updatedAt
-          Timestamp createdTs = (Timestamp) row[9];
-          Double distanceKm = row[11] != null ? ((Number) row[11]).doubleValue() : null;
-          return new RestaurantSearchResponse(
-            id, name, address, city, state, country,
-            latitude, longitude,
-            distanceKm != null ? Math.round(distanceKm * 100.0) / 100.0 : null,
-            createdTs != null ? createdTs.toInstant() : null
-          );
-        })
-        .toList();
-    } else {
-      // Text-only search, no proximity
-      return restaurantRepository.searchByText(q).stream()
-        .map(r -> new RestaurantSearchResponse(
-          r.getId(), r.getName(), r.getAddress(), r.getCity(),
-          r.getState(), r.getCountry(), r.getLatitude(), r.getLongitude(),
-          null, r.getCreatedAt()
-        ))
-        .toList();
-    }
+    List<RestaurantSearchResponse> results = (lat != null && lng != null)
+      ? searchService.searchNearby(q, lat, lng, radiusKm)
+      : searchService.searchRestaurants(q);
+    log.info("GET /api/restaurants/search completed count={} duration={}ms", results.size(), System.currentTimeMillis() - start);
+    return results;
   }
 
   // ── Dishes at Restaurant (detail) ───────────────────────
@@ -170,6 +152,7 @@ public class RestaurantController {
     dar.setActive(true);
 
     DishAtRestaurant saved = dishAtRestaurantRepository.save(dar);
+    eventPublisher.publishEvent(new DishAtRestaurantCreatedEvent(saved));
     log.info("POST /api/restaurants/{}/dishes completed darId={}", restaurantId, saved.getId());
     return toDishAtRestaurantResponse(saved);
   }
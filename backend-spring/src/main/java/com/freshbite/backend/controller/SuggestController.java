@@ -0,0 +1,43 @@
+package com.freshbite.backend.controller;
+
+import com.freshbite.backend.dto.SuggestionResponse;
+import com.freshbite.backend.service.TypeaheadIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api")
+public class SuggestController {
+  private static final Logger log = LoggerFactory.getLogger(SuggestController.class);
+  private final TypeaheadIndex typeaheadIndex;
+
+  public SuggestController(TypeaheadIndex typeaheadIndex) {
+    this.typeaheadIndex = typeaheadIndex;
+  }
+
+  /**
+   * Typeahead completions over dish names, restaurant names and cities,
+   * most reviewed first. Served from memory — meant for every keystroke.
+   *
+   *   GET /api/suggest?q=chi            → "Chicken Tikka", "Chicago", ...
+   *   GET /api/suggest?q=tik&limit=5
+   */
+  @GetMapping("/suggest")
+  public List<SuggestionResponse> suggest(
+    @RequestParam(defaultValue = "") String q,
+    @RequestParam(defaultValue = "8") int limit
+  ) {
+    limit = Math.min(Math.max(limit, 1), TypeaheadIndex.MAX_LIMIT);
+    long start = System.nanoTime();
+    List<SuggestionResponse> suggestions = typeaheadIndex.suggest(q, limit);
+    log.debug("GET /api/suggest q={} count={} duration={}us",
+      q, suggestions.size(), (System.nanoTime() - start) / 1000);
+    return suggestions;
+  }
+}
@@ -0,0 +1,98 @@
+package com.freshbite.backend.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated review stats per DishAtRestaurant per UTC day.
+ * Rows are written by the refresh_daily_rollups() SQL function (maintenance cron),
+ * so the backend maps the table read-only.
+ */
+@Entity
+@Immutable
+@Table(name = "daily_rollup")
+public class DailyRollup {
+  @Id
+  @Column(name = "id")
+  private String id;
+
+  @Column(name = "\"dishAtRestaurantId\"", nullable = false)
+  private String dishAtRestaurantId;
+
+  @Column(name = "\"rollupDate\"", nullable = false)
+  private LocalDate rollupDate;
+
+  @Column(name = "\"reviewCount\"", nullable = false)
+  private int reviewCount;
+
+  @Column(name = "\"ratingSum\"", nullable = false)
+  private int ratingSum;
+
+  @Column(name = "rating_1_count", nullable = false)
+  private int rating1Count;
+
+  @Column(name = "rating_2_count", nullable = false)
+  private int rating2Count;
+
+  @Column(name = "rating_3_count", nullable = false)
+  private int rating3Count;
+
+  @Column(name = "rating_4_count", nullable = false)
+  private int rating4Count;
+
+  @Column(name = "rating_5_count", nullable = false)
+  private int rating5Count;
+
+  @Column(name = "\"updatedAt\"", nullable = false)
+  private Instant updatedAt;
+
+  public String getId() {
+    return id;
+  }
+
+  public String getDishAtRestaurantId() {
+    return dishAtRestaurantId;
+  }
+
+  public LocalDate getRollupDate() {
+    return rollupDate;
+  }
+
+  public int getReviewCount() {
+    return reviewCount;
+  }
+
+  public int getRatingSum() {
+    return ratingSum;
+  }
+
+  public int getRating1Count() {
+    return rating1Count;
+  }
+
+  public int getRating2Count() {
+    return rating2Count;
+  }
+
+  public int getRating3Count() {
+    return rating3Count;
+  }
+
+  public int getRating4Count() {
+    return rating4Count;
+  }
+
+  public int getRating5Count() {
+    return rating5Count;
+  }
+
+  public Instant getUpdatedAt() {
+    return updatedAt;
+  }
+}
@@ -3,6 +3,7 @@ package com.freshbite.backend.domain;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -24,7 +25,8 @@ public class Review {
   @Column(name = "id")
   private String id;
 
-  @ManyToOne(optional = false)
+  // LAZY: review reads never need the dish/restaurant graph
+  @ManyToOne(optional = false, fetch = FetchType.LAZY)
   @JoinColumn(name = "\"dishAtRestaurantId\"")
   private DishAtRestaurant dishAtRestaurant;
 
@@ -0,0 +1,10 @@
+package com.freshbite.backend.dto;
+
+/**
+ * Payload of the "summary" server-sent event on /api/dish/{id}/summary/stream.
+ */
+public record DishSummaryUpdate(
+  String dishAtRestaurantId,
+  ReviewStats stats,
+  RiskLabel risk
+) {}
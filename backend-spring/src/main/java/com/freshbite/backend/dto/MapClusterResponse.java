@@ -0,0 +1,14 @@
+package com.freshbite.backend.dto;
+
+/**
+ * One map marker. A single restaurant has {@code count} 1 and its
+ * {@code restaurantId}/{@code name}; a cluster has {@code count} > 1, null
+ * id/name, and sits at the centroid of its restaurants.
+ */
+public record MapClusterResponse(
+  double latitude,
+  double longitude,
+  int count,
+  String restaurantId,
+  String name
+) {}
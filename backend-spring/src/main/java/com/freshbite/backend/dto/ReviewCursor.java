@@ -0,0 +1,35 @@
+package com.freshbite.backend.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in a review listing ordered by (createdAt DESC, id DESC).
+ * Encoded as an opaque URL-safe token so clients never build it themselves.
+ */
+public record ReviewCursor(Instant createdAt, String id) {
+  private static final char SEPARATOR = '|';
+
+  public String encode() {
+    String raw = createdAt.toString() + SEPARATOR + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+   */
+  public static ReviewCursor decode(String token) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      int sep = raw.indexOf(SEPARATOR);
+      if (sep <= 0 || sep == raw.length() - 1) {
+        throw new IllegalArgumentException("Malformed cursor");
+      }
+      return new ReviewCursor(Instant.parse(raw.substring(0, sep)), raw.substring(sep + 1));
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Malformed cursor", e);
+    }
+  }
+}
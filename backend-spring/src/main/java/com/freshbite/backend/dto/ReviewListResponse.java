@@ -4,5 +4,6 @@ import java.util.List;
 
 public record ReviewListResponse(
   List<ReviewResponse> reviews,
-  ReviewStats stats
+  ReviewStats stats,
+  String nextCursor  // opaque keyset cursor for the next page, null on the last page
 ) {}
@@ -0,0 +1,11 @@
+package com.freshbite.backend.dto;
+
+public record RiskLeaderboardEntry(
+  String dishAtRestaurantId,
+  String dishName,
+  String restaurantName,
+  String city,
+  double avgRating,
+  int reviewCount,
+  RiskLabel risk
+) {}
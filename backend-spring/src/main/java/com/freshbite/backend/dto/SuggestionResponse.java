@@ -0,0 +1,12 @@
+package com.freshbite.backend.dto;
+
+/**
+ * One typeahead completion. {@code type} is dish, restaurant or city; {@code id}
+ * is the Dish or Restaurant id (null for cities).
+ */
+public record SuggestionResponse(
+  String type,
+  String text,
+  String id,
+  long reviewCount
+) {}
@@ -0,0 +1,8 @@
+package com.freshbite.backend.event;
+
+import com.freshbite.backend.domain.DishAtRestaurant;
+
+/**
+ * Published by RestaurantController after a dish is linked to a restaurant.
+ */
+public record DishAtRestaurantCreatedEvent(DishAtRestaurant dishAtRestaurant) {}
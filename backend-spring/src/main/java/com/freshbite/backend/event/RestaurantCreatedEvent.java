@@ -0,0 +1,8 @@
+package com.freshbite.backend.event;
+
+import com.freshbite.backend.domain.Restaurant;
+
+/**
+ * Published by RestaurantController after a restaurant is saved.
+ */
+public record RestaurantCreatedEvent(Restaurant restaurant) {}
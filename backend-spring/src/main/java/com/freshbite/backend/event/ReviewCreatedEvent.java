@@ -0,0 +1,13 @@
+package com.freshbite.backend.event;
+
+import java.time.Instant;
+
+/**
+ * Published by DishService once a review has been persisted.
+ */
+public record ReviewCreatedEvent(
+  String dishAtRestaurantId,
+  String reviewId,
+  int rating,
+  Instant createdAt
+) {}
@@ -0,0 +1,11 @@
+package com.freshbite.backend.repository;
+
+import com.freshbite.backend.domain.DailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyRollupRepository extends JpaRepository<DailyRollup, String> {
+  List<DailyRollup> findByDishAtRestaurantIdAndRollupDateBetween(String dishAtRestaurantId, LocalDate from, LocalDate to);
+}
@@ -27,4 +27,72 @@ public interface DishAtRestaurantRepository extends JpaRepository<DishAtRestaura
     LIMIT 50
     """, nativeQuery = true)
   List<DishAtRestaurant> searchByQuery(@Param("q") String query);
+
+  // Row shape: [id, dishName, restaurantName, city] — display fields for in-memory indexes
+  @Query("""
+    SELECT dar.id, d.name, r.name, r.city
+    FROM DishAtRestaurant dar
+    JOIN dar.dish d
+    JOIN dar.restaurant r
+    WHERE dar.isActive = true
+    """)
+  List<Object[]> findActiveLabels();
+
+  // Row shape: [id, dishName, cuisine, restaurantName, address, city, createdAt] — search index documents
+  @Query("""
+    SELECT dar.id, d.name, d.cuisine, r.name, r.address, r.city, dar.createdAt
+    FROM DishAtRestaurant dar
+    JOIN dar.dish d
+    JOIN dar.restaurant r
+    WHERE dar.isActive = true
+    """)
+  List<Object[]> findActiveSearchRows();
+
+  // Row shape: [id, dishId, dishName, restaurantId] — typeahead links; weights come from ReviewAggregateStore
+  @Query("""
+    SELECT dar.id, d.id, d.name, r.id
+    FROM DishAtRestaurant dar
+    JOIN dar.dish d
+    JOIN dar.restaurant r
+    WHERE dar.isActive = true
+    """)
+  List<Object[]> findActiveTypeaheadRows();
+
+  /**
+   * Ranked search over the generated Dish/Restaurant search columns
+   * (migration 20260301_search_fts_trgm). Each table is probed through its own
+   * GIN indexes and the hits are joined back to DishAtRestaurant, so no
+   * cross-table OR forces a scan. Dish-level matches count double.
+   */
+  @Query(value = """
+    WITH dish_hits AS (
+      SELECT d.id,
+             ts_rank(d.search_vector, websearch_to_tsquery('english', :q))
+               + word_similarity(lower(:q), d.search_text) AS rank
+      FROM "Dish" d
+      WHERE d.search_vector @@ websearch_to_tsquery('english', :q)
+         OR d.search_text LIKE '%' || lower(:q) || '%'
+    ),
+    restaurant_hits AS (
+      SELECT r.id,
+             ts_rank(r.search_vector, websearch_to_tsquery('simple', :q))
+               + word_similarity(lower(:q), r.search_text) AS rank
+      FROM "Restaurant" r
+      WHERE r.search_vector @@ websearch_to_tsquery('simple', :q)
+         OR r.search_text LIKE '%' || lower(:q) || '%'
+    ),
+    hits AS (
+      SELECT dar.id, h.rank * 2 AS rank
+      FROM dish_hits h JOIN "DishAtRestaurant" dar ON dar."dishId" = h.id
+      UNION ALL
+      SELECT dar.id, h.rank
+      FROM restaurant_hits h JOIN "DishAtRestaurant" dar ON dar."restaurantId" = h.id
+    )
+    SELECT dar.* FROM "DishAtRestaurant" dar
+    JOIN (SELECT id, SUM(rank) AS rank FROM hits GROUP BY id) m ON m.id = dar.id
+    WHERE dar."isActive" = true
+    ORDER BY m.rank DESC, dar."createdAt" DESC
+    LIMIT 50
+    """, nativeQuery = true)
+  List<DishAtRestaurant> searchRanked(@Param("q") String query);
 }
@@ -0,0 +1,19 @@
+package com.freshbite.backend.repository;
+
+/**
+ * A restaurant row with its great-circle distance from the query point,
+ * computed in the database. {@code osmPlaceId} is the OSM element id the
+ * row was imported from, if any.
+ */
+public interface NearbyRestaurant {
+  String getId();
+  String getOsmPlaceId();
+  String getName();
+  String getAddress();
+  String getCity();
+  String getState();
+  String getCountry();
+  Double getLatitude();
+  Double getLongitude();
+  double getDistanceKm();
+}
@@ -11,7 +11,8 @@ public interface RestaurantRepository extends JpaRepository<Restaurant, String>
   List<Restaurant> findAllByOrderByCreatedAtDesc();
 
   @Query(value = """
-    SELECT r.*, 
+    SELECT r.id, r.name, r.address, r.city, r.state, r.country, r.timezone,
+           r.latitude, r.longitude, r."createdAt", r."updatedAt",
            (6371 * acos(
              cos(radians(:lat)) * cos(radians(r.latitude)) *
              cos(radians(r.longitude) - radians(:lng)) +
@@ -45,4 +46,65 @@ public interface RestaurantRepository extends JpaRepository<Restaurant, String>
     LIMIT 200
     """, nativeQuery = true)
   List<Restaurant> searchByText(@Param("query") String query);
+
+  /**
+   * Ranked text search over the generated search_vector / search_text columns
+   * (migration 20260301_search_fts_trgm). Matches full-text terms or any
+   * substring — the trigram GIN index serves the leading-wildcard LIKE.
+   */
+  @Query(value = """
+    SELECT r.*
+    FROM "Restaurant" r
+    WHERE :query = ''
+       OR r.search_vector @@ websearch_to_tsquery('simple', :query)
+       OR r.search_text LIKE '%' || lower(:query) || '%'
+    ORDER BY
+      CASE WHEN :query = '' THEN 0
+           ELSE ts_rank(r.search_vector, websearch_to_tsquery('simple', :query))
+              + word_similarity(lower(:query), r.search_text)
+      END DESC,
+      r."createdAt" DESC
+    LIMIT 200
+    """, nativeQuery = true)
+  List<Restaurant> searchRanked(@Param("query") String query);
+
+  /**
+   * Restaurants within {@code radiusKm} of (lat, lng), nearest first. The
+   * bounding box (computed by the caller) lets Postgres range-scan
+   * Restaurant_latitude_longitude_idx; the exact haversine test and distance
+   * run only on the rows inside it.
+   */
+  @Query(value = """
+    SELECT id, "osmPlaceId", name, address, city, state, country, latitude, longitude, "distanceKm"
+    FROM (
+      SELECT r.id, r.osm_place_id AS "osmPlaceId", r.name, r.address, r.city, r.state, r.country, r.latitude, r.longitude,
+             2 * 6371 * asin(sqrt(
+               power(sin(radians(r.latitude - :lat) / 2), 2) +
+               cos(radians(:lat)) * cos(radians(r.latitude)) *
+               power(sin(radians(r.longitude - :lng) / 2), 2)
+             )) AS "distanceKm"
+      FROM "Restaurant" r
+      WHERE r.latitude BETWEEN :minLat AND :maxLat
+        AND r.longitude BETWEEN :minLng AND :maxLng
+        AND (:query = '' OR LOWER(r.name) LIKE LOWER(CONCAT('%', :query, '%'))
+             OR LOWER(r.city) LIKE LOWER(CONCAT('%', :query, '%'))
+             OR LOWER(r.address) LIKE LOWER(CONCAT('%', :query, '%'))
+             OR LOWER(r.country) LIKE LOWER(CONCAT('%', :query, '%'))
+             OR LOWER(COALESCE(r.state, '')) LIKE LOWER(CONCAT('%', :query, '%')))
+    ) candidates
+    WHERE "distanceKm" <= :radiusKm
+    ORDER BY "distanceKm"
+    LIMIT :limit
+    """, nativeQuery = true)
+  List<NearbyRestaurant> findWithinRadius(
+    @Param("query") String query,
+    @Param("lat") double lat,
+    @Param("lng") double lng,
+    @Param("radiusKm") double radiusKm,
+    @Param("minLat") double minLat,
+    @Param("maxLat") double maxLat,
+    @Param("minLng") double minLng,
+    @Param("maxLng") double maxLng,
+    @Param("limit") int limit
+  );
 }
@@ -0,0 +1,10 @@
+package com.freshbite.backend.repository;
+
+/**
+ * Single-row aggregate over a dish's reviews, computed in the database:
+ * review count and rating sum.
+ */
+public interface ReviewAggregate {
+  long getReviewCount();
+  long getRatingSum();
+}
@@ -1,13 +1,105 @@
 package com.freshbite.backend.repository;
 
 import com.freshbite.backend.domain.Review;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
 import java.util.List;
 
 public interface ReviewRepository extends JpaRepository<Review, String> {
-  List<Review> findByDishAtRestaurantIdAndCreatedAtAfterOrderByCreatedAtDesc(String dishAtRestaurantId, Instant cutoff);
-  List<Review> findByDishAtRestaurantIdAndCreatedAtAfter(String dishAtRestaurantId, Instant cutoff);
-  long countByDishAtRestaurantId(String dishAtRestaurantId);
+  List<ReviewTextView> findViewsByDishAtRestaurantIdAndCreatedAtAfterOrderByCreatedAtDesc(String dishAtRestaurantId, Instant cutoff);
+
+  // Keyset pages over Review_dishAtRestaurantId_createdAt_idx; pass PageRequest.of(0, size) — no offset, no count query
+  @Query("""
+    SELECT r FROM Review r
+    WHERE r.dishAtRestaurant.id = :dishAtRestaurantId
+      AND r.createdAt > :cutoff
+    ORDER BY r.createdAt DESC, r.id DESC
+    """)
+  List<Review> findFirstPage(
+    @Param("dishAtRestaurantId") String dishAtRestaurantId,
+    @Param("cutoff") Instant cutoff,
+    Pageable page
+  );
+
+  @Query("""
+    SELECT r FROM Review r
+    WHERE r.dishAtRestaurant.id = :dishAtRestaurantId
+      AND r.createdAt > :cutoff
+      AND (r.createdAt < :afterCreatedAt OR (r.createdAt = :afterCreatedAt AND r.id < :afterId))
+    ORDER BY r.createdAt DESC, r.id DESC
+    """)
+  List<Review> findPageAfter(
+    @Param("dishAtRestaurantId") String dishAtRestaurantId,
+    @Param("cutoff") Instant cutoff,
+    @Param("afterCreatedAt") Instant afterCreatedAt,
+    @Param("afterId") String afterId,
+    Pageable page
+  );
+
+  // Row shape: [id, dishAtRestaurantId, rating, createdAt] — no entity hydration
+  @Query("""
+    SELECT r.id, r.dishAtRestaurant.id, r.rating, r.createdAt
+    FROM Review r
+    WHERE r.createdAt > :cutoff
+    """)
+  List<Object[]> findRatingsCreatedAfter(@Param("cutoff") Instant cutoff);
+
+  // Row shape: [dishAtRestaurantId, reviewCount] — one grouped query for a whole listing page
+  @Query("""
+    SELECT r.dishAtRestaurant.id, COUNT(r)
+    FROM Review r
+    WHERE r.dishAtRestaurant.id IN :ids
+    GROUP BY r.dishAtRestaurant.id
+    """)
+  List<Object[]> countByDishAtRestaurantIds(@Param("ids") Collection<String> dishAtRestaurantIds);
+
+  // Row shape: [dishAtRestaurantId, reviewCount] — all reviews before an instant, for typeahead weights
+  @Query("""
+    SELECT r.dishAtRestaurant.id, COUNT(r)
+    FROM Review r
+    WHERE r.createdAt < :before
+    GROUP BY r.dishAtRestaurant.id
+    """)
+  List<Object[]> countCreatedBefore(@Param("before") Instant before);
+
+  /** Upper bound for open-ended ranges; far past any review and within Postgres' timestamp range. */
+  Instant OPEN_END = Instant.parse("9999-12-31T00:00:00Z");
+
+  /**
+   * First createdAt value strictly after {@code cutoff}. createdAt is TIMESTAMP(3),
+   * so {@code >= firstInstantAfter(cutoff)} is {@code > cutoff}; a sub-millisecond
+   * offset would not survive binding (pgjdbc rounds to microseconds).
+   */
+  static Instant firstInstantAfter(Instant cutoff) {
+    return cutoff.truncatedTo(ChronoUnit.MILLIS).plusMillis(1);
+  }
+
+  // Count and rating sum for one dish over [from, to) — the only aggregate query; see the defaults below
+  @Query("""
+    SELECT COUNT(r) AS reviewCount,
+           COALESCE(SUM(r.rating), 0) AS ratingSum
+    FROM Review r
+    WHERE r.dishAtRestaurant.id = :dishAtRestaurantId
+      AND r.createdAt >= :from AND r.createdAt < :to
+    """)
+  ReviewAggregate aggregateBetween(
+    @Param("dishAtRestaurantId") String dishAtRestaurantId,
+    @Param("from") Instant fromInclusive,
+    @Param("to") Instant toExclusive
+  );
+
+  // Same predicate as the raw list (createdAt > cutoff)
+  default ReviewAggregate aggregateAfter(String dishAtRestaurantId, Instant cutoff) {
+    return aggregateBetween(dishAtRestaurantId, firstInstantAfter(cutoff), OPEN_END);
+  }
+
+  default ReviewAggregate aggregateSince(String dishAtRestaurantId, Instant fromInclusive) {
+    return aggregateBetween(dishAtRestaurantId, fromInclusive, OPEN_END);
+  }
 }
@@ -0,0 +1,14 @@
+package com.freshbite.backend.repository;
+
+import java.time.Instant;
+
+/**
+ * Closed projection of the Review columns the LLM needs, so the chat path
+ * selects four columns instead of hydrating Review entities.
+ */
+public interface ReviewTextView {
+  String getId();
+  int getRating();
+  String getText();
+  Instant getCreatedAt();
+}
@@ -0,0 +1,120 @@
+package com.freshbite.backend.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Burkhard–Keller tree over words under Levenshtein distance.
+ * <p>
+ * Children are bucketed by their distance to the parent, so a query for
+ * words within {@code maxDistance} of {@code q} only descends into buckets
+ * {@code [d - maxDistance, d + maxDistance]} where {@code d} is the
+ * distance from {@code q} to the current node (triangle inequality). The
+ * walk stops early once {@code maxVisits} nodes were compared or the
+ * deadline passed, returning what it found so far.
+ */
+final class BkTree {
+  private Node root;
+  private int size;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  record Match(String word, int distance) {}
+
+  private static final class Node {
+    final String word;
+    Node[] children = new Node[0]; // index = distance to this node
+
+    Node(String word) {
+      this.word = word;
+    }
+  }
+
+  /** Adds {@code word} unless it is already present. */
+  void add(String word) {
+    lock.writeLock().lock();
+    try {
+      if (root == null) {
+        root = new Node(word);
+        size++;
+        return;
+      }
+      Node node = root;
+      while (true) {
+        int d = distance(word, node.word);
+        if (d == 0) return;
+        if (d >= node.children.length) node.children = Arrays.copyOf(node.children, d + 1);
+        Node child = node.children[d];
+        if (child == null) {
+          node.children[d] = new Node(word);
+          size++;
+          return;
+        }
+        node = child;
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  int size() {
+    lock.readLock().lock();
+    try {
+      return size;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Words within {@code maxDistance} of {@code query}, in visit order.
+   */
+  List<Match> search(String query, int maxDistance, int maxVisits, long deadlineNanos) {
+    List<Match> matches = new ArrayList<>();
+    lock.readLock().lock();
+    try {
+      if (root == null) return matches;
+      Deque<Node> stack = new ArrayDeque<>();
+      stack.push(root);
+      int visits = 0;
+      while (!stack.isEmpty()) {
+        if (++visits > maxVisits || ((visits & 63) == 0 && System.nanoTime() > deadlineNanos)) break;
+        Node node = stack.pop();
+        int d = distance(query, node.word);
+        if (d <= maxDistance) matches.add(new Match(node.word, d));
+        int from = Math.max(1, d - maxDistance);
+        int to = Math.min(node.children.length - 1, d + maxDistance);
+        for (int i = from; i <= to; i++) {
+          if (node.children[i] != null) stack.push(node.children[i]);
+        }
+      }
+      return matches;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Two-row Levenshtein distance. Must be exact — the tree's pruning relies on it. */
+  static int distance(String a, String b) {
+    if (a.equals(b)) return 0;
+    int[] prev = new int[b.length() + 1];
+    int[] curr = new int[b.length() + 1];
+    for (int j = 0; j <= b.length(); j++) prev[j] = j;
+    for (int i = 1; i <= a.length(); i++) {
+      curr[0] = i;
+      char ca = a.charAt(i - 1);
+      for (int j = 1; j <= b.length(); j++) {
+        int cost = ca == b.charAt(j - 1) ? 0 : 1;
+        curr[j] = Math.min(Math.min(curr[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+      }
+      int[] t = prev;
+      prev = curr;
+      curr = t;
+    }
+    return prev[b.length()];
+  }
+}
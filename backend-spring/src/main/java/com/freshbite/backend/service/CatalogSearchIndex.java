@@ -0,0 +1,237 @@
+package com.freshbite.backend.service;
+
+import com.freshbite.backend.domain.DishAtRestaurant;
+import com.freshbite.backend.domain.Restaurant;
+import com.freshbite.backend.event.DishAtRestaurantCreatedEvent;
+import com.freshbite.backend.event.RestaurantCreatedEvent;
+import com.freshbite.backend.repository.DishAtRestaurantRepository;
+import com.freshbite.backend.repository.RestaurantRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory trigram search over active dishes and restaurants
+ * ({@code app.search.backend=memory}).
+ * <p>
+ * Dish documents cover dish name, cuisine, restaurant name, address and city;
+ * restaurant documents cover name, city, address, state and country — the same
+ * columns the LIKE queries scan. Both indexes are loaded before the web server
+ * accepts traffic and updated from the create events RestaurantController
+ * publishes. Rows written by the Next.js API routes are picked up by a full
+ * rebuild every {@code rebuild-minutes}; events that arrive while a rebuild is
+ * loading are replayed into the fresh generation before it is swapped in.
+ * <p>
+ * Until the first load succeeds {@link #isReady()} is false and callers stay
+ * on the database path.
+ */
+@Component
+public class CatalogSearchIndex {
+  private static final Logger log = LoggerFactory.getLogger(CatalogSearchIndex.class);
+
+  public record DishDoc(
+    String id,
+    String dishName,
+    String cuisine,
+    String restaurantName,
+    String address,
+    String city,
+    Instant createdAt
+  ) {}
+
+  public record RestaurantDoc(
+    String id,
+    String name,
+    String address,
+    String city,
+    String state,
+    String country,
+    Double latitude,
+    Double longitude,
+    Instant createdAt
+  ) {}
+
+  // dishName, cuisine, restaurantName, address, city
+  private static final int[] DISH_WEIGHTS = {5, 2, 3, 1, 2};
+  // name, city, address, state, country
+  private static final int[] RESTAURANT_WEIGHTS = {5, 2, 1, 1, 1};
+
+  private static final Comparator<DishDoc> NEWEST_DISH_FIRST = Comparator
+    .comparing(DishDoc::createdAt, Comparator.nullsLast(Comparator.reverseOrder()))
+    .thenComparing(DishDoc::id);
+  private static final Comparator<RestaurantDoc> NEWEST_RESTAURANT_FIRST = Comparator
+    .comparing(RestaurantDoc::createdAt, Comparator.nullsLast(Comparator.reverseOrder()))
+    .thenComparing(RestaurantDoc::id);
+
+  /** One consistent pair of indexes plus the ids they already hold. */
+  private static final class Generation {
+    final TrigramIndex<DishDoc> dishes = new TrigramIndex<>(
+      d -> new String[] {d.dishName(), d.cuisine(), d.restaurantName(), d.address(), d.city()},
+      DISH_WEIGHTS, NEWEST_DISH_FIRST);
+    final TrigramIndex<RestaurantDoc> restaurants = new TrigramIndex<>(
+      r -> new String[] {r.name(), r.city(), r.address(), r.state(), r.country()},
+      RESTAURANT_WEIGHTS, NEWEST_RESTAURANT_FIRST);
+    final Set<String> dishIds = new HashSet<>();
+    final Set<String> restaurantIds = new HashSet<>();
+
+    void add(DishDoc doc) {
+      if (dishIds.add(doc.id())) dishes.add(doc);
+    }
+
+    void add(RestaurantDoc doc) {
+      if (restaurantIds.add(doc.id())) restaurants.add(doc);
+    }
+  }
+
+  private final DishAtRestaurantRepository dishAtRestaurantRepository;
+  private final RestaurantRepository restaurantRepository;
+  private final boolean enabled;
+  private final long rebuildMinutes;
+  private final Object writeLock = new Object();
+  private final List<Object> addedDuringRebuild = new ArrayList<>();
+  private volatile Generation current;
+  private boolean rebuilding;
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread t = new Thread(r, "catalog-search-rebuild");
+    t.setDaemon(true);
+    return t;
+  });
+
+  public CatalogSearchIndex(
+    DishAtRestaurantRepository dishAtRestaurantRepository,
+    RestaurantRepository restaurantRepository,
+    @Value("${app.search.backend:memory}") String backend,
+    @Value("${app.search.index.rebuild-minutes:10}") long rebuildMinutes
+  ) {
+    this.dishAtRestaurantRepository = dishAtRestaurantRepository;
+    this.restaurantRepository = restaurantRepository;
+    this.enabled = "memory".equalsIgnoreCase(backend);
+    this.rebuildMinutes = rebuildMinutes;
+  }
+
+  @PostConstruct
+  public void load() {
+    if (!enabled) {
+      log.info("CatalogSearchIndex disabled — search uses the query path");
+      return;
+    }
+    rebuild();
+    if (rebuildMinutes > 0) {
+      scheduler.scheduleWithFixedDelay(this::rebuild, rebuildMinutes, rebuildMinutes, TimeUnit.MINUTES);
+    }
+  }
+
+  public boolean isReady() {
+    return current != null;
+  }
+
+  /**
+   * Best {@code limit} active dishes matching {@code query}, ranked by field
+   * weight and then newest first. Requires {@link #isReady()}.
+   */
+  public List<DishDoc> searchDishes(String query, int limit) {
+    return current.dishes.search(query, limit);
+  }
+
+  /**
+   * Best {@code limit} restaurants matching {@code query}; an empty query
+   * returns the newest. Requires {@link #isReady()}.
+   */
+  public List<RestaurantDoc> searchRestaurants(String query, int limit) {
+    return current.restaurants.search(query, limit);
+  }
+
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void onRestaurantCreated(RestaurantCreatedEvent event) {
+    if (!enabled) return;
+    Restaurant r = event.restaurant();
+    add(new RestaurantDoc(
+      r.getId(), r.getName(), r.getAddress(), r.getCity(), r.getState(), r.getCountry(),
+      r.getLatitude(), r.getLongitude(), r.getCreatedAt() != null ? r.getCreatedAt() : Instant.now()
+    ));
+  }
+
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void onDishAtRestaurantCreated(DishAtRestaurantCreatedEvent event) {
+    if (!enabled) return;
+    DishAtRestaurant dar = event.dishAtRestaurant();
+    if (!dar.isActive()) return;
+    add(new DishDoc(
+      dar.getId(), dar.getDish().getName(), dar.getDish().getCuisine(),
+      dar.getRestaurant().getName(), dar.getRestaurant().getAddress(), dar.getRestaurant().getCity(),
+      dar.getCreatedAt() != null ? dar.getCreatedAt() : Instant.now()
+    ));
+  }
+
+  private void add(Object doc) {
+    synchronized (writeLock) {
+      Generation gen = current;
+      if (gen != null) addTo(gen, doc);
+      if (rebuilding) addedDuringRebuild.add(doc);
+    }
+  }
+
+  private void rebuild() {
+    synchronized (writeLock) {
+      rebuilding = true;
+      addedDuringRebuild.clear();
+    }
+    long start = System.currentTimeMillis();
+    try {
+      Generation fresh = new Generation();
+      for (Object[] row : dishAtRestaurantRepository.findActiveSearchRows()) {
+        fresh.add(new DishDoc(
+          (String) row[0], (String) row[1], (String) row[2],
+          (String) row[3], (String) row[4], (String) row[5], (Instant) row[6]
+        ));
+      }
+      for (Restaurant r : restaurantRepository.findAll()) {
+        fresh.add(new RestaurantDoc(
+          r.getId(), r.getName(), r.getAddress(), r.getCity(), r.getState(), r.getCountry(),
+          r.getLatitude(), r.getLongitude(), r.getCreatedAt()
+        ));
+      }
+      synchronized (writeLock) {
+        for (Object doc : addedDuringRebuild) addTo(fresh, doc);
+        current = fresh;
+      }
+      log.info("CatalogSearchIndex rebuilt dishes={} restaurants={} duration={}ms",
+        fresh.dishes.size(), fresh.restaurants.size(), System.currentTimeMillis() - start);
+    } catch (Exception e) {
+      log.error("CatalogSearchIndex rebuild FAILED error={}", e.getMessage(), e);
+    } finally {
+      synchronized (writeLock) {
+        rebuilding = false;
+        addedDuringRebuild.clear();
+      }
+    }
+  }
+
+  private static void addTo(Generation gen, Object doc) {
+    if (doc instanceof DishDoc d) gen.add(d);
+    else if (doc instanceof RestaurantDoc r) gen.add(r);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+}
@@ -0,0 +1,129 @@
+package com.freshbite.backend.service;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Blocking {@link InputStream} over a {@code DataBuffer} publisher, such as a
+ * WebClient response body.
+ * <p>
+ * At most {@code demand} buffers are requested ahead of the reader. Each is
+ * copied to the heap and released as it arrives, so nothing pooled outlives
+ * the stream. {@link #close} cancels the subscription — for a response body
+ * that aborts the exchange — and may be called from another thread to
+ * unblock a pending read, which then fails.
+ */
+final class DataBufferInputStream extends InputStream {
+  private static final byte[] END = new byte[0];
+  private static final byte[] CLOSED = new byte[0];
+
+  private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+  private final Subscriber subscriber = new Subscriber();
+  private final int demand;
+  private volatile boolean closed;
+  private byte[] chunk;
+  private int position;
+  private boolean finished;
+
+  DataBufferInputStream(Publisher<DataBuffer> body, int demand) {
+    this.demand = demand;
+    body.subscribe(subscriber);
+  }
+
+  @Override
+  public int read() throws IOException {
+    byte[] one = new byte[1];
+    return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) return 0;
+    if (!fill()) return -1;
+    int n = Math.min(len, chunk.length - position);
+    System.arraycopy(chunk, position, b, off, n);
+    position += n;
+    return n;
+  }
+
+  /** Makes {@code chunk} readable; false at the end of the body. */
+  private boolean fill() throws IOException {
+    while (chunk == null || position == chunk.length) {
+      if (chunk != null) {
+        chunk = null;
+        subscriber.request(1);
+      }
+      if (finished) return false;
+      Object next;
+      try {
+        next = queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted reading response body");
+      }
+      if (next == CLOSED) throw new IOException("Stream closed");
+      if (next == END) {
+        finished = true;
+        return false;
+      }
+      if (next instanceof Throwable t) {
+        finished = true;
+        throw t instanceof IOException io ? io : new IOException(t.getMessage(), t);
+      }
+      chunk = (byte[]) next;
+      position = 0;
+    }
+    return true;
+  }
+
+  @Override
+  public void close() {
+    if (closed) return;
+    closed = true;
+    subscriber.dispose();
+    queue.clear();
+    queue.offer(CLOSED);
+  }
+
+  private final class Subscriber extends BaseSubscriber<DataBuffer> {
+    @Override
+    protected void hookOnSubscribe(Subscription subscription) {
+      subscription.request(demand);
+    }
+
+    @Override
+    protected void hookOnNext(DataBuffer buffer) {
+      try {
+        if (closed) return;
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        if (bytes.length == 0) {
+          request(1); // nothing to hand over; keep the window full
+        } else {
+          queue.offer(bytes);
+        }
+      } finally {
+        DataBufferUtils.release(buffer);
+      }
+    }
+
+    @Override
+    protected void hookOnComplete() {
+      queue.offer(END);
+    }
+
+    @Override
+    protected void hookOnError(Throwable error) {
+      queue.offer(error);
+    }
+  }
+}
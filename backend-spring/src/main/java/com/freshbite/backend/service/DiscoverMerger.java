@@ -0,0 +1,197 @@
+package com.freshbite.backend.service;
+
+import com.freshbite.backend.dto.DiscoveredRestaurant;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Merges OpenStreetMap and FreshBite results for {@code /api/discover} so a
+ * restaurant present in both sources is returned once.
+ * <p>
+ * A FreshBite row matches an OSM element when its {@code osm_place_id} is
+ * that element's id; otherwise when it lies within {@code max-distance-m}
+ * and the normalized names are similar (one contains the other, or bigram
+ * Dice ≥ {@code name-similarity}). Candidates come from a hash grid with
+ * {@code max-distance-m} cells, so each OSM result checks only the 3 × 3
+ * cells around it and the merge is linear in the number of results.
+ * <p>
+ * The FreshBite record wins (its id, name and address), taking the OSM id,
+ * cuisine, phone, website and opening hours it lacks. Each FreshBite row
+ * absorbs at most one OSM element.
+ */
+@Component
+public class DiscoverMerger {
+  private static final double KM_PER_DEGREE = Math.toRadians(GeoMath.EARTH_RADIUS_KM);
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern NON_ALNUM = Pattern.compile("[^\\p{L}\\p{N}]+");
+  private static final Set<String> STOP_WORDS = Set.of("the", "restaurant", "and");
+
+  private final double maxDistanceKm;
+  private final double minSimilarity;
+
+  public DiscoverMerger(
+    @Value("${app.discover.dedup.max-distance-m:100}") double maxDistanceM,
+    @Value("${app.discover.dedup.name-similarity:0.6}") double minSimilarity
+  ) {
+    this.maxDistanceKm = maxDistanceM / 1000.0;
+    this.minSimilarity = minSimilarity;
+  }
+
+  /**
+   * OSM results with their FreshBite duplicates folded in, followed by the
+   * FreshBite results that matched nothing. FreshBite entries carry their
+   * {@code osm_place_id} (if numeric) in {@code osmId}, 0 otherwise.
+   */
+  public List<DiscoveredRestaurant> merge(List<DiscoveredRestaurant> osm, List<DiscoveredRestaurant> freshbite) {
+    if (osm.isEmpty() || freshbite.isEmpty()) {
+      List<DiscoveredRestaurant> out = new ArrayList<>(osm.size() + freshbite.size());
+      out.addAll(osm);
+      out.addAll(freshbite);
+      return out;
+    }
+
+    // Cells are max-distance wide in both directions at the first result's latitude;
+    // discover radii are small enough that the scale barely changes across the set
+    double cellLat = maxDistanceKm / KM_PER_DEGREE;
+    double cellLng = cellLat / Math.max(0.01, Math.cos(Math.toRadians(freshbite.get(0).latitude())));
+
+    Map<Long, Integer> byOsmId = new HashMap<>();
+    Map<Long, List<Integer>> grid = new HashMap<>();
+    String[] names = new String[freshbite.size()];
+    for (int i = 0; i < freshbite.size(); i++) {
+      DiscoveredRestaurant fb = freshbite.get(i);
+      if (fb.osmId() != 0) byOsmId.putIfAbsent(fb.osmId(), i);
+      names[i] = normalizeName(fb.name());
+      grid.computeIfAbsent(cellKey(cell(fb.latitude(), cellLat), cell(fb.longitude(), cellLng)), k -> new ArrayList<>(2)).add(i);
+    }
+
+    boolean[] used = new boolean[freshbite.size()];
+    List<DiscoveredRestaurant> out = new ArrayList<>(osm.size() + freshbite.size());
+    for (DiscoveredRestaurant o : osm) {
+      Integer match = byOsmId.get(o.osmId());
+      if (match == null || used[match]) {
+        match = nearbySameName(o, freshbite, names, used, grid, cellLat, cellLng);
+      }
+      if (match == null) {
+        out.add(o);
+        continue;
+      }
+      used[match] = true;
+      out.add(combine(freshbite.get(match), o));
+    }
+    for (int i = 0; i < freshbite.size(); i++) {
+      if (!used[i]) out.add(freshbite.get(i));
+    }
+    return out;
+  }
+
+  private Integer nearbySameName(DiscoveredRestaurant o, List<DiscoveredRestaurant> freshbite, String[] names,
+                                 boolean[] used, Map<Long, List<Integer>> grid, double cellLat, double cellLng) {
+    String name = normalizeName(o.name());
+    if (name.isEmpty()) return null;
+    long row = cell(o.latitude(), cellLat);
+    long col = cell(o.longitude(), cellLng);
+    Integer best = null;
+    double bestKm = Double.POSITIVE_INFINITY;
+    for (long dr = -1; dr <= 1; dr++) {
+      for (long dc = -1; dc <= 1; dc++) {
+        List<Integer> candidates = grid.get(cellKey(row + dr, col + dc));
+        if (candidates == null) continue;
+        for (int i : candidates) {
+          if (used[i]) continue;
+          DiscoveredRestaurant fb = freshbite.get(i);
+          double km = GeoMath.haversineKm(o.latitude(), o.longitude(), fb.latitude(), fb.longitude());
+          if (km > maxDistanceKm || km >= bestKm || !similar(name, names[i])) continue;
+          best = i;
+          bestKm = km;
+        }
+      }
+    }
+    return best;
+  }
+
+  private static DiscoveredRestaurant combine(DiscoveredRestaurant fb, DiscoveredRestaurant o) {
+    return new DiscoveredRestaurant(
+      o.osmId(),
+      fb.name(),
+      fb.cuisine() != null ? fb.cuisine() : o.cuisine(),
+      fb.address() != null ? fb.address() : o.address(),
+      fb.city() != null ? fb.city() : o.city(),
+      fb.state() != null ? fb.state() : o.state(),
+      fb.country() != null ? fb.country() : o.country(),
+      fb.phone() != null ? fb.phone() : o.phone(),
+      fb.website() != null ? fb.website() : o.website(),
+      fb.openingHours() != null ? fb.openingHours() : o.openingHours(),
+      o.type(),
+      fb.latitude(),
+      fb.longitude(),
+      fb.distanceKm(),
+      fb.source(),
+      fb.freshbiteId()
+    );
+  }
+
+  private boolean similar(String a, String b) {
+    if (b.isEmpty()) return false;
+    String x = a.replace(" ", "");
+    String y = b.replace(" ", "");
+    // Containment ("mcdonalds" in "mcdonalds phoenix") only once the shorter name is distinctive
+    if (Math.min(x.length(), y.length()) >= 4 && (x.contains(y) || y.contains(x))) return true;
+    return dice(x, y) >= minSimilarity;
+  }
+
+  /** Sørensen–Dice coefficient over character bigrams. */
+  private static double dice(String a, String b) {
+    if (a.length() < 2 || b.length() < 2) return a.equals(b) ? 1 : 0;
+    Map<Integer, Integer> bigrams = new HashMap<>();
+    for (int i = 0; i + 1 < a.length(); i++) {
+      bigrams.merge(bigram(a, i), 1, Integer::sum);
+    }
+    int shared = 0;
+    for (int i = 0; i + 1 < b.length(); i++) {
+      Integer left = bigrams.get(bigram(b, i));
+      if (left != null && left > 0) {
+        bigrams.put(bigram(b, i), left - 1);
+        shared++;
+      }
+    }
+    return 2.0 * shared / (a.length() - 1 + b.length() - 1);
+  }
+
+  private static int bigram(String s, int i) {
+    return (s.charAt(i) << 16) | s.charAt(i + 1);
+  }
+
+  /** "Joe's Café & Grill" → "joes cafe grill". */
+  static String normalizeName(String name) {
+    if (name == null) return "";
+    String s = MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+    s = s.toLowerCase(Locale.ROOT).replace("'", "").replace("’", "");
+    StringBuilder out = new StringBuilder();
+    Set<String> seen = new HashSet<>();
+    for (String word : NON_ALNUM.split(s)) {
+      if (word.isEmpty() || STOP_WORDS.contains(word) || !seen.add(word)) continue;
+      if (out.length() > 0) out.append(' ');
+      out.append(word);
+    }
+    return out.toString();
+  }
+
+  private static long cell(double degrees, double cellDegrees) {
+    return (long) Math.floor(degrees / cellDegrees);
+  }
+
+  private static long cellKey(long row, long col) {
+    return (row << 32) ^ (col & 0xFFFFFFFFL);
+  }
+}
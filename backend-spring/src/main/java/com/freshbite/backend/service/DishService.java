@@ -1,48 +1,120 @@
 package com.freshbite.backend.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.freshbite.backend.domain.DailyRollup;
 import com.freshbite.backend.domain.DishAtRestaurant;
 import com.freshbite.backend.domain.Review;
 import com.freshbite.backend.dto.CreateReviewRequest;
 import com.freshbite.backend.dto.DishListItemResponse;
 import com.freshbite.backend.dto.DishSummaryResponse;
+import com.freshbite.backend.dto.ReviewCursor;
 import com.freshbite.backend.dto.ReviewListResponse;
 import com.freshbite.backend.dto.ReviewResponse;
 import com.freshbite.backend.dto.ReviewStats;
 import com.freshbite.backend.dto.TimeWindow;
+import com.freshbite.backend.event.ReviewCreatedEvent;
+import com.freshbite.backend.repository.DailyRollupRepository;
 import com.freshbite.backend.repository.DishAtRestaurantRepository;
+import com.freshbite.backend.repository.ReviewAggregate;
 import com.freshbite.backend.repository.ReviewRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class DishService {
   private static final Logger log = LoggerFactory.getLogger(DishService.class);
+  // A rollup row refreshed this long after its day ended is treated as final
+  private static final Duration ROLLUP_SETTLE = Duration.ofMinutes(5);
+  private static final int STREAM_FETCH_SIZE = 500;
   private final DishAtRestaurantRepository dishAtRestaurantRepository;
   private final ReviewRepository reviewRepository;
+  private final DailyRollupRepository dailyRollupRepository;
+  private final ReviewAggregateStore reviewAggregateStore;
+  private final ReviewIngestBuffer reviewIngestBuffer;
+  private final SearchService searchService;
+  private final FuzzyMatcher fuzzyMatcher;
+  private final SearchCache searchCache;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate readOnlyTx;
+  private final ObjectMapper objectMapper;
+  private final ApplicationEventPublisher eventPublisher;
 
-  public DishService(DishAtRestaurantRepository dishAtRestaurantRepository, ReviewRepository reviewRepository) {
+  public DishService(
+    DishAtRestaurantRepository dishAtRestaurantRepository,
+    ReviewRepository reviewRepository,
+    DailyRollupRepository dailyRollupRepository,
+    ReviewAggregateStore reviewAggregateStore,
+    ReviewIngestBuffer reviewIngestBuffer,
+    SearchService searchService,
+    FuzzyMatcher fuzzyMatcher,
+    SearchCache searchCache,
+    JdbcTemplate jdbcTemplate,
+    PlatformTransactionManager transactionManager,
+    ObjectMapper objectMapper,
+    ApplicationEventPublisher eventPublisher
+  ) {
     this.dishAtRestaurantRepository = dishAtRestaurantRepository;
     this.reviewRepository = reviewRepository;
+    this.dailyRollupRepository = dailyRollupRepository;
+    this.reviewAggregateStore = reviewAggregateStore;
+    this.reviewIngestBuffer = reviewIngestBuffer;
+    this.searchService = searchService;
+    this.fuzzyMatcher = fuzzyMatcher;
+    this.searchCache = searchCache;
+    this.jdbcTemplate = jdbcTemplate;
+    this.readOnlyTx = new TransactionTemplate(transactionManager);
+    this.readOnlyTx.setReadOnly(true);
+    this.objectMapper = objectMapper;
+    this.eventPublisher = eventPublisher;
   }
 
   public List<DishListItemResponse> listRecentDishes() {
     log.debug("DishService.listRecentDishes");
-    return dishAtRestaurantRepository.findTop10ByIsActiveTrueOrderByCreatedAtDesc()
-      .stream()
-      .map(this::toDishListItem)
-      .toList();
+    return toDishListItems(toDishHits(dishAtRestaurantRepository.findTop10ByIsActiveTrueOrderByCreatedAtDesc()));
   }
 
   public List<DishListItemResponse> searchDishes(String query) {
     log.debug("DishService.searchDishes q={}", query);
-    return dishAtRestaurantRepository.searchByQuery(query)
-      .stream()
-      .map(this::toDishListItem)
-      .toList();
+    SearchCache.DishResult cached = searchCache.dishes(query, q -> {
+      List<SearchCache.DishHit> results = toDishHits(searchService.searchDishes(q));
+      if (!results.isEmpty()) return new SearchCache.DishResult(q, results);
+      // Nothing matched as typed — retry once with misspelled words corrected
+      Optional<String> corrected = fuzzyMatcher.correct(q);
+      if (corrected.isEmpty()) return new SearchCache.DishResult(q, results);
+      log.debug("DishService.searchDishes fuzzy q={} corrected={}", q, corrected.get());
+      return new SearchCache.DishResult(corrected.get(), toDishHits(searchService.searchDishes(corrected.get())));
+    });
+    return toDishListItems(cached.results());
   }
 
   public DishSummaryResponse getSummary(String dishAtRestaurantId, TimeWindow window) {
@@ -50,10 +122,19 @@ public class DishService {
     DishAtRestaurant dishAtRestaurant = dishAtRestaurantRepository.findById(dishAtRestaurantId)
       .orElseThrow();
 
-    Instant cutoff = window.cutoff(Instant.now());
-    List<Review> reviews = reviewRepository.findByDishAtRestaurantIdAndCreatedAtAfter(dishAtRestaurantId, cutoff);
-
-    ReviewStats stats = calculateStats(reviews, window);
+    Instant now = Instant.now();
+    ReviewAggregateStore.Totals totals = reviewAggregateStore.totals(dishAtRestaurantId, window, now)
+      .orElseGet(() -> rollupTotals(dishAtRestaurantId, window, now));
+    // Read-your-write under buffered ingestion, as in getReviews. For the instant a
+    // batch is handed from the buffer to the table it may be counted twice or not at all
+    if (reviewIngestBuffer.isEnabled()) {
+      Instant cutoff = window.cutoff(now);
+      for (ReviewIngestBuffer.PendingReview p : reviewIngestBuffer.pendingFor(dishAtRestaurantId)) {
+        if (!p.createdAt().isAfter(cutoff)) continue;
+        totals = new ReviewAggregateStore.Totals(totals.reviewCount() + 1, totals.ratingSum() + p.rating());
+      }
+    }
+    ReviewStats stats = toStats(totals.reviewCount(), totals.ratingSum(), window);
 
     return new DishSummaryResponse(
       new DishSummaryResponse.DishInfo(
@@ -73,27 +154,109 @@ public class DishService {
     );
   }
 
-  public ReviewListResponse getReviews(String dishAtRestaurantId, TimeWindow window) {
-    log.debug("DishService.getReviews id={} window={}", dishAtRestaurantId, window.getValue());
-    DishAtRestaurant dishAtRestaurant = dishAtRestaurantRepository.findById(dishAtRestaurantId)
-      .orElseThrow();
+  public ReviewListResponse getReviews(String dishAtRestaurantId, TimeWindow window, ReviewCursor cursor, int limit) {
+    log.debug("DishService.getReviews id={} window={} cursor={} limit={}",
+      dishAtRestaurantId, window.getValue(), cursor != null, limit);
+    requireDish(dishAtRestaurantId);
 
     Instant cutoff = window.cutoff(Instant.now());
-    List<Review> reviews = reviewRepository.findByDishAtRestaurantIdAndCreatedAtAfterOrderByCreatedAtDesc(
-      dishAtRestaurantId,
-      cutoff
-    );
+    // Fetch one extra row to learn whether another page exists
+    Pageable page = PageRequest.of(0, limit + 1);
+    List<Review> reviews = cursor == null
+      ? reviewRepository.findFirstPage(dishAtRestaurantId, cutoff, page)
+      : reviewRepository.findPageAfter(dishAtRestaurantId, cutoff, cursor.createdAt(), cursor.id(), page);
 
-    ReviewStats stats = calculateStats(reviews, window);
+    String nextCursor = null;
+    if (reviews.size() > limit) {
+      reviews = reviews.subList(0, limit);
+      Review last = reviews.get(limit - 1);
+      nextCursor = new ReviewCursor(last.getCreatedAt(), last.getId()).encode();
+    }
+
+    ReviewAggregate aggregate = reviewRepository.aggregateAfter(dishAtRestaurantId, cutoff);
+    List<ReviewResponse> responses = reviews.stream().map(this::toReviewResponse).toList();
+    long reviewCount = aggregate.getReviewCount();
+    long ratingSum = aggregate.getRatingSum();
+
+    // Read-your-write under buffered ingestion: acknowledged reviews not yet flushed lead the first page
+    if (cursor == null && reviewIngestBuffer.isEnabled()) {
+      Set<String> onPage = responses.stream().map(ReviewResponse::id).collect(Collectors.toSet());
+      List<ReviewResponse> unflushed = reviewIngestBuffer.pendingFor(dishAtRestaurantId).stream()
+        .filter(p -> p.createdAt().isAfter(cutoff) && !onPage.contains(p.id()))
+        .map(p -> new ReviewResponse(p.id(), p.rating(), p.text(), p.createdAt(), p.visitedAt(), null))
+        .toList();
+      if (!unflushed.isEmpty()) {
+        reviewCount += unflushed.size();
+        ratingSum += unflushed.stream().mapToLong(ReviewResponse::rating).sum();
+        responses = Stream.concat(unflushed.stream(), responses.stream()).toList();
+      }
+    }
 
     return new ReviewListResponse(
-      reviews.stream().map(this::toReviewResponse).toList(),
-      stats
+      responses,
+      toStats(reviewCount, ratingSum, window),
+      nextCursor
     );
   }
 
+  /**
+   * Writes every review in the window as newline-delimited JSON, straight from a
+   * server-side JDBC cursor. Postgres only honours the fetch size inside a
+   * transaction, hence the read-only TransactionTemplate; memory stays at one
+   * fetch batch however many rows the window holds.
+   */
+  public void streamReviews(String dishAtRestaurantId, TimeWindow window, OutputStream out) {
+    log.debug("DishService.streamReviews id={} window={}", dishAtRestaurantId, window.getValue());
+    Instant cutoff = window.cutoff(Instant.now());
+    int[] written = {0};
+
+    readOnlyTx.executeWithoutResult(status -> jdbcTemplate.query(
+      connection -> {
+        PreparedStatement ps = connection.prepareStatement("""
+          SELECT id, rating, text, "createdAt", "visitedAt", "mealSlot"
+          FROM "Review"
+          WHERE "dishAtRestaurantId" = ? AND "createdAt" > ?
+          ORDER BY "createdAt" DESC, id DESC
+          """);
+        ps.setFetchSize(STREAM_FETCH_SIZE);
+        ps.setString(1, dishAtRestaurantId);
+        // Same binding Hibernate uses for the entity's Instant columns
+        ps.setTimestamp(2, Timestamp.from(cutoff));
+        return ps;
+      },
+      (ResultSet rs) -> {
+        Timestamp visitedAt = rs.getTimestamp("visitedAt");
+        ReviewResponse row = new ReviewResponse(
+          rs.getString("id"),
+          rs.getInt("rating"),
+          rs.getString("text"),
+          rs.getTimestamp("createdAt").toInstant(),
+          visitedAt != null ? visitedAt.toInstant() : null,
+          rs.getString("mealSlot")
+        );
+        try {
+          out.write(objectMapper.writeValueAsBytes(row));
+          out.write('\n');
+          if (++written[0] % STREAM_FETCH_SIZE == 0) out.flush();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+    ));
+    log.debug("DishService.streamReviews completed id={} rows={}", dishAtRestaurantId, written[0]);
+  }
+
+  public void requireDish(String dishAtRestaurantId) {
+    if (!dishAtRestaurantRepository.existsById(dishAtRestaurantId)) {
+      throw new NoSuchElementException("Dish not found: " + dishAtRestaurantId);
+    }
+  }
+
   public ReviewResponse createReview(String dishAtRestaurantId, CreateReviewRequest request) {
       log.info("DishService.createReview id={} rating={}", dishAtRestaurantId, request.rating());
+      if (reviewIngestBuffer.isEnabled()) {
+        return enqueueReview(dishAtRestaurantId, request);
+      }
       DishAtRestaurant dishAtRestaurant = dishAtRestaurantRepository.findById(dishAtRestaurantId)
         .orElseThrow();
 
@@ -106,18 +269,83 @@ public class DishService {
       }
 
       Review saved = reviewRepository.save(review);
+      reviewAggregateStore.record(saved.getId(), dishAtRestaurantId, saved.getRating(), saved.getCreatedAt());
+      eventPublisher.publishEvent(new ReviewCreatedEvent(
+        dishAtRestaurantId, saved.getId(), saved.getRating(), saved.getCreatedAt()
+      ));
       log.info("DishService.createReview completed reviewId={}", saved.getId());
       return toReviewResponse(saved);
     }
-  private DishListItemResponse toDishListItem(DishAtRestaurant item) {
-    long reviewCount = reviewRepository.countByDishAtRestaurantId(item.getId());
+
+  /**
+   * Buffered ingestion: the id and createdAt are assigned here so the response
+   * is final before the row is written by the ReviewIngestBuffer flusher, which
+   * also records it in the aggregate store once the insert commits.
+   *
+   * @throws RejectedExecutionException if the buffer is full (backpressure)
+   */
+  private ReviewResponse enqueueReview(String dishAtRestaurantId, CreateReviewRequest request) {
+    requireDish(dishAtRestaurantId);
+    ReviewIngestBuffer.PendingReview review = new ReviewIngestBuffer.PendingReview(
+      UUID.randomUUID().toString(),
+      dishAtRestaurantId,
+      request.rating(),
+      request.text(),
+      Instant.now().truncatedTo(ChronoUnit.MILLIS), // Review.createdAt is TIMESTAMP(3)
+      request.visitedAt()
+    );
+    try {
+      if (!reviewIngestBuffer.enqueue(review)) {
+        throw new RejectedExecutionException("Review buffer full");
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RejectedExecutionException("Interrupted while enqueueing review", e);
+    }
+    log.info("DishService.createReview enqueued reviewId={}", review.id());
+    return new ReviewResponse(review.id(), review.rating(), review.text(), review.createdAt(), review.visitedAt(), null);
+  }
+
+  /**
+   * Maps a listing page with a single grouped review-count query,
+   * instead of one count per row.
+   */
+  private List<DishListItemResponse> toDishListItems(List<SearchCache.DishHit> items) {
+    if (items.isEmpty()) return List.of();
+    Map<String, Long> counts = new HashMap<>();
+    for (Object[] row : reviewRepository.countByDishAtRestaurantIds(
+      items.stream().map(SearchCache.DishHit::id).toList()
+    )) {
+      counts.put((String) row[0], ((Number) row[1]).longValue());
+    }
+    return items.stream()
+      .map(item -> toDishListItem(item, counts.getOrDefault(item.id(), 0L)))
+      .toList();
+  }
+
+  private static List<SearchCache.DishHit> toDishHits(List<DishAtRestaurant> items) {
+    return items.stream()
+      .map(item -> new SearchCache.DishHit(
+        item.getId(),
+        item.getDish().getName(),
+        item.getDish().getCuisine(),
+        item.getDish().getDescription(),
+        item.getRestaurant().getName(),
+        item.getRestaurant().getCity()
+      ))
+      .toList();
+  }
+
+  private DishListItemResponse toDishListItem(SearchCache.DishHit item, long reviewCount) {
     return new DishListItemResponse(
-      item.getId(),
-      item.getDish().getName(),
-      item.getDish().getCuisine(),
-      item.getDish().getDescription(),
-      item.getRestaurant().getName(),
-      item.getRestaurant().getCity(),
+      item.id(),
+      item.dishName(),
+      item.cuisine(),
+      item.description(),
+      item.restaurantName(),
+      item.city(),
       reviewCount
     );
   }
@@ -134,14 +362,62 @@ public class DishService {
     );
   }
 
-  private ReviewStats calculateStats(List<Review> reviews, TimeWindow window) {
-    int reviewCount = reviews.size();
-    Double avgRating = reviewCount > 0
-      ? reviews.stream().mapToInt(Review::getRating).average().orElse(0.0)
-      : null;
+  /**
+   * Window stats from whole-day daily_rollup rows plus raw Review ranges.
+   * <p>
+   * A UTC day is read from its rollup only if that row was refreshed after the
+   * day ended; the head of the window, the partial current day and any day
+   * without a settled rollup are counted from Review. Adjacent raw ranges are
+   * merged, so the result always equals the raw scan of {@code createdAt > cutoff}.
+   */
+  ReviewStats rollupStats(String dishAtRestaurantId, TimeWindow window, Instant now) {
+    ReviewAggregateStore.Totals totals = rollupTotals(dishAtRestaurantId, window, now);
+    return toStats(totals.reviewCount(), totals.ratingSum(), window);
+  }
 
-    Double rounded = avgRating != null ? Math.round(avgRating * 10.0) / 10.0 : null;
+  private ReviewAggregateStore.Totals rollupTotals(String dishAtRestaurantId, TimeWindow window, Instant now) {
+    Instant cutoff = window.cutoff(now);
+    LocalDate firstWholeDay = cutoff.atZone(ZoneOffset.UTC).toLocalDate().plusDays(1);
+    LocalDate today = now.atZone(ZoneOffset.UTC).toLocalDate();
+
+    Map<LocalDate, DailyRollup> rollups = firstWholeDay.isBefore(today)
+      ? dailyRollupRepository
+          .findByDishAtRestaurantIdAndRollupDateBetween(dishAtRestaurantId, firstWholeDay, today.minusDays(1))
+          .stream()
+          .collect(Collectors.toMap(DailyRollup::getRollupDate, Function.identity()))
+      : Map.of();
+
+    long reviewCount = 0;
+    long ratingSum = 0;
+    Instant rawFrom = ReviewRepository.firstInstantAfter(cutoff);
+
+    for (LocalDate day = firstWholeDay; day.isBefore(today); day = day.plusDays(1)) {
+      Instant dayStart = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+      Instant dayEnd = day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+      DailyRollup rollup = rollups.get(day);
+      if (rollup == null || rollup.getUpdatedAt().isBefore(dayEnd.plus(ROLLUP_SETTLE))) {
+        continue; // stays in the pending raw range
+      }
+      if (rawFrom.isBefore(dayStart)) {
+        ReviewAggregate raw = reviewRepository.aggregateBetween(dishAtRestaurantId, rawFrom, dayStart);
+        reviewCount += raw.getReviewCount();
+        ratingSum += raw.getRatingSum();
+      }
+      reviewCount += rollup.getReviewCount();
+      ratingSum += rollup.getRatingSum();
+      rawFrom = dayEnd;
+    }
+
+    ReviewAggregate tail = reviewRepository.aggregateSince(dishAtRestaurantId, rawFrom);
+    reviewCount += tail.getReviewCount();
+    ratingSum += tail.getRatingSum();
 
-    return new ReviewStats(rounded, reviewCount, window.getValue());
+    return new ReviewAggregateStore.Totals(reviewCount, ratingSum);
+  }
+
+  private ReviewStats toStats(long reviewCount, long ratingSum, TimeWindow window) {
+    Double avgRating = reviewCount > 0 ? (double) ratingSum / reviewCount : null;
+    Double rounded = avgRating != null ? Math.round(avgRating * 10.0) / 10.0 : null;
+    return new ReviewStats(rounded, (int) reviewCount, window.getValue());
   }
 }
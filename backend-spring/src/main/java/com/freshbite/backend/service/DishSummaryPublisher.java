@@ -0,0 +1,224 @@
+package com.freshbite.backend.service;
+
+import com.freshbite.backend.dto.DishSummaryResponse;
+import com.freshbite.backend.dto.DishSummaryUpdate;
+import com.freshbite.backend.dto.TimeWindow;
+import com.freshbite.backend.event.ReviewCreatedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Single in-process fan-out for live dish summaries.
+ * <p>
+ * A committed review marks its dish dirty; at most one recomputation per dish
+ * runs per {@code app.live.min-interval-ms}, however many reviews arrived or
+ * tabs are subscribed. The result is pushed only to windows whose stats or
+ * risk level actually changed.
+ * <p>
+ * The scheduler thread only keeps time: recomputation (a DB read) runs on a
+ * virtual thread, and each connection sends on its own virtual thread, one
+ * event at a time with the newest update winning, so a slow client delays
+ * nobody else.
+ */
+@Component
+public class DishSummaryPublisher {
+  private static final Logger log = LoggerFactory.getLogger(DishSummaryPublisher.class);
+  private static final long EMITTER_TIMEOUT_MS = Duration.ofMinutes(30).toMillis();
+  private static final long HEARTBEAT_SECONDS = 25; // below nginx proxy_read_timeout
+
+  private record Key(String dishAtRestaurantId, TimeWindow window) {}
+
+  private final DishService dishService;
+  private final Executor executor;
+  private final long minIntervalMs;
+  private final Map<Key, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+  private final Map<Key, DishSummaryUpdate> lastSent = new ConcurrentHashMap<>();
+  private final Map<String, Long> lastFlushAt = new ConcurrentHashMap<>();
+  private final Set<String> scheduled = ConcurrentHashMap.newKeySet();
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread t = new Thread(r, "dish-summary-publisher");
+    t.setDaemon(true);
+    return t;
+  });
+
+  public DishSummaryPublisher(
+    DishService dishService,
+    @Qualifier("applicationTaskExecutor") Executor taskExecutor,
+    @Value("${app.live.min-interval-ms:1000}") long minIntervalMs
+  ) {
+    this.dishService = dishService;
+    this.executor = taskExecutor;
+    this.minIntervalMs = minIntervalMs;
+    scheduler.scheduleAtFixedRate(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Registers a subscriber and sends the current summary right away.
+   *
+   * @throws NoSuchElementException if the dish does not exist
+   */
+  public SseEmitter subscribe(String dishAtRestaurantId, TimeWindow window) {
+    Key key = new Key(dishAtRestaurantId, window);
+    // Computed outside the map so the DB read never runs under a bin lock
+    DishSummaryUpdate current = lastSent.get(key);
+    if (current == null) {
+      current = compute(key);
+      DishSummaryUpdate raced = lastSent.putIfAbsent(key, current);
+      if (raced != null) current = raced;
+    }
+
+    SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+    Subscriber subscriber = new Subscriber(key, emitter);
+    // Added inside compute so a concurrent unsubscribe cannot drop the list it lands in
+    List<Subscriber> list = subscribers.compute(key, (k, existing) -> {
+      List<Subscriber> l = existing != null ? existing : new CopyOnWriteArrayList<>();
+      l.add(subscriber);
+      return l;
+    });
+    Runnable remove = () -> unsubscribe(subscriber);
+    emitter.onCompletion(remove);
+    emitter.onTimeout(remove);
+    emitter.onError(e -> remove.run());
+
+    subscriber.offer(current);
+    log.debug("DishSummaryPublisher.subscribe id={} window={} subscribers={}",
+      dishAtRestaurantId, window.getValue(), list.size());
+    return emitter;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onReviewCreated(ReviewCreatedEvent event) {
+    String id = event.dishAtRestaurantId();
+    if (!hasSubscribers(id) || !scheduled.add(id)) return; // nobody listening, or a flush is already queued
+    long sinceLast = System.currentTimeMillis() - lastFlushAt.getOrDefault(id, 0L);
+    long delay = Math.max(0, minIntervalMs - sinceLast);
+    scheduler.schedule(() -> executor.execute(() -> flush(id)), delay, TimeUnit.MILLISECONDS);
+  }
+
+  private void flush(String dishAtRestaurantId) {
+    scheduled.remove(dishAtRestaurantId);
+    lastFlushAt.put(dishAtRestaurantId, System.currentTimeMillis());
+    for (TimeWindow window : TimeWindow.values()) {
+      Key key = new Key(dishAtRestaurantId, window);
+      List<Subscriber> list = subscribers.get(key);
+      if (list == null || list.isEmpty()) continue;
+      try {
+        DishSummaryUpdate update = compute(key);
+        if (update.equals(lastSent.put(key, update))) continue; // nothing visible changed
+        for (Subscriber subscriber : list) {
+          subscriber.offer(update);
+        }
+      } catch (Exception e) {
+        log.warn("DishSummaryPublisher.flush FAILED id={} window={} error={}",
+          dishAtRestaurantId, window.getValue(), e.getMessage());
+      }
+    }
+    // The last subscriber may have left while this flush ran
+    if (!hasSubscribers(dishAtRestaurantId)) lastFlushAt.remove(dishAtRestaurantId);
+  }
+
+  private DishSummaryUpdate compute(Key key) {
+    DishSummaryResponse summary = dishService.getSummary(key.dishAtRestaurantId(), key.window());
+    return new DishSummaryUpdate(key.dishAtRestaurantId(), summary.stats(), summary.risk());
+  }
+
+  private void heartbeat() {
+    subscribers.values().forEach(list -> list.forEach(Subscriber::heartbeat));
+  }
+
+  private void unsubscribe(Subscriber subscriber) {
+    subscribers.computeIfPresent(subscriber.key, (k, list) -> {
+      list.remove(subscriber);
+      if (!list.isEmpty()) return list;
+      lastSent.remove(k);
+      return null;
+    });
+    String id = subscriber.key.dishAtRestaurantId();
+    if (!hasSubscribers(id)) lastFlushAt.remove(id);
+  }
+
+  private boolean hasSubscribers(String dishAtRestaurantId) {
+    for (TimeWindow window : TimeWindow.values()) {
+      if (subscribers.containsKey(new Key(dishAtRestaurantId, window))) return true;
+    }
+    return false;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+    subscribers.values().forEach(list -> list.forEach(subscriber -> subscriber.emitter.complete()));
+  }
+
+  /**
+   * One SSE connection. At most one send runs at a time, on a virtual thread;
+   * an update offered while a send is in flight replaces any older unsent one.
+   */
+  private final class Subscriber {
+    final Key key;
+    final SseEmitter emitter;
+    private final AtomicReference<DishSummaryUpdate> unsent = new AtomicReference<>();
+    private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private volatile boolean closed;
+
+    Subscriber(Key key, SseEmitter emitter) {
+      this.key = key;
+      this.emitter = emitter;
+    }
+
+    void offer(DishSummaryUpdate update) {
+      unsent.set(update);
+      drainAsync();
+    }
+
+    void heartbeat() {
+      heartbeatDue.set(true);
+      drainAsync();
+    }
+
+    private void drainAsync() {
+      if (!closed && sending.compareAndSet(false, true)) executor.execute(this::drain);
+    }
+
+    private void drain() {
+      do {
+        try {
+          DishSummaryUpdate update;
+          while ((update = unsent.getAndSet(null)) != null || heartbeatDue.getAndSet(false)) {
+            emitter.send(update != null
+              ? SseEmitter.event().name("summary").data(update)
+              : SseEmitter.event().comment("keepalive"));
+          }
+        } catch (IOException | IllegalStateException e) {
+          closed = true;
+          unsubscribe(this);
+        } finally {
+          sending.set(false);
+        }
+        // Re-check: an offer may have lost the race with the reset above
+      } while (!closed && (unsent.get() != null || heartbeatDue.get()) && sending.compareAndSet(false, true));
+    }
+  }
+}
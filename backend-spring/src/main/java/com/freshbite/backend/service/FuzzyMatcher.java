@@ -0,0 +1,190 @@
+package com.freshbite.backend.service;
+
+import com.freshbite.backend.domain.DishAtRestaurant;
+import com.freshbite.backend.domain.Restaurant;
+import com.freshbite.backend.event.DishAtRestaurantCreatedEvent;
+import com.freshbite.backend.event.RestaurantCreatedEvent;
+import com.freshbite.backend.repository.DishAtRestaurantRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typo correction for search queries ("chiken tikka" → "chicken tikka").
+ * <p>
+ * Holds a {@link BkTree} over every word of active dish names, cuisines,
+ * restaurant names and cities. {@link #correct} replaces each query word that
+ * is not in the vocabulary with its closest word (edit distance 1 for words of
+ * up to 4 letters, 2 above; ties go to the more frequent word). Each call is
+ * capped at {@code app.search.fuzzy.budget-ms} of wall time and
+ * {@code max-visits} tree nodes, so a pathological query degrades to "no
+ * correction" instead of burning CPU.
+ * <p>
+ * The vocabulary only grows: words from new rows are added from create events
+ * and from a periodic re-read, which also refreshes word frequencies. Text
+ * from events that arrive while a re-read is loading is replayed onto the new
+ * frequencies before they are swapped in.
+ */
+@Component
+public class FuzzyMatcher {
+  private static final Logger log = LoggerFactory.getLogger(FuzzyMatcher.class);
+  private static final int MIN_WORD_LENGTH = 3;
+
+  private final DishAtRestaurantRepository dishAtRestaurantRepository;
+  private final long budgetNanos;
+  private final int maxVisits;
+  private final long rebuildMinutes;
+  private final BkTree tree = new BkTree();
+  private volatile Map<String, Integer> frequency = new ConcurrentHashMap<>();
+  private final Object writeLock = new Object();
+  // Guarded by writeLock: text seen while a refresh loads, replayed onto its map
+  private final List<String> addedDuringRefresh = new ArrayList<>();
+  private boolean refreshing;
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread t = new Thread(r, "fuzzy-vocabulary-refresh");
+    t.setDaemon(true);
+    return t;
+  });
+
+  public FuzzyMatcher(
+    DishAtRestaurantRepository dishAtRestaurantRepository,
+    @Value("${app.search.fuzzy.budget-ms:5}") long budgetMs,
+    @Value("${app.search.fuzzy.max-visits:5000}") int maxVisits,
+    @Value("${app.search.index.rebuild-minutes:10}") long rebuildMinutes
+  ) {
+    this.dishAtRestaurantRepository = dishAtRestaurantRepository;
+    this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMs);
+    this.maxVisits = maxVisits;
+    this.rebuildMinutes = rebuildMinutes;
+  }
+
+  @PostConstruct
+  public void load() {
+    refresh();
+    if (rebuildMinutes > 0) {
+      scheduler.scheduleWithFixedDelay(this::refresh, rebuildMinutes, rebuildMinutes, TimeUnit.MINUTES);
+    }
+  }
+
+  /**
+   * The query with misspelled words replaced, or empty when nothing was
+   * corrected (every word known, too short, or no match within budget).
+   */
+  public Optional<String> correct(String query) {
+    long deadline = System.nanoTime() + budgetNanos;
+    Map<String, Integer> freq = frequency;
+    List<String> words = words(query);
+    boolean changed = false;
+    for (int i = 0; i < words.size(); i++) {
+      String word = words.get(i);
+      if (word.length() < MIN_WORD_LENGTH || freq.containsKey(word)) continue;
+      if (System.nanoTime() > deadline) break;
+
+      int maxDistance = word.length() <= 4 ? 1 : 2;
+      BkTree.Match best = null;
+      for (BkTree.Match m : tree.search(word, maxDistance, maxVisits, deadline)) {
+        if (best == null
+          || m.distance() < best.distance()
+          || (m.distance() == best.distance() && freq.getOrDefault(m.word(), 0) > freq.getOrDefault(best.word(), 0))) {
+          best = m;
+        }
+      }
+      if (best != null) {
+        words.set(i, best.word());
+        changed = true;
+      }
+    }
+    return changed ? Optional.of(String.join(" ", words)) : Optional.empty();
+  }
+
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void onRestaurantCreated(RestaurantCreatedEvent event) {
+    Restaurant r = event.restaurant();
+    add(r.getName(), r.getCity());
+  }
+
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void onDishAtRestaurantCreated(DishAtRestaurantCreatedEvent event) {
+    DishAtRestaurant dar = event.dishAtRestaurant();
+    add(dar.getDish().getName(), dar.getDish().getCuisine());
+  }
+
+  private void add(String... texts) {
+    synchronized (writeLock) {
+      for (String text : texts) {
+        addText(text, frequency);
+        if (refreshing) addedDuringRefresh.add(text);
+      }
+    }
+  }
+
+  private void refresh() {
+    synchronized (writeLock) {
+      refreshing = true;
+      addedDuringRefresh.clear();
+    }
+    long start = System.currentTimeMillis();
+    try {
+      Map<String, Integer> fresh = new ConcurrentHashMap<>();
+      // Row shape: [id, dishName, cuisine, restaurantName, address, city, createdAt]
+      for (Object[] row : dishAtRestaurantRepository.findActiveSearchRows()) {
+        addText((String) row[1], fresh);
+        addText((String) row[2], fresh);
+        addText((String) row[3], fresh);
+        addText((String) row[5], fresh);
+      }
+      synchronized (writeLock) {
+        // A row the re-read already saw counts twice; frequencies only break ties
+        for (String text : addedDuringRefresh) addText(text, fresh);
+        frequency = fresh;
+      }
+      log.info("FuzzyMatcher refreshed words={} duration={}ms", tree.size(), System.currentTimeMillis() - start);
+    } catch (Exception e) {
+      log.error("FuzzyMatcher refresh FAILED error={}", e.getMessage(), e);
+    } finally {
+      synchronized (writeLock) {
+        refreshing = false;
+        addedDuringRefresh.clear();
+      }
+    }
+  }
+
+  private void addText(String text, Map<String, Integer> freq) {
+    for (String word : words(text)) {
+      if (word.length() < MIN_WORD_LENGTH) continue;
+      if (freq.merge(word, 1, Integer::sum) == 1) tree.add(word);
+    }
+  }
+
+  private static List<String> words(String text) {
+    List<String> words = new ArrayList<>();
+    if (text == null) return words;
+    for (String w : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+      if (!w.isEmpty()) words.add(w);
+    }
+    return words;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+}
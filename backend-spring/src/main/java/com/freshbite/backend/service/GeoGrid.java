@@ -0,0 +1,148 @@
+package com.freshbite.backend.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Sparse equal-angle grid of points with exact k-nearest and radius queries
+ * under great-circle distance.
+ * <p>
+ * Points are bucketed into {@code cellDegrees} × {@code cellDegrees} cells
+ * (only non-empty cells are stored). A query scans rings of cells outward
+ * from the query cell. After ring {@code r}, every unscanned point is at
+ * least {@link #ringBound} away — the smaller of the latitude gap
+ * ({@code r} cells along a meridian) and the haversine of an {@code r}-cell
+ * longitude gap at the most poleward latitude still in range — so the scan
+ * stops as soon as the k-th best (or the radius) is within that bound. When
+ * the rings would cover more cells than there are points, or wrap the
+ * antimeridian onto themselves, the query falls back to a linear scan.
+ */
+final class GeoGrid<P> {
+  private final double cellDegrees;
+  private final int rows;
+  private final int cols;
+  private final Map<Long, List<Entry<P>>> cells = new HashMap<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private int size;
+
+  private record Entry<P>(P point, double lat, double lng) {}
+
+  record Hit<P>(P point, double distanceKm) {}
+
+  GeoGrid(double cellDegrees) {
+    this.cellDegrees = cellDegrees;
+    this.rows = (int) Math.ceil(180 / cellDegrees);
+    this.cols = (int) Math.ceil(360 / cellDegrees);
+  }
+
+  void add(P point, double lat, double lng) {
+    lock.writeLock().lock();
+    try {
+      cells.computeIfAbsent(key(row(lat), col(lng)), k -> new ArrayList<>(4))
+        .add(new Entry<>(point, lat, lng));
+      size++;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  int size() {
+    lock.readLock().lock();
+    try {
+      return size;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** The {@code k} nearest points accepted by {@code filter}, nearest first. */
+  List<Hit<P>> nearest(double lat, double lng, int k, Predicate<P> filter) {
+    return query(lat, lng, k, Double.POSITIVE_INFINITY, filter);
+  }
+
+  /** Up to {@code limit} points within {@code radiusKm} accepted by {@code filter}, nearest first. */
+  List<Hit<P>> withinRadius(double lat, double lng, double radiusKm, int limit, Predicate<P> filter) {
+    return query(lat, lng, limit, radiusKm, filter);
+  }
+
+  private List<Hit<P>> query(double lat, double lng, int k, double radiusKm, Predicate<P> filter) {
+    // Max-heap on distance holding the best k so far
+    PriorityQueue<Hit<P>> best = new PriorityQueue<>(Comparator.comparingDouble((Hit<P> h) -> h.distanceKm()).reversed());
+    lock.readLock().lock();
+    try {
+      int row0 = row(lat);
+      int col0 = col(lng);
+      for (int r = 0; ; r++) {
+        long scanned = (2L * r + 1) * (2L * r + 1);
+        if (r > 0 && (scanned > size || 2 * r + 1 >= cols)) {
+          best.clear();
+          for (List<Entry<P>> cell : cells.values()) scan(cell, lat, lng, k, radiusKm, filter, best);
+          break;
+        }
+        for (int dr = -r; dr <= r; dr++) {
+          int row = row0 + dr;
+          if (row < 0 || row >= rows) continue;
+          boolean edge = Math.abs(dr) == r;
+          for (int dc = -r; dc <= r; dc += edge ? 1 : 2 * r) {
+            List<Entry<P>> cell = cells.get(key(row, Math.floorMod(col0 + dc, cols)));
+            if (cell != null) scan(cell, lat, lng, k, radiusKm, filter, best);
+            if (r == 0) break;
+          }
+        }
+        double bound = ringBound(lat, r);
+        if (bound > radiusKm) break;
+        if (best.size() == k && best.peek().distanceKm() <= bound) break;
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    List<Hit<P>> result = new ArrayList<>(best);
+    result.sort(Comparator.comparingDouble(Hit::distanceKm));
+    return result;
+  }
+
+  private void scan(List<Entry<P>> cell, double lat, double lng, int k, double radiusKm,
+                    Predicate<P> filter, PriorityQueue<Hit<P>> best) {
+    for (Entry<P> e : cell) {
+      double d = GeoMath.haversineKm(lat, lng, e.lat(), e.lng());
+      if (d > radiusKm) continue;
+      if (best.size() == k && d >= best.peek().distanceKm()) continue;
+      if (!filter.test(e.point())) continue;
+      best.add(new Hit<>(e.point(), d));
+      if (best.size() > k) best.poll();
+    }
+  }
+
+  /**
+   * Lower bound on the distance from (lat, ·) to any point outside ring {@code r}.
+   */
+  private double ringBound(double lat, int r) {
+    double gap = r * cellDegrees;
+    double latBound = Math.toRadians(gap) * GeoMath.EARTH_RADIUS_KM;
+    // Points still inside ring r's rows are at most r + 1 cells away in latitude
+    double poleward = Math.min(90, Math.abs(lat) + gap + cellDegrees);
+    double h = Math.cos(Math.toRadians(lat)) * Math.cos(Math.toRadians(poleward))
+      * Math.pow(Math.sin(Math.toRadians(Math.min(gap, 180)) / 2), 2);
+    double lngBound = 2 * GeoMath.EARTH_RADIUS_KM * Math.asin(Math.sqrt(Math.min(1, Math.max(0, h))));
+    return Math.min(latBound, lngBound);
+  }
+
+  private int row(double lat) {
+    return Math.min(rows - 1, Math.max(0, (int) Math.floor((lat + 90) / cellDegrees)));
+  }
+
+  private int col(double lng) {
+    return Math.floorMod((int) Math.floor((lng + 180) / cellDegrees), cols);
+  }
+
+  private long key(int row, int col) {
+    return (long) row * cols + col;
+  }
+}
@@ -0,0 +1,149 @@
+package com.freshbite.backend.service;
+
+/**
+ * Great-circle helpers shared by the search and discover paths.
+ * <p>
+ * {@link #haversineKm(double, double, double[], double[], double[], int)}
+ * is a scalar loop. The Vector API kernel ({@code VectorHaversine}) is only
+ * compiled with {@code -Pvector} and only used with
+ * {@code -Dfreshbite.geo.vector=true} on a JVM started with
+ * {@code --add-modules jdk.incubator.vector}: its SIN/COS/ASIN lanes are
+ * intrinsics on x86 only and per-lane scalar code elsewhere, so enable it
+ * where {@code GeoMathBenchmarkTest} ({@code -Pbench,vector}) shows a gain.
+ */
+public final class GeoMath {
+  public static final double EARTH_RADIUS_KM = 6371.0;
+  private static final int INSERTION_SORT_THRESHOLD = 16;
+
+  /** Bulk distance kernel; see {@link #haversineKm(double, double, double[], double[], double[], int)}. */
+  interface BulkHaversine {
+    void distancesKm(double lat, double lng, double[] lats, double[] lngs, double[] out, int n);
+  }
+
+  // Null unless compiled in and the module is in the boot layer
+  static final BulkHaversine VECTOR = loadVector();
+  private static final boolean USE_VECTOR = VECTOR != null && Boolean.getBoolean("freshbite.geo.vector");
+
+  private GeoMath() {}
+
+  public record BoundingBox(double minLat, double maxLat, double minLng, double maxLng) {}
+
+  public static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+    double dLat = Math.toRadians(lat2 - lat1);
+    double dLng = Math.toRadians(lng2 - lng1);
+    double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+               Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
+               Math.sin(dLng / 2) * Math.sin(dLng / 2);
+    double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    return EARTH_RADIUS_KM * c;
+  }
+
+  /**
+   * Distances in km from (lat, lng) to the first {@code n} points of
+   * {@code lats}/{@code lngs}, written to {@code out}.
+   */
+  public static void haversineKm(double lat, double lng, double[] lats, double[] lngs, double[] out, int n) {
+    if (USE_VECTOR) {
+      VECTOR.distancesKm(lat, lng, lats, lngs, out, n);
+      return;
+    }
+    scalarHaversineKm(lat, lng, lats, lngs, out, n);
+  }
+
+  static void scalarHaversineKm(double lat, double lng, double[] lats, double[] lngs, double[] out, int n) {
+    for (int i = 0; i < n; i++) {
+      out[i] = haversineKm(lat, lng, lats[i], lngs[i]);
+    }
+  }
+
+  public static boolean vectorized() {
+    return USE_VECTOR;
+  }
+
+  private static BulkHaversine loadVector() {
+    if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return null;
+    try {
+      // By name: the class is absent from builds without -Pvector
+      return (BulkHaversine) Class.forName("com.freshbite.backend.service.VectorHaversine")
+        .getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | LinkageError e) {
+      return null;
+    }
+  }
+
+  /**
+   * Indices {@code 0..n-1} ordered by ascending {@code keys[i]}, without
+   * boxing. Not stable; NaN keys sort last.
+   */
+  public static int[] sortedIndex(double[] keys, int n) {
+    int[] idx = new int[n];
+    for (int i = 0; i < n; i++) idx[i] = i;
+    sort(keys, idx, 0, n - 1);
+    return idx;
+  }
+
+  private static void sort(double[] keys, int[] idx, int lo, int hi) {
+    while (hi - lo >= INSERTION_SORT_THRESHOLD) {
+      int mid = (lo + hi) >>> 1;
+      if (less(keys, idx[mid], idx[lo])) swap(idx, mid, lo);
+      if (less(keys, idx[hi], idx[lo])) swap(idx, hi, lo);
+      if (less(keys, idx[hi], idx[mid])) swap(idx, hi, mid);
+      double pivot = keys[idx[mid]];
+      int i = lo;
+      int j = hi;
+      while (i <= j) {
+        while (Double.compare(keys[idx[i]], pivot) < 0) i++;
+        while (Double.compare(keys[idx[j]], pivot) > 0) j--;
+        if (i <= j) swap(idx, i++, j--);
+      }
+      // Recurse into the smaller side to bound stack depth
+      if (j - lo < hi - i) {
+        sort(keys, idx, lo, j);
+        lo = i;
+      } else {
+        sort(keys, idx, i, hi);
+        hi = j;
+      }
+    }
+    for (int i = lo + 1; i <= hi; i++) {
+      int v = idx[i];
+      int j = i - 1;
+      while (j >= lo && less(keys, v, idx[j])) {
+        idx[j + 1] = idx[j];
+        j--;
+      }
+      idx[j + 1] = v;
+    }
+  }
+
+  private static boolean less(double[] keys, int a, int b) {
+    return Double.compare(keys[a], keys[b]) < 0;
+  }
+
+  private static void swap(int[] idx, int a, int b) {
+    int t = idx[a];
+    idx[a] = idx[b];
+    idx[b] = t;
+  }
+
+  /**
+   * Smallest lat/lng box containing every point within {@code radiusKm} of
+   * (lat, lng). Boxes touching a pole or crossing the antimeridian widen to
+   * all longitudes rather than splitting in two.
+   */
+  public static BoundingBox boundingBox(double lat, double lng, double radiusKm) {
+    double dLat = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+    double minLat = lat - dLat;
+    double maxLat = lat + dLat;
+    if (minLat <= -90 || maxLat >= 90) {
+      return new BoundingBox(Math.max(minLat, -90), Math.min(maxLat, 90), -180, 180);
+    }
+    double dLng = Math.toDegrees(Math.asin(Math.min(1, Math.sin(radiusKm / EARTH_RADIUS_KM) / Math.cos(Math.toRadians(lat)))));
+    double minLng = lng - dLng;
+    double maxLng = lng + dLng;
+    if (minLng < -180 || maxLng > 180) {
+      return new BoundingBox(minLat, maxLat, -180, 180);
+    }
+    return new BoundingBox(minLat, maxLat, minLng, maxLng);
+  }
+}
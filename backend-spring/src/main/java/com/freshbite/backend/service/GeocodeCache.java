@@ -0,0 +1,224 @@
+package com.freshbite.backend.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Two-tier cache for {@link NominatimService#geocode}.
+ * <p>
+ * Keys are normalized place strings ("  Phoenix ,AZ" → "phoenix, az"). The
+ * first tier is a Caffeine cache of {@code memory-entries}; the second a
+ * {@link GeocodeStore} log under {@code file} that survives restarts. Found
+ * places are kept for {@code ttl-days}; "no such place" answers for
+ * {@code negative-ttl-minutes}, so a typo cannot pin a wrong answer for long.
+ * Failed lookups (network, rate limit) are not cached at all. Concurrent
+ * misses for the same key wait for one Nominatim call.
+ * <p>
+ * Lookups are counted in {@code geocode.cache.requests} tagged
+ * {@code tier=memory|disk|miss}; {@code geocode.cache.hit.ratio} is the
+ * share answered without calling Nominatim.
+ */
+@Component
+public class GeocodeCache {
+  private static final Logger log = LoggerFactory.getLogger(GeocodeCache.class);
+
+  private record Entry(NominatimService.GeoResult result, long expiresAtMillis) {}
+
+  private final boolean enabled;
+  private final Path file;
+  private final long ttlMillis;
+  private final long negativeTtlMillis;
+  private final AsyncCache<String, Entry> memory;
+  private final Counter memoryHits;
+  private final Counter diskHits;
+  private final Counter misses;
+  private final Lock storeLock = new ReentrantLock();
+  private GeocodeStore store;
+
+  public GeocodeCache(
+    MeterRegistry meterRegistry,
+    @Value("${app.geocode.cache.enabled:true}") boolean enabled,
+    @Value("${app.geocode.cache.memory-entries:10000}") long memoryEntries,
+    @Value("${app.geocode.cache.ttl-days:30}") long ttlDays,
+    @Value("${app.geocode.cache.negative-ttl-minutes:10}") long negativeTtlMinutes,
+    @Value("${app.geocode.cache.file:./data/geocode-cache.bin}") String file,
+    @Qualifier("applicationTaskExecutor") Executor taskExecutor
+  ) {
+    this.enabled = enabled;
+    this.file = Path.of(file);
+    this.ttlMillis = TimeUnit.DAYS.toMillis(ttlDays);
+    this.negativeTtlMillis = TimeUnit.MINUTES.toMillis(negativeTtlMinutes);
+    this.memory = Caffeine.newBuilder()
+      .maximumSize(memoryEntries)
+      .expireAfter(new Expiry<String, Entry>() {
+        @Override
+        public long expireAfterCreate(String key, Entry value, long currentTime) {
+          return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.expiresAtMillis() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry value, long currentTime, long currentDuration) {
+          return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry value, long currentTime, long currentDuration) {
+          return currentDuration;
+        }
+      })
+      .executor(taskExecutor)
+      .buildAsync();
+    this.memoryHits = meterRegistry.counter("geocode.cache.requests", "tier", "memory");
+    this.diskHits = meterRegistry.counter("geocode.cache.requests", "tier", "disk");
+    this.misses = meterRegistry.counter("geocode.cache.requests", "tier", "miss");
+    Gauge.builder("geocode.cache.hit.ratio", this, GeocodeCache::hitRatio).register(meterRegistry);
+  }
+
+  @PostConstruct
+  public void open() {
+    if (!enabled) return;
+    try {
+      long start = System.currentTimeMillis();
+      GeocodeStore opened = new GeocodeStore(file);
+      storeLock.lock();
+      try {
+        store = opened;
+      } finally {
+        storeLock.unlock();
+      }
+      log.info("GeocodeCache opened file={} entries={} duration={}ms",
+        file, opened.size(), System.currentTimeMillis() - start);
+    } catch (IOException e) {
+      log.error("GeocodeCache could not open {} — memory tier only: {}", file, e.getMessage());
+    }
+  }
+
+  /**
+   * Cached answer for {@code place}, else {@code loader}'s. The loader returns
+   * a result, {@code Optional.empty()} for "no such place" (cached briefly),
+   * or null when the lookup failed (not cached). An exception thrown by the
+   * loader is not cached either and propagates to every caller waiting on it.
+   */
+  public NominatimService.GeoResult geocode(String place, Function<String, Optional<NominatimService.GeoResult>> loader) {
+    if (!enabled) {
+      Optional<NominatimService.GeoResult> loaded = loader.apply(place);
+      return loaded != null ? loaded.orElse(null) : null;
+    }
+    String key = normalize(place);
+    boolean[] loadedHere = {false};
+    // Async so the Nominatim call runs outside the map's bin lock (which would pin a virtual thread);
+    // concurrent misses for the key still share the one future
+    CompletableFuture<Entry> entry = memory.get(key, (k, executor) -> {
+      loadedHere[0] = true;
+      return CompletableFuture.supplyAsync(() -> load(k, place, loader), executor);
+    });
+    if (!loadedHere[0]) memoryHits.increment();
+    Entry e;
+    try {
+      e = entry.join();
+    } catch (CompletionException ex) {
+      // Caffeine has already dropped the failed future
+      if (ex.getCause() instanceof RuntimeException re) throw re;
+      throw ex;
+    }
+    return e != null ? e.result() : null;
+  }
+
+  public static String normalize(String place) {
+    if (place == null) return "";
+    String s = Normalizer.normalize(place, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT).trim();
+    return s.replaceAll("\\s*,\\s*", ", ").replaceAll("\\s+", " ");
+  }
+
+  private Entry load(String key, String place, Function<String, Optional<NominatimService.GeoResult>> loader) {
+    long now = System.currentTimeMillis();
+    GeocodeStore.Stored stored = read(key);
+    if (stored != null && stored.expiresAtMillis() > now) {
+      diskHits.increment();
+      NominatimService.GeoResult result = stored.displayName() == null
+        ? null
+        : new NominatimService.GeoResult(stored.displayName(), stored.lat(), stored.lng());
+      return new Entry(result, stored.expiresAtMillis());
+    }
+
+    misses.increment();
+    Optional<NominatimService.GeoResult> loaded = loader.apply(place);
+    if (loaded == null) return null; // failure: Caffeine stores nothing for a null value
+    NominatimService.GeoResult result = loaded.orElse(null);
+    long expiresAt = now + (result != null ? ttlMillis : negativeTtlMillis);
+    write(key, result == null
+      ? new GeocodeStore.Stored(null, 0, 0, expiresAt)
+      : new GeocodeStore.Stored(result.displayName(), result.lat(), result.lng(), expiresAt));
+    return new Entry(result, expiresAt);
+  }
+
+  private GeocodeStore.Stored read(String key) {
+    storeLock.lock();
+    try {
+      if (store == null) return null;
+      return store.get(key);
+    } catch (IOException e) {
+      log.warn("GeocodeCache read failed key={}: {}", key, e.getMessage());
+      return null;
+    } finally {
+      storeLock.unlock();
+    }
+  }
+
+  private void write(String key, GeocodeStore.Stored value) {
+    storeLock.lock();
+    try {
+      if (store != null && !store.put(key, value)) {
+        log.warn("GeocodeCache file full, not persisting key={}", key);
+      }
+    } catch (IOException e) {
+      log.warn("GeocodeCache write failed key={}: {}", key, e.getMessage());
+    } finally {
+      storeLock.unlock();
+    }
+  }
+
+  private double hitRatio() {
+    double hits = memoryHits.count() + diskHits.count();
+    double total = hits + misses.count();
+    return total == 0 ? 0 : hits / total;
+  }
+
+  @PreDestroy
+  public void close() {
+    storeLock.lock();
+    try {
+      if (store != null) store.close();
+    } catch (IOException e) {
+      log.warn("GeocodeCache close failed: {}", e.getMessage());
+    } finally {
+      store = null;
+      storeLock.unlock();
+    }
+  }
+}
@@ -0,0 +1,223 @@
+package com.freshbite.backend.service;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only on-disk key/value log for geocode results, read through a
+ * memory map.
+ * <p>
+ * Record layout: {@code int payloadLength, int crc32(payload), payload}, with
+ * payload {@code long expiresAtMillis, int keyLength, key, int nameLength
+ * (-1 for a negative result), name, double lat, double lng} (UTF-8 strings).
+ * Only the key → offset index lives on the heap. A later record for the same
+ * key supersedes earlier ones. On open the log is scanned once and a torn
+ * tail left by a crash is truncated. Whenever superseded records make up most
+ * of the file, or the next append would pass 2 GB, the file is rewritten
+ * without superseded or expired records.
+ * <p>
+ * Records appended since the file was last mapped are read with positional
+ * channel reads; the map is only renewed once that tail passes
+ * {@value #REMAP_TAIL_BYTES} bytes, so reads do not create a new mapping
+ * after every write.
+ * <p>
+ * Not thread-safe on its own; {@link GeocodeCache} serializes access.
+ */
+final class GeocodeStore implements Closeable {
+  private static final int HEADER_BYTES = 8;
+  private static final int MIN_PAYLOAD_BYTES = 8 + 4 + 4 + 16;
+  private static final long MAX_FILE_BYTES = Integer.MAX_VALUE;
+  private static final long REMAP_TAIL_BYTES = 1 << 20;
+  // A full file of live records stays full; only retry compacting it this often
+  private static final long FULL_RETRY_MILLIS = 60 * 60 * 1000;
+
+  /** A stored result; {@code displayName == null} marks "no such place". */
+  record Stored(String displayName, double lat, double lng, long expiresAtMillis) {}
+
+  private final Path file;
+  private final Map<String, Long> index = new HashMap<>();
+  private FileChannel channel;
+  private MappedByteBuffer map;
+  private long size;
+  private int records; // in the file, superseded ones included
+  private long fullRetryAt;
+
+  GeocodeStore(Path file) throws IOException {
+    this.file = file;
+    Files.createDirectories(file.toAbsolutePath().getParent());
+    open();
+    scan();
+    if (mostlySuperseded()) compact();
+  }
+
+  int size() {
+    return index.size();
+  }
+
+  Stored get(String key) throws IOException {
+    Long offset = index.get(key);
+    if (offset == null) return null;
+    if (size - mapped() > REMAP_TAIL_BYTES) remap();
+    Decoded d = decode(offset);
+    return d != null ? d.value() : null;
+  }
+
+  /** Appends a record; false when even a compacted file has no room for it. */
+  boolean put(String key, Stored value) throws IOException {
+    byte[] k = key.getBytes(StandardCharsets.UTF_8);
+    byte[] name = value.displayName() == null ? null : value.displayName().getBytes(StandardCharsets.UTF_8);
+    int payload = 8 + 4 + k.length + 4 + (name == null ? 0 : name.length) + 16;
+    if (size + HEADER_BYTES + payload > MAX_FILE_BYTES) {
+      long now = System.currentTimeMillis();
+      if (now < fullRetryAt) return false;
+      compact(); // drops expired records too
+      if (size + HEADER_BYTES + payload > MAX_FILE_BYTES) {
+        fullRetryAt = now + FULL_RETRY_MILLIS;
+        return false;
+      }
+    }
+
+    ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + payload);
+    buf.position(HEADER_BYTES);
+    buf.putLong(value.expiresAtMillis());
+    buf.putInt(k.length).put(k);
+    if (name == null) {
+      buf.putInt(-1);
+    } else {
+      buf.putInt(name.length).put(name);
+    }
+    buf.putDouble(value.lat()).putDouble(value.lng());
+    CRC32 crc = new CRC32();
+    crc.update(buf.array(), HEADER_BYTES, payload);
+    buf.putInt(0, payload).putInt(4, (int) crc.getValue());
+    buf.flip();
+
+    long offset = size;
+    while (buf.hasRemaining()) channel.write(buf, offset + buf.position());
+    index.put(key, offset);
+    size += HEADER_BYTES + payload;
+    records++;
+    if (mostlySuperseded()) compact();
+    return true;
+  }
+
+  @Override
+  public void close() throws IOException {
+    map = null;
+    channel.close();
+  }
+
+  private record Decoded(String key, Stored value, int length) {}
+
+  /** Reads the record at {@code offset}; null when it is torn or corrupt. */
+  private Decoded decode(long offset) throws IOException {
+    if (offset + HEADER_BYTES > size) return null;
+    ByteBuffer header = read(offset, HEADER_BYTES);
+    int payload = header.getInt(0);
+    if (payload < MIN_PAYLOAD_BYTES || offset + HEADER_BYTES + payload > size) return null;
+    byte[] bytes = new byte[payload];
+    read(offset + HEADER_BYTES, payload).get(bytes);
+    CRC32 crc = new CRC32();
+    crc.update(bytes);
+    if ((int) crc.getValue() != header.getInt(4)) return null;
+
+    try {
+      ByteBuffer p = ByteBuffer.wrap(bytes);
+      long expiresAt = p.getLong();
+      byte[] k = new byte[p.getInt()];
+      p.get(k);
+      int nameLength = p.getInt();
+      String name = null;
+      if (nameLength >= 0) {
+        byte[] n = new byte[nameLength];
+        p.get(n);
+        name = new String(n, StandardCharsets.UTF_8);
+      }
+      return new Decoded(new String(k, StandardCharsets.UTF_8),
+        new Stored(name, p.getDouble(), p.getDouble(), expiresAt), HEADER_BYTES + payload);
+    } catch (RuntimeException e) {
+      return null; // checksum collision on garbage; treat as torn
+    }
+  }
+
+  /** The bytes at {@code at}, from the map when it covers them and from the channel otherwise. */
+  private ByteBuffer read(long at, int length) throws IOException {
+    if (at + length <= mapped()) return map.slice((int) at, length);
+    ByteBuffer buf = ByteBuffer.allocate(length);
+    while (buf.hasRemaining()) {
+      if (channel.read(buf, at + buf.position()) < 0) throw new EOFException(file + " ended at " + (at + buf.position()));
+    }
+    return buf.flip();
+  }
+
+  /** Indexes every intact record and truncates anything after the last one. */
+  private void scan() throws IOException {
+    remap();
+    records = 0;
+    long offset = 0;
+    while (offset + HEADER_BYTES <= size) {
+      Decoded d = decode(offset);
+      if (d == null) break;
+      index.put(d.key(), offset);
+      offset += d.length();
+      records++;
+    }
+    if (offset < size) {
+      channel.truncate(offset);
+      size = offset;
+      remap();
+    }
+  }
+
+  private boolean mostlySuperseded() {
+    return records > 2 * index.size() + 1000;
+  }
+
+  /** Rewrites the log with one unexpired record per key, then swaps it in. */
+  private void compact() throws IOException {
+    long now = System.currentTimeMillis();
+    Map<String, Stored> live = new HashMap<>();
+    for (String key : index.keySet()) {
+      Stored s = get(key);
+      if (s != null && s.expiresAtMillis() > now) live.put(key, s);
+    }
+    Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+    close();
+    Files.deleteIfExists(tmp);
+    GeocodeStore fresh = new GeocodeStore(tmp);
+    for (Map.Entry<String, Stored> e : live.entrySet()) fresh.put(e.getKey(), e.getValue());
+    fresh.channel.force(true);
+    fresh.close();
+    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+    index.clear();
+    open();
+    scan();
+  }
+
+  private void open() throws IOException {
+    channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    size = channel.size();
+    map = null;
+  }
+
+  private void remap() throws IOException {
+    map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+  }
+
+  private long mapped() {
+    return map == null ? 0 : map.capacity();
+  }
+}
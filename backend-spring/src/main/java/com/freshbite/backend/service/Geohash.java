@@ -0,0 +1,133 @@
+package com.freshbite.backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Standard base-32 geohash encoding, cell bounds and box covers.
+ */
+public final class Geohash {
+  private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+  private static final int[] DECODE = new int[128];
+
+  static {
+    Arrays.fill(DECODE, -1);
+    for (int i = 0; i < BASE32.length; i++) DECODE[BASE32[i]] = i;
+  }
+
+  private Geohash() {}
+
+  public static String encode(double lat, double lng, int precision) {
+    long bits = encodeBits(lat, lng, precision);
+    char[] out = new char[precision];
+    for (int c = precision - 1; c >= 0; c--, bits >>>= 5) out[c] = BASE32[(int) (bits & 31)];
+    return new String(out);
+  }
+
+  /**
+   * {@link #encode} as an integer, 5 bits per character with the first
+   * character most significant (precision ≤ 12). Ordering these values orders
+   * the hashes, and every cell's descendants form one contiguous range.
+   */
+  public static long encodeBits(double lat, double lng, int precision) {
+    double minLat = -90, maxLat = 90, minLng = -180, maxLng = 180;
+    long bits = 0;
+    boolean even = true; // bits alternate lng, lat, starting with lng
+    for (int b = 0; b < 5 * precision; b++) {
+      bits <<= 1;
+      if (even) {
+        double mid = (minLng + maxLng) / 2;
+        if (lng >= mid) {
+          bits |= 1;
+          minLng = mid;
+        } else {
+          maxLng = mid;
+        }
+      } else {
+        double mid = (minLat + maxLat) / 2;
+        if (lat >= mid) {
+          bits |= 1;
+          minLat = mid;
+        } else {
+          maxLat = mid;
+        }
+      }
+      even = !even;
+    }
+    return bits;
+  }
+
+  /** Inverse of {@link #encode} followed by {@link #encodeBits}. */
+  public static long toBits(String hash) {
+    long bits = 0;
+    for (int c = 0; c < hash.length(); c++) {
+      char ch = hash.charAt(c);
+      int v = ch < 128 ? DECODE[ch] : -1;
+      if (v < 0) throw new IllegalArgumentException("Invalid geohash: " + hash);
+      bits = (bits << 5) | v;
+    }
+    return bits;
+  }
+
+  public static GeoMath.BoundingBox bounds(String hash) {
+    double minLat = -90, maxLat = 90, minLng = -180, maxLng = 180;
+    boolean even = true;
+    for (int c = 0; c < hash.length(); c++) {
+      char ch = hash.charAt(c);
+      int bits = ch < 128 ? DECODE[ch] : -1;
+      if (bits < 0) throw new IllegalArgumentException("Invalid geohash: " + hash);
+      for (int b = 4; b >= 0; b--) {
+        boolean bit = ((bits >> b) & 1) == 1;
+        if (even) {
+          double mid = (minLng + maxLng) / 2;
+          if (bit) minLng = mid; else maxLng = mid;
+        } else {
+          double mid = (minLat + maxLat) / 2;
+          if (bit) minLat = mid; else maxLat = mid;
+        }
+        even = !even;
+      }
+    }
+    return new GeoMath.BoundingBox(minLat, maxLat, minLng, maxLng);
+  }
+
+  /** Cell height in degrees at {@code precision}. */
+  public static double cellLatDegrees(int precision) {
+    return 180 / Math.pow(2, (5 * precision) / 2);
+  }
+
+  /** Cell width in degrees at {@code precision}. */
+  public static double cellLngDegrees(int precision) {
+    return 360 / Math.pow(2, (5 * precision + 1) / 2);
+  }
+
+  /**
+   * Every cell at {@code precision} intersecting {@code box}, or null when
+   * there would be more than {@code maxCells}.
+   */
+  public static List<String> covering(GeoMath.BoundingBox box, int precision, int maxCells) {
+    double dLat = cellLatDegrees(precision);
+    double dLng = cellLngDegrees(precision);
+    long maxRow = Math.round(180 / dLat) - 1;
+    long maxCol = Math.round(360 / dLng) - 1;
+    long row0 = clamp((long) Math.floor((box.minLat() + 90) / dLat), maxRow);
+    long row1 = clamp((long) Math.floor((box.maxLat() + 90) / dLat), maxRow);
+    long col0 = clamp((long) Math.floor((box.minLng() + 180) / dLng), maxCol);
+    long col1 = clamp((long) Math.floor((box.maxLng() + 180) / dLng), maxCol);
+    long count = (row1 - row0 + 1) * (col1 - col0 + 1);
+    if (count > maxCells) return null;
+
+    List<String> cells = new ArrayList<>((int) count);
+    for (long r = row0; r <= row1; r++) {
+      for (long c = col0; c <= col1; c++) {
+        cells.add(encode((r + 0.5) * dLat - 90, (c + 0.5) * dLng - 180, precision));
+      }
+    }
+    return cells;
+  }
+
+  private static long clamp(long index, long max) {
+    return Math.max(0, Math.min(max, index));
+  }
+}
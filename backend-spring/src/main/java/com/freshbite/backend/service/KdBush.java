@@ -0,0 +1,148 @@
+package com.freshbite.backend.service;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Static 2-d tree over points in flat arrays, for box and radius queries.
+ * <p>
+ * Built once by recursively median-partitioning the point order on
+ * alternating axes (no node objects); leaves of up to {@code NODE_SIZE}
+ * points are scanned linearly. Queries report the original point index.
+ */
+final class KdBush {
+  private static final int NODE_SIZE = 64;
+
+  private final int[] ids;
+  private final double[] coords; // x0, y0, x1, y1, ...
+
+  KdBush(double[] xs, double[] ys, int n) {
+    this.ids = new int[n];
+    this.coords = new double[2 * n];
+    for (int i = 0; i < n; i++) {
+      ids[i] = i;
+      coords[2 * i] = xs[i];
+      coords[2 * i + 1] = ys[i];
+    }
+    sort(0, n - 1, 0);
+  }
+
+  /** Reports every point with minX ≤ x ≤ maxX and minY ≤ y ≤ maxY. */
+  void range(double minX, double minY, double maxX, double maxY, IntConsumer out) {
+    int[] stack = {0, ids.length - 1, 0};
+    int top = 3;
+    while (top > 0) {
+      int axis = stack[--top];
+      int right = stack[--top];
+      int left = stack[--top];
+      if (right - left <= NODE_SIZE) {
+        for (int i = left; i <= right; i++) {
+          double x = coords[2 * i];
+          double y = coords[2 * i + 1];
+          if (x >= minX && x <= maxX && y >= minY && y <= maxY) out.accept(ids[i]);
+        }
+        continue;
+      }
+      int m = (left + right) >>> 1;
+      double x = coords[2 * m];
+      double y = coords[2 * m + 1];
+      if (x >= minX && x <= maxX && y >= minY && y <= maxY) out.accept(ids[m]);
+      if (stack.length < top + 6) stack = Arrays.copyOf(stack, stack.length * 2 + 6);
+      if (axis == 0 ? minX <= x : minY <= y) {
+        stack[top++] = left;
+        stack[top++] = m - 1;
+        stack[top++] = 1 - axis;
+      }
+      if (axis == 0 ? maxX >= x : maxY >= y) {
+        stack[top++] = m + 1;
+        stack[top++] = right;
+        stack[top++] = 1 - axis;
+      }
+    }
+  }
+
+  /** Reports every point within Euclidean distance {@code r} of (qx, qy). */
+  void within(double qx, double qy, double r, IntConsumer out) {
+    double r2 = r * r;
+    int[] stack = {0, ids.length - 1, 0};
+    int top = 3;
+    while (top > 0) {
+      int axis = stack[--top];
+      int right = stack[--top];
+      int left = stack[--top];
+      if (right - left <= NODE_SIZE) {
+        for (int i = left; i <= right; i++) {
+          if (sqDist(coords[2 * i], coords[2 * i + 1], qx, qy) <= r2) out.accept(ids[i]);
+        }
+        continue;
+      }
+      int m = (left + right) >>> 1;
+      double x = coords[2 * m];
+      double y = coords[2 * m + 1];
+      if (sqDist(x, y, qx, qy) <= r2) out.accept(ids[m]);
+      if (stack.length < top + 6) stack = Arrays.copyOf(stack, stack.length * 2 + 6);
+      if (axis == 0 ? qx - r <= x : qy - r <= y) {
+        stack[top++] = left;
+        stack[top++] = m - 1;
+        stack[top++] = 1 - axis;
+      }
+      if (axis == 0 ? qx + r >= x : qy + r >= y) {
+        stack[top++] = m + 1;
+        stack[top++] = right;
+        stack[top++] = 1 - axis;
+      }
+    }
+  }
+
+  private void sort(int left, int right, int axis) {
+    if (right - left <= NODE_SIZE) return;
+    int m = (left + right) >>> 1;
+    select(m, left, right, axis);
+    sort(left, m - 1, 1 - axis);
+    sort(m + 1, right, 1 - axis);
+  }
+
+  /** Quickselect: afterwards position k holds the k-th smallest on {@code axis}, smaller ones before it. */
+  private void select(int k, int left, int right, int axis) {
+    while (right > left) {
+      double t = coords[2 * k + axis];
+      int i = left;
+      int j = right;
+      swap(left, k);
+      if (coords[2 * right + axis] > t) swap(left, right);
+      while (i < j) {
+        swap(i, j);
+        i++;
+        j--;
+        while (coords[2 * i + axis] < t) i++;
+        while (coords[2 * j + axis] > t) j--;
+      }
+      if (coords[2 * left + axis] == t) {
+        swap(left, j);
+      } else {
+        j++;
+        swap(j, right);
+      }
+      if (j <= k) left = j + 1;
+      if (k <= j) right = j - 1;
+    }
+  }
+
+  private void swap(int i, int j) {
+    int id = ids[i];
+    ids[i] = ids[j];
+    ids[j] = id;
+    double x = coords[2 * i];
+    double y = coords[2 * i + 1];
+    coords[2 * i] = coords[2 * j];
+    coords[2 * i + 1] = coords[2 * j + 1];
+    coords[2 * j] = x;
+    coords[2 * j + 1] = y;
+  }
+
+  private static double sqDist(double ax, double ay, double bx, double by) {
+    double dx = ax - bx;
+    double dy = ay - by;
+    return dx * dx + dy * dy;
+  }
+}
@@ -1,13 +1,13 @@
 package com.freshbite.backend.service;
 
 import com.freshbite.backend.domain.DishAtRestaurant;
-import com.freshbite.backend.domain.Review;
 import com.freshbite.backend.dto.ChatRequest;
 import com.freshbite.backend.dto.ChatResponse;
 import com.freshbite.backend.dto.LlmChatRequest;
 import com.freshbite.backend.dto.TimeWindow;
 import com.freshbite.backend.repository.DishAtRestaurantRepository;
 import com.freshbite.backend.repository.ReviewRepository;
+import com.freshbite.backend.repository.ReviewTextView;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -53,10 +53,10 @@ public class LlmClient {
 
     String dishName = dar.getDish().getName() + " at " + dar.getRestaurant().getName();
 
-    // Fetch recent reviews within the time window
+    // Fetch recent reviews within the time window (column projection, no entity hydration)
     Instant cutoff = tw.cutoff(Instant.now());
-    List<Review> reviews = reviewRepository
-      .findByDishAtRestaurantIdAndCreatedAtAfterOrderByCreatedAtDesc(request.dishAtRestaurantId(), cutoff);
+    List<ReviewTextView> reviews = reviewRepository
+      .findViewsByDishAtRestaurantIdAndCreatedAtAfterOrderByCreatedAtDesc(request.dishAtRestaurantId(), cutoff);
 
     log.info("LlmClient.ask fetched reviewCount={} for dish=\"{}\" cutoff={}", reviews.size(), dishName, cutoff);
 
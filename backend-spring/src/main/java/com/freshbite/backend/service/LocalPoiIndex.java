@@ -0,0 +1,127 @@
+package com.freshbite.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Answers {@link OverpassService#findNearby} from a local {@link OsmPoiStore}
+ * when {@code app.overpass.mode=local}, so discover does not depend on the
+ * public Overpass API at request time.
+ * <p>
+ * The store at {@code file} is opened on startup. When {@code import-from}
+ * names an Overpass JSON dump newer than the store, it is imported in the
+ * background with {@link OsmPoiImporter} and swapped in when done; refresh
+ * the data by replacing the dump and restarting. Until a store is available
+ * {@link #restaurantsIn} returns null and callers go to Overpass as in
+ * remote mode.
+ */
+@Component
+public class LocalPoiIndex {
+  private static final Logger log = LoggerFactory.getLogger(LocalPoiIndex.class);
+
+  private final boolean enabled;
+  private final Path file;
+  private final Path importFrom;
+  private final ObjectMapper objectMapper;
+  private final ExecutorService importer = Executors.newSingleThreadExecutor(r -> {
+    Thread t = new Thread(r, "osm-poi-import");
+    t.setDaemon(true);
+    return t;
+  });
+  private volatile OsmPoiStore store;
+
+  public LocalPoiIndex(
+    ObjectMapper objectMapper,
+    @Value("${app.overpass.mode:remote}") String mode,
+    @Value("${app.overpass.local.file:./data/osm-pois.bin}") String file,
+    @Value("${app.overpass.local.import-from:}") String importFrom
+  ) {
+    this.objectMapper = objectMapper;
+    this.enabled = "local".equalsIgnoreCase(mode);
+    this.file = Path.of(file);
+    this.importFrom = importFrom.isBlank() ? null : Path.of(importFrom);
+  }
+
+  @PostConstruct
+  public void open() {
+    if (!enabled) return;
+    if (Files.exists(file)) swap();
+    if (importFrom != null && needsImport()) {
+      importer.execute(this::runImport);
+    } else if (store == null) {
+      log.error("Local POI store {} missing and no import-from set — discover uses Overpass", file);
+    }
+  }
+
+  /**
+   * Every POI in {@code box} whose name contains {@code nameQuery}; null when
+   * local mode is off or no store is loaded yet.
+   */
+  public List<OverpassService.OverpassRestaurant> restaurantsIn(GeoMath.BoundingBox box, String nameQuery) {
+    OsmPoiStore current = store;
+    return current != null ? current.within(box, nameQuery) : null;
+  }
+
+  private boolean needsImport() {
+    try {
+      if (!Files.exists(importFrom)) {
+        log.error("Local POI import source {} not found", importFrom);
+        return false;
+      }
+      return store == null || Files.getLastModifiedTime(importFrom).toMillis() > store.importedAtMillis();
+    } catch (IOException e) {
+      log.error("Local POI import check failed: {}", e.getMessage());
+      return false;
+    }
+  }
+
+  private void runImport() {
+    long start = System.currentTimeMillis();
+    try {
+      OsmPoiImporter.Result result = OsmPoiImporter.run(objectMapper.getFactory(), importFrom, file);
+      log.info("Local POI import from={} imported={} skipped={} bytes={} duration={}ms",
+        importFrom, result.imported(), result.skipped(), result.bytes(), System.currentTimeMillis() - start);
+      swap();
+    } catch (Exception e) {
+      log.error("Local POI import from {} failed: {}", importFrom, e.getMessage());
+    }
+  }
+
+  private void swap() {
+    try {
+      OsmPoiStore opened = new OsmPoiStore(file);
+      OsmPoiStore previous = store;
+      store = opened;
+      // Queries still reading the old mapping are unaffected; closing only drops the channel
+      if (previous != null) previous.close();
+      log.info("Local POI store opened file={} pois={} importedAt={}",
+        file, opened.size(), Instant.ofEpochMilli(opened.importedAtMillis()));
+    } catch (IOException e) {
+      log.error("Local POI store {} could not be opened: {}", file, e.getMessage());
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    importer.shutdownNow();
+    try {
+      OsmPoiStore current = store;
+      if (current != null) current.close();
+    } catch (IOException e) {
+      log.warn("Local POI store close failed: {}", e.getMessage());
+    }
+  }
+}
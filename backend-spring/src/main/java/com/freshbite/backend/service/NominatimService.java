@@ -9,12 +9,15 @@ import org.springframework.web.reactive.function.client.WebClient;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Geocodes place names to coordinates using the free Nominatim API (OpenStreetMap).
  * <a href="https://nominatim.org/release-docs/latest/api/Search/">Nominatim docs</a>
  *
- * Usage policy: max 1 req/sec, custom User-Agent required.
+ * Usage policy: max 1 req/sec, custom User-Agent required. {@link #geocode}
+ * answers repeat places from {@link GeocodeCache}; lookups that do reach
+ * Nominatim are paced by {@link UpstreamScheduler}.
  */
 @Service
 public class NominatimService {
@@ -23,39 +26,54 @@ public class NominatimService {
 
   private final WebClient webClient;
   private final ObjectMapper objectMapper;
+  private final GeocodeCache geocodeCache;
+  private final UpstreamScheduler upstreamScheduler;
 
-  public NominatimService(ObjectMapper objectMapper) {
+  public NominatimService(ObjectMapper objectMapper, GeocodeCache geocodeCache, UpstreamScheduler upstreamScheduler) {
     this.webClient = WebClient.builder()
       .defaultHeader("User-Agent", "FreshBite/1.0 (dish-review-app)")
       .build();
     this.objectMapper = objectMapper;
+    this.geocodeCache = geocodeCache;
+    this.upstreamScheduler = upstreamScheduler;
   }
 
   public record GeoResult(String displayName, double lat, double lng) {}
 
   /**
    * Geocode a place name to coordinates.
-   * Returns the top result, or null if nothing found.
+   * Returns the top result, or null if nothing found or the lookup failed.
+   *
+   * @throws UpstreamScheduler.RejectedException when Nominatim calls are
+   *         saturated; that says nothing about the place, so it is not cached
    */
   public GeoResult geocode(String placeName) {
+    return geocodeCache.geocode(placeName, this::fetch);
+  }
+
+  /** The top Nominatim result, empty when there is none, null when the call failed; rejections propagate. */
+  private Optional<GeoResult> fetch(String placeName) {
     try {
-      String json = webClient.get()
-        .uri(NOMINATIM_URL + "?q={q}&format=json&limit=1", placeName)
-        .retrieve()
-        .bodyToMono(String.class)
-        .block();
+      String json = upstreamScheduler.call(UpstreamScheduler.NOMINATIM, GeocodeCache.normalize(placeName), () ->
+        webClient.get()
+          .uri(NOMINATIM_URL + "?q={q}&format=json&limit=1", placeName)
+          .retrieve()
+          .bodyToMono(String.class)
+          .block());
 
-      if (json == null || json.isBlank()) return null;
+      if (json == null || json.isBlank()) return Optional.empty();
 
       JsonNode arr = objectMapper.readTree(json);
-      if (!arr.isArray() || arr.isEmpty()) return null;
+      if (!arr.isArray() || arr.isEmpty()) return Optional.empty();
 
       JsonNode first = arr.get(0);
-      return new GeoResult(
+      return Optional.of(new GeoResult(
         first.path("display_name").asText(""),
         first.path("lat").asDouble(),
         first.path("lon").asDouble()
-      );
+      ));
+    } catch (UpstreamScheduler.RejectedException e) {
+      throw e;
     } catch (Exception e) {
       log.error("Nominatim geocoding failed for '{}': {}", placeName, e.getMessage());
       return null;
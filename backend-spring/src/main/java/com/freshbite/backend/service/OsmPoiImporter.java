@@ -0,0 +1,181 @@
+package com.freshbite.backend.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Builds an {@link OsmPoiStore} file from a regional OSM extract.
+ * <p>
+ * The source is an Overpass {@code [out:json]} dump, e.g. the result of
+ * {@code area["ISO3166-1"="US"]->.a; nwr["amenity"~"restaurant|fast_food|cafe"]["name"](area.a); out center body;},
+ * optionally gzipped ({@code .gz}). Elements are streamed: records and
+ * strings go straight to temporary files, and only a sort key and index per POI
+ * (12 bytes) plus a bounded table of shared strings stay on the heap while
+ * the records are sorted. The finished store replaces {@code target}
+ * atomically, so a running reader never sees a half-written file.
+ */
+final class OsmPoiImporter {
+
+  /** Outcome of an import. */
+  record Result(int imported, int skipped, long bytes) {}
+
+  private static final Set<String> TYPES = Set.of("restaurant", "fast_food", "cafe");
+  private static final int MAX_SHARED_STRINGS = 100_000;
+  private static final int MAX_STRING_BYTES = 0xFFFF;
+
+  private OsmPoiImporter() {}
+
+  static Result run(JsonFactory factory, Path source, Path target) throws IOException {
+    String name = source.getFileName().toString();
+    if (name.endsWith(".pbf")) {
+      throw new IOException("PBF extracts are not supported; export an Overpass JSON dump instead: " + source);
+    }
+    Path dir = target.toAbsolutePath().getParent();
+    Files.createDirectories(dir);
+    Path records = Files.createTempFile(dir, "osm-pois", ".records");
+    Path strings = Files.createTempFile(dir, "osm-pois", ".strings");
+    Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+    try {
+      Writer writer = new Writer(records, strings);
+      try (writer;
+           InputStream raw = new BufferedInputStream(Files.newInputStream(source));
+           InputStream in = name.endsWith(".gz") ? new GZIPInputStream(raw) : raw) {
+        OverpassStreamParser.forEach(factory, in, writer::add);
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+
+      long bytes = assemble(writer, records, strings, tmp);
+      Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      return new Result(writer.count, writer.skipped, bytes);
+    } finally {
+      Files.deleteIfExists(records);
+      Files.deleteIfExists(strings);
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  /** Writes header, sorted keys, records in key order, then the strings. */
+  private static long assemble(Writer writer, Path records, Path strings, Path out) throws IOException {
+    int n = writer.count;
+    long stringsOffset = OsmPoiStore.HEADER_BYTES + 8L * n + (long) OsmPoiStore.RECORD_BYTES * n;
+    long total = stringsOffset + Files.size(strings);
+    if (total > OsmPoiStore.MAX_FILE_BYTES) throw new IOException("POI store would exceed 2 GB: " + total + " bytes");
+
+    // Keys are < 2^40, so doubles hold them exactly
+    int[] order = GeoMath.sortedIndex(writer.keys, n);
+    try (FileChannel src = FileChannel.open(records, StandardOpenOption.READ);
+         DataOutputStream dst = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(out), 1 << 16))) {
+      MappedByteBuffer recs = src.map(FileChannel.MapMode.READ_ONLY, 0, src.size());
+      dst.writeInt(OsmPoiStore.MAGIC);
+      dst.writeInt(OsmPoiStore.VERSION);
+      dst.writeInt(n);
+      dst.writeInt(OsmPoiStore.KEY_PRECISION);
+      dst.writeLong(stringsOffset);
+      dst.writeLong(System.currentTimeMillis());
+      for (int i : order) dst.writeLong((long) writer.keys[i]);
+      byte[] rec = new byte[OsmPoiStore.RECORD_BYTES];
+      for (int i : order) {
+        recs.get(i * OsmPoiStore.RECORD_BYTES, rec);
+        dst.write(rec);
+      }
+      Files.copy(strings, dst);
+    }
+    try (FileChannel ch = FileChannel.open(out, StandardOpenOption.WRITE)) {
+      ch.force(true);
+    }
+    return total;
+  }
+
+  /** Appends records and strings to the temporary files, remembering each key. */
+  private static final class Writer implements AutoCloseable {
+    final DataOutputStream records;
+    final DataOutputStream strings;
+    final Map<String, Integer> shared = new HashMap<>();
+    final ByteBuffer rec = ByteBuffer.allocate(OsmPoiStore.RECORD_BYTES);
+    double[] keys = new double[1024];
+    int count;
+    int skipped;
+    int stringBytes;
+
+    Writer(Path records, Path strings) throws IOException {
+      this.records = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(records), 1 << 16));
+      this.strings = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(strings), 1 << 16));
+    }
+
+    void add(OverpassService.OverpassRestaurant r) {
+      if (!TYPES.contains(r.type()) || Math.abs(r.latitude()) > 90 || Math.abs(r.longitude()) > 180) {
+        skipped++;
+        return;
+      }
+      int lat = (int) Math.round(r.latitude() * OsmPoiStore.E7);
+      int lng = (int) Math.round(r.longitude() * OsmPoiStore.E7);
+      try {
+        rec.clear();
+        rec.putLong(r.osmId());
+        rec.putInt(lat);
+        rec.putInt(lng);
+        rec.putInt(string(r.name(), false));
+        rec.putInt(string(r.cuisine(), true));
+        rec.putInt(string(r.address(), false));
+        rec.putInt(string(r.city(), true));
+        rec.putInt(string(r.state(), true));
+        rec.putInt(string(r.country(), true));
+        rec.putInt(string(r.phone(), false));
+        rec.putInt(string(r.website(), false));
+        rec.putInt(string(r.openingHours(), true));
+        rec.putInt(string(r.type(), true));
+        records.write(rec.array());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      if (count == keys.length) keys = Arrays.copyOf(keys, keys.length * 2);
+      keys[count++] = Geohash.encodeBits(lat / OsmPoiStore.E7, lng / OsmPoiStore.E7, OsmPoiStore.KEY_PRECISION);
+    }
+
+    /** Offset of {@code value} in the string section; shared values are written once. */
+    private int string(String value, boolean share) throws IOException {
+      if (value == null) return -1;
+      if (share) {
+        Integer known = shared.get(value);
+        if (known != null) return known;
+      }
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      int len = Math.min(bytes.length, MAX_STRING_BYTES); // OSM caps values at 255 chars; guard anyway
+      if (stringBytes > OsmPoiStore.MAX_FILE_BYTES - 2 - len) throw new IOException("POI strings exceed 2 GB");
+      int offset = stringBytes;
+      strings.writeShort(len);
+      strings.write(bytes, 0, len);
+      stringBytes += 2 + len;
+      if (share && shared.size() < MAX_SHARED_STRINGS) shared.put(value, offset);
+      return offset;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try (records; strings) {
+        records.flush();
+        strings.flush();
+      }
+    }
+  }
+}
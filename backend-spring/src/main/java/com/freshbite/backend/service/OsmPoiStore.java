@@ -0,0 +1,158 @@
+package com.freshbite.backend.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Read-only spatial store of OSM restaurant/fast food/cafe POIs written by
+ * {@link OsmPoiImporter}, queried through a memory map.
+ * <p>
+ * Layout: a {@value #HEADER_BYTES}-byte header ({@code int magic, int version,
+ * int count, int keyPrecision, long stringsOffset, long importedAtMillis}),
+ * then {@code count} geohash keys ({@code long}, {@link Geohash#encodeBits} at
+ * {@value #KEY_PRECISION} characters, ascending), then {@code count}
+ * fixed-width records in the same order ({@code long osmId, int latE7,
+ * int lngE7} and {@value #STRING_FIELDS} {@code int} offsets into the string
+ * section, -1 for null), then the string section ({@code unsigned short
+ * length, UTF-8 bytes}; shared values are stored once).
+ * <p>
+ * Because keys are sorted geohashes, every coarser geohash cell is one
+ * contiguous key range, so a box query is a few binary searches plus a scan
+ * of the matching records. Nothing but the mapping is kept per POI, so a
+ * country-sized extract costs no heap. Safe for concurrent readers: only
+ * absolute reads are used.
+ */
+final class OsmPoiStore implements Closeable {
+  static final int MAGIC = 0x46425031; // "FBP1"
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 32;
+  static final int KEY_PRECISION = 8; // ~38 × 19 m cells
+  static final int STRING_FIELDS = 10;
+  static final int RECORD_BYTES = 16 + 4 * STRING_FIELDS;
+  static final long MAX_FILE_BYTES = Integer.MAX_VALUE;
+  static final double E7 = 1e7;
+
+  /** Cells tried per query before falling back to a coarser precision. */
+  private static final int MAX_QUERY_CELLS = 32;
+
+  private final FileChannel channel;
+  private final MappedByteBuffer map;
+  private final int count;
+  private final int keysOffset = HEADER_BYTES;
+  private final int recordsOffset;
+  private final int stringsOffset;
+  private final long importedAtMillis;
+
+  OsmPoiStore(Path file) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      long size = channel.size();
+      if (size < HEADER_BYTES || size > MAX_FILE_BYTES) throw new IOException("Bad POI store size " + size + ": " + file);
+      this.map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION || map.getInt(12) != KEY_PRECISION) {
+        throw new IOException("Not a version " + VERSION + " POI store: " + file);
+      }
+      this.count = map.getInt(8);
+      this.recordsOffset = keysOffset + 8 * count;
+      long strings = map.getLong(16);
+      if (count < 0 || strings != recordsOffset + (long) RECORD_BYTES * count || strings > size) {
+        throw new IOException("Corrupt POI store header: " + file);
+      }
+      this.stringsOffset = (int) strings;
+      this.importedAtMillis = map.getLong(24);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  int size() {
+    return count;
+  }
+
+  long importedAtMillis() {
+    return importedAtMillis;
+  }
+
+  /**
+   * Every POI inside {@code box} whose name contains {@code nameQuery}
+   * (case-insensitive; null or blank matches all). Strings are decoded only
+   * for POIs that pass the box and name checks.
+   */
+  List<OverpassService.OverpassRestaurant> within(GeoMath.BoundingBox box, String nameQuery) {
+    String needle = nameQuery == null || nameQuery.isBlank() ? null : nameQuery.toLowerCase(Locale.ROOT);
+    int minLat = (int) Math.floor(box.minLat() * E7), maxLat = (int) Math.ceil(box.maxLat() * E7);
+    int minLng = (int) Math.floor(box.minLng() * E7), maxLng = (int) Math.ceil(box.maxLng() * E7);
+
+    List<OverpassService.OverpassRestaurant> out = new ArrayList<>();
+    for (long[] range : keyRanges(box)) {
+      int end = lowerBound(range[1]);
+      for (int i = lowerBound(range[0]); i < end; i++) {
+        int rec = recordsOffset + i * RECORD_BYTES;
+        int lat = map.getInt(rec + 8);
+        int lng = map.getInt(rec + 12);
+        if (lat < minLat || lat > maxLat || lng < minLng || lng > maxLng) continue;
+        String name = string(rec, 0);
+        if (name == null || (needle != null && !name.toLowerCase(Locale.ROOT).contains(needle))) continue;
+        out.add(new OverpassService.OverpassRestaurant(
+          map.getLong(rec), name, string(rec, 1), string(rec, 2), string(rec, 3), string(rec, 4),
+          string(rec, 5), string(rec, 6), string(rec, 7), string(rec, 8), string(rec, 9),
+          lat / E7, lng / E7
+        ));
+      }
+    }
+    return out;
+  }
+
+  /**
+   * Half-open key ranges of the geohash cells covering {@code box}, at the
+   * finest precision needing at most {@link #MAX_QUERY_CELLS} cells.
+   */
+  private static List<long[]> keyRanges(GeoMath.BoundingBox box) {
+    for (int precision = 6; precision >= 1; precision--) {
+      List<String> cells = Geohash.covering(box, precision, MAX_QUERY_CELLS);
+      if (cells == null) continue;
+      int shift = 5 * (KEY_PRECISION - precision);
+      List<long[]> ranges = new ArrayList<>(cells.size());
+      for (String cell : cells) {
+        long bits = Geohash.toBits(cell);
+        ranges.add(new long[] {bits << shift, (bits + 1) << shift});
+      }
+      return ranges;
+    }
+    return List.of(new long[] {0, Long.MAX_VALUE});
+  }
+
+  /** First index whose key is ≥ {@code key}. */
+  private int lowerBound(long key) {
+    int lo = 0, hi = count;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (map.getLong(keysOffset + 8 * mid) < key) lo = mid + 1;
+      else hi = mid;
+    }
+    return lo;
+  }
+
+  private String string(int rec, int field) {
+    int offset = map.getInt(rec + 16 + 4 * field);
+    if (offset < 0) return null;
+    int at = stringsOffset + offset;
+    byte[] bytes = new byte[Short.toUnsignedInt(map.getShort(at))];
+    map.get(at + 2, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
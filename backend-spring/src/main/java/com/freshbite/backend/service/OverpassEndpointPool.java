@@ -0,0 +1,334 @@
+package com.freshbite.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Pool of interchangeable Overpass endpoints ({@code app.overpass.urls}).
+ * <p>
+ * Each request goes first to the endpoint with the lowest latency EWMA
+ * (untried endpoints count as fastest, so a new mirror is measured once).
+ * If it has not answered after its recent p95 latency (clamped to
+ * {@code hedge.min-delay-ms}..{@code hedge.max-delay-ms};
+ * {@code hedge.initial-delay-ms} until {@value #MIN_SAMPLES} samples exist), one
+ * hedged copy goes to the next endpoint; the first success wins and the other
+ * request is cancelled, closing its connection. A failed attempt fails over
+ * to the next endpoint immediately. The whole call gives up after
+ * {@code request-timeout-ms}.
+ * <p>
+ * Each endpoint has a circuit breaker: {@code circuit.failure-threshold}
+ * consecutive failures open it for {@code circuit.open-seconds}, after which a
+ * single trial request decides whether it closes again. Cancelled losers
+ * count as neither success nor failure.
+ * <p>
+ * Per endpoint host: {@code overpass.endpoint.latency.ewma} (ms) and
+ * {@code overpass.endpoint.circuit.open} (1 when open); {@code overpass.hedge}
+ * counts hedges tagged {@code outcome=sent|won}.
+ */
+@Component
+public class OverpassEndpointPool {
+  private static final Logger log = LoggerFactory.getLogger(OverpassEndpointPool.class);
+
+  private static final double EWMA_ALPHA = 0.3;
+  private static final int WINDOW = 64;
+  private static final int MIN_SAMPLES = 20;
+
+  /** One request to {@code url}; resources handed to {@code onCancel} are closed if it loses. */
+  @FunctionalInterface
+  public interface Request<T> {
+    T send(String url, Consumer<Closeable> onCancel) throws Exception;
+  }
+
+  /** Every endpoint's circuit is open; nothing was sent. */
+  public static class UnavailableException extends RuntimeException {
+    public UnavailableException(String message) {
+      super(message);
+    }
+  }
+
+  private final class Endpoint {
+    final String url;
+    final String host;
+    final long[] window = new long[WINDOW];
+    int samples;
+    double ewmaNanos;
+    int consecutiveFailures;
+    long openUntilNanos;
+    boolean trialRunning;
+
+    Endpoint(String url) {
+      this.url = url;
+      String h = URI.create(url).getHost();
+      this.host = h != null ? h : url;
+    }
+
+    synchronized double ewma() {
+      return ewmaNanos;
+    }
+
+    /** Whether a request may go out now; in half-open state only one trial at a time. */
+    synchronized boolean tryAcquire() {
+      if (openUntilNanos == 0) return true;
+      if (System.nanoTime() < openUntilNanos || trialRunning) return false;
+      trialRunning = true;
+      return true;
+    }
+
+    synchronized void success(long nanos) {
+      ewmaNanos = samples == 0 ? nanos : EWMA_ALPHA * nanos + (1 - EWMA_ALPHA) * ewmaNanos;
+      window[samples++ % WINDOW] = nanos;
+      if (samples == 2 * WINDOW) samples = WINDOW; // keep the ring position bounded
+      if (openUntilNanos != 0) log.info("Overpass endpoint {} recovered", host);
+      consecutiveFailures = 0;
+      openUntilNanos = 0;
+      trialRunning = false;
+    }
+
+    synchronized void failure(Exception e) {
+      consecutiveFailures++;
+      if (trialRunning || consecutiveFailures >= failureThreshold) {
+        if (openUntilNanos == 0) log.warn("Overpass endpoint {} circuit open: {}", host, e.getMessage());
+        openUntilNanos = System.nanoTime() + openNanos;
+      }
+      trialRunning = false;
+    }
+
+    /** A trial that lost the race proved nothing; let the next request try. */
+    synchronized void released() {
+      trialRunning = false;
+    }
+
+    synchronized long hedgeDelayNanos() {
+      int n = Math.min(samples, WINDOW);
+      if (n < MIN_SAMPLES) return initialHedgeNanos;
+      long[] sorted = Arrays.copyOf(window, n);
+      Arrays.sort(sorted);
+      long p95 = sorted[(int) Math.ceil(0.95 * n) - 1];
+      return Math.max(minHedgeNanos, Math.min(maxHedgeNanos, p95));
+    }
+
+    synchronized boolean open() {
+      return openUntilNanos != 0;
+    }
+  }
+
+  /** One in-flight request; cancelling closes whatever the request registered. */
+  private static final class Attempt implements Consumer<Closeable> {
+    final Endpoint endpoint;
+    final boolean hedge;
+    Future<?> future;
+    private Closeable resource;
+    private boolean started;
+    private boolean cancelled;
+
+    Attempt(Endpoint endpoint, boolean hedge) {
+      this.endpoint = endpoint;
+      this.hedge = hedge;
+    }
+
+    @Override
+    public void accept(Closeable c) {
+      synchronized (this) {
+        if (!cancelled) {
+          resource = c;
+          return;
+        }
+      }
+      closeQuietly(c);
+    }
+
+    synchronized void started() {
+      started = true;
+    }
+
+    synchronized boolean cancelled() {
+      return cancelled;
+    }
+
+    void cancel() {
+      Closeable c;
+      boolean neverRan;
+      synchronized (this) {
+        if (cancelled) return;
+        cancelled = true;
+        neverRan = !started;
+        c = resource;
+        resource = null;
+      }
+      closeQuietly(c);
+      future.cancel(true);
+      if (neverRan) endpoint.released();
+    }
+
+    private static void closeQuietly(Closeable c) {
+      if (c == null) return;
+      try {
+        c.close();
+      } catch (IOException | RuntimeException ignored) {
+        // The request is being abandoned either way
+      }
+    }
+  }
+
+  private final List<Endpoint> endpoints;
+  private final Executor executor;
+  private final boolean hedgeEnabled;
+  private final long initialHedgeNanos;
+  private final long minHedgeNanos;
+  private final long maxHedgeNanos;
+  private final long timeoutNanos;
+  private final int failureThreshold;
+  private final long openNanos;
+  private final Counter hedgesSent;
+  private final Counter hedgesWon;
+
+  public OverpassEndpointPool(
+    MeterRegistry meterRegistry,
+    @Qualifier("applicationTaskExecutor") Executor taskExecutor,
+    @Value("${app.overpass.urls:https://overpass-api.de/api/interpreter}") List<String> urls,
+    @Value("${app.overpass.hedge.enabled:true}") boolean hedgeEnabled,
+    @Value("${app.overpass.hedge.initial-delay-ms:3000}") long initialDelayMs,
+    @Value("${app.overpass.hedge.min-delay-ms:500}") long minDelayMs,
+    @Value("${app.overpass.hedge.max-delay-ms:10000}") long maxDelayMs,
+    @Value("${app.overpass.request-timeout-ms:30000}") long requestTimeoutMs,
+    @Value("${app.overpass.circuit.failure-threshold:3}") int failureThreshold,
+    @Value("${app.overpass.circuit.open-seconds:30}") long openSeconds
+  ) {
+    this.endpoints = urls.stream().map(String::trim).filter(u -> !u.isEmpty()).distinct().map(Endpoint::new).toList();
+    if (endpoints.isEmpty()) throw new IllegalArgumentException("app.overpass.urls is empty");
+    this.executor = taskExecutor;
+    this.hedgeEnabled = hedgeEnabled;
+    this.initialHedgeNanos = TimeUnit.MILLISECONDS.toNanos(initialDelayMs);
+    this.minHedgeNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMs);
+    this.maxHedgeNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+    this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(requestTimeoutMs);
+    this.failureThreshold = failureThreshold;
+    this.openNanos = TimeUnit.SECONDS.toNanos(openSeconds);
+    for (Endpoint e : endpoints) {
+      Gauge.builder("overpass.endpoint.latency.ewma", e, ep -> ep.ewma() / 1e6).tag("endpoint", e.host).register(meterRegistry);
+      Gauge.builder("overpass.endpoint.circuit.open", e, ep -> ep.open() ? 1 : 0).tag("endpoint", e.host).register(meterRegistry);
+    }
+    this.hedgesSent = meterRegistry.counter("overpass.hedge", "outcome", "sent");
+    this.hedgesWon = meterRegistry.counter("overpass.hedge", "outcome", "won");
+  }
+
+  /**
+   * Runs {@code request} against the pool as described above and returns the
+   * first successful result. Throws the last attempt's exception when every
+   * available endpoint failed, {@link TimeoutException} past the deadline,
+   * or {@link UnavailableException} when every circuit is open.
+   */
+  public <T> T execute(Request<T> request) throws Exception {
+    List<Endpoint> order = new ArrayList<>(endpoints);
+    order.sort(Comparator.comparingDouble(Endpoint::ewma)); // stable: config order breaks ties
+
+    CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+    List<Attempt> running = new ArrayList<>(2);
+    long deadline = System.nanoTime() + timeoutNanos;
+    int next = 0;
+    boolean hedged = false;
+    Exception last = null;
+    try {
+      Attempt first = null;
+      while (first == null && next < order.size()) first = launch(order.get(next++), false, request, completion, running);
+      if (first == null) throw new UnavailableException("All Overpass endpoint circuits are open");
+      long hedgeAt = System.nanoTime() + first.endpoint.hedgeDelayNanos();
+
+      while (true) {
+        long now = System.nanoTime();
+        if (now >= deadline) {
+          throw new TimeoutException("Overpass request timed out after " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + "ms");
+        }
+        boolean canHedge = hedgeEnabled && !hedged && next < order.size();
+        Future<T> done = completion.poll(Math.max(0, (canHedge ? Math.min(hedgeAt, deadline) : deadline) - now), TimeUnit.NANOSECONDS);
+
+        if (done == null) {
+          if (canHedge && System.nanoTime() >= hedgeAt) {
+            Attempt hedge = null;
+            while (hedge == null && next < order.size()) hedge = launch(order.get(next++), true, request, completion, running);
+            hedged = true;
+            if (hedge != null) hedgesSent.increment();
+          }
+          continue;
+        }
+
+        Attempt finished = remove(running, done);
+        try {
+          T result = done.get();
+          if (finished != null && finished.hedge) hedgesWon.increment();
+          return result;
+        } catch (ExecutionException e) {
+          last = e.getCause() instanceof Exception ex ? ex : e;
+          log.debug("Overpass attempt failed endpoint={} error={}", finished != null ? finished.endpoint.host : "?", last.getMessage());
+        }
+        // Fail over at once rather than waiting for the hedge timer
+        if (running.isEmpty()) {
+          Attempt retry = null;
+          while (retry == null && next < order.size()) retry = launch(order.get(next++), false, request, completion, running);
+          if (retry == null) throw last;
+          hedgeAt = System.nanoTime() + retry.endpoint.hedgeDelayNanos();
+        }
+      }
+    } finally {
+      for (Attempt a : running) a.cancel();
+    }
+  }
+
+  /** Starts {@code request} on {@code endpoint}; null when its circuit is open. */
+  private <T> Attempt launch(Endpoint endpoint, boolean hedge, Request<T> request,
+                             CompletionService<T> completion, List<Attempt> running) {
+    if (!endpoint.tryAcquire()) return null;
+    Attempt attempt = new Attempt(endpoint, hedge);
+    attempt.future = completion.submit(() -> {
+      attempt.started();
+      long start = System.nanoTime();
+      try {
+        T result = request.send(endpoint.url, attempt);
+        if (attempt.cancelled()) {
+          endpoint.released();
+        } else {
+          endpoint.success(System.nanoTime() - start);
+        }
+        return result;
+      } catch (Exception e) {
+        if (attempt.cancelled()) {
+          endpoint.released();
+        } else {
+          endpoint.failure(e);
+        }
+        throw e;
+      }
+    });
+    running.add(attempt);
+    return attempt;
+  }
+
+  private static Attempt remove(List<Attempt> running, Future<?> done) {
+    for (int i = 0; i < running.size(); i++) {
+      if (running.get(i).future == done) return running.remove(i);
+    }
+    return null;
+  }
+}
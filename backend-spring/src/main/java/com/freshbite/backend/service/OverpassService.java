@@ -1,15 +1,16 @@
 package com.freshbite.backend.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Queries the free Overpass API (OpenStreetMap) for real-world restaurants,
@@ -23,17 +24,33 @@ import java.util.stream.Collectors;
 @Service
 public class OverpassService {
   private static final Logger log = LoggerFactory.getLogger(OverpassService.class);
-  private static final String OVERPASS_URL = "https://overpass-api.de/api/interpreter";
+
+  /** Network buffers requested ahead of the parser; bounds what a response holds in memory. */
+  private static final int STREAM_DEMAND = 4;
 
   private final WebClient webClient;
   private final ObjectMapper objectMapper;
-
-  public OverpassService(ObjectMapper objectMapper) {
+  private final OverpassTileCache tileCache;
+  private final LocalPoiIndex localPois;
+  private final UpstreamScheduler upstreamScheduler;
+  private final OverpassEndpointPool endpoints;
+
+  public OverpassService(
+    ObjectMapper objectMapper,
+    OverpassTileCache tileCache,
+    LocalPoiIndex localPois,
+    UpstreamScheduler upstreamScheduler,
+    OverpassEndpointPool endpoints
+  ) {
+    // Responses are streamed rather than aggregated, so no in-memory size cap is needed
     this.webClient = WebClient.builder()
-      .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(10 * 1024 * 1024)) // 10MB
       .defaultHeader("User-Agent", "FreshBite/1.0 (dish-review-app)")
       .build();
     this.objectMapper = objectMapper;
+    this.tileCache = tileCache;
+    this.localPois = localPois;
+    this.upstreamScheduler = upstreamScheduler;
+    this.endpoints = endpoints;
   }
 
   public record OverpassRestaurant(
@@ -53,9 +70,12 @@ public class OverpassService {
   ) {}
 
   /**
-   * Find restaurants near a location within a given radius.
+   * Find restaurants near a location within a given radius, nearest first.
    * <p>
-   * The name filter is applied Java-side (not in Overpass query) to avoid
+   * In local mode served from the imported {@link LocalPoiIndex}. Otherwise
+   * served from {@link OverpassTileCache} when the radius is covered by at
+   * most {@code max-tiles} tiles; larger radii query Overpass directly. The
+   * name filter is applied Java-side (not in Overpass query) to avoid
    * slow regex queries that can cause 504 timeouts from the Overpass API.
    *
    * @param lat       center latitude
@@ -64,8 +84,48 @@ public class OverpassService {
    * @param nameQuery optional restaurant name filter (e.g. "McDonald's") — applied locally
    * @param limit     max results to return
    * @return list of discovered restaurants
+   * @throws UpstreamScheduler.RejectedException when Overpass calls are saturated
    */
   public List<OverpassRestaurant> findNearby(double lat, double lng, int radiusM, String nameQuery, int limit) {
+    double radiusKm = radiusM / 1000.0;
+    GeoMath.BoundingBox box = GeoMath.boundingBox(lat, lng, radiusKm);
+    List<OverpassRestaurant> candidates = localPois.restaurantsIn(box, nameQuery);
+    if (candidates == null) {
+      candidates = tileCache.restaurantsIn(box, this::fetchBox);
+    }
+    if (candidates == null) {
+      candidates = fetchAround(lat, lng, radiusM, nameQuery, limit);
+      tileCache.fillInBackground(box, this::fetchBox);
+    }
+
+    // Radius and name filters (case-insensitive contains), nearest first
+    String lowerQuery = nameQuery != null && !nameQuery.isBlank() ? nameQuery.toLowerCase() : null;
+    List<OverpassRestaurant> matching = new ArrayList<>();
+    for (OverpassRestaurant r : candidates) {
+      if (lowerQuery == null || r.name().toLowerCase().contains(lowerQuery)) matching.add(r);
+    }
+    int n = matching.size();
+    double[] lats = new double[n];
+    double[] lngs = new double[n];
+    for (int i = 0; i < n; i++) {
+      lats[i] = matching.get(i).latitude();
+      lngs[i] = matching.get(i).longitude();
+    }
+    double[] distances = new double[n];
+    GeoMath.haversineKm(lat, lng, lats, lngs, distances, n);
+
+    List<OverpassRestaurant> results = new ArrayList<>(Math.min(n, limit));
+    for (int i : GeoMath.sortedIndex(distances, n)) {
+      if (distances[i] > radiusKm || results.size() == limit) break;
+      results.add(matching.get(i));
+    }
+    log.info("Overpass near ({}, {}) radius={}m name='{}': {} candidates, {} results",
+      lat, lng, radiusM, nameQuery, candidates.size(), results.size());
+    return results;
+  }
+
+  /** Direct radius query, capped like before tiles existed; empty on failure, rejections propagate. */
+  private List<OverpassRestaurant> fetchAround(double lat, double lng, int radiusM, String nameQuery, int limit) {
     // Use Locale.US to ensure dot-decimal formatting
     String latStr = String.format(java.util.Locale.US, "%.7f", lat);
     String lngStr = String.format(java.util.Locale.US, "%.7f", lng);
@@ -80,106 +140,52 @@ public class OverpassService {
       + ");\nout center body " + overpassLimit + ";\n";
 
     try {
-      String json = webClient.post()
-        .uri(OVERPASS_URL)
-        .header("Content-Type", "application/x-www-form-urlencoded")
-        .bodyValue("data=" + java.net.URLEncoder.encode(query, java.nio.charset.StandardCharsets.UTF_8))
-        .retrieve()
-        .bodyToMono(String.class)
-        .block();
-
-      if (json == null) return List.of();
-
-      JsonNode root = objectMapper.readTree(json);
-      JsonNode elements = root.path("elements");
-      if (!elements.isArray()) return List.of();
-
-      List<OverpassRestaurant> results = new ArrayList<>();
-      for (JsonNode el : elements) {
-        String name = getTag(el, "name");
-        if (name == null || name.isBlank()) continue; // Skip unnamed
-
-        // For ways, coordinates are in the "center" sub-object
-        double elLat, elLng;
-        if (el.has("center")) {
-          elLat = el.path("center").path("lat").asDouble();
-          elLng = el.path("center").path("lon").asDouble();
-        } else {
-          elLat = el.path("lat").asDouble();
-          elLng = el.path("lon").asDouble();
-        }
-
-        String amenity = getTag(el, "amenity");
-        String streetAddr = buildAddress(el);
-
-        results.add(new OverpassRestaurant(
-          el.path("id").asLong(),
-          name,
-          getTag(el, "cuisine"),
-          streetAddr,
-          getTag(el, "addr:city"),
-          getTag(el, "addr:state"),
-          getTag(el, "addr:country"),
-          getTag(el, "phone"),
-          getTag(el, "website"),
-          getTag(el, "opening_hours"),
-          amenity != null ? amenity : "restaurant",
-          elLat,
-          elLng
-        ));
-      }
-
-      log.info("Overpass returned {} raw restaurants near ({}, {}) radius={}m",
-        results.size(), lat, lng, radiusM);
-
-      // Apply name filter locally (case-insensitive contains)
-      if (nameQuery != null && !nameQuery.isBlank()) {
-        String lowerQuery = nameQuery.toLowerCase();
-        results = results.stream()
-          .filter(r -> r.name().toLowerCase().contains(lowerQuery))
-          .collect(java.util.stream.Collectors.toList());
-        log.info("After name filter '{}': {} restaurants", nameQuery, results.size());
-      }
-
-      // Apply limit
-      if (results.size() > limit) {
-        results = results.subList(0, limit);
-      }
-
-      return results;
-
+      // Name filter and limit applied while decoding, so reading stops at the last match needed
+      return post(query, nameQuery, limit);
+    } catch (UpstreamScheduler.RejectedException e) {
+      throw e;
     } catch (Exception e) {
       log.error("Overpass query failed: {}", e.getMessage());
       return List.of();
     }
   }
 
-  // ── Helpers ──────────────────────────────────────────────
-
-  private String getTag(JsonNode element, String key) {
-    JsonNode tags = element.path("tags");
-    if (tags.isMissingNode()) return null;
-    JsonNode val = tags.path(key);
-    return val.isMissingNode() ? null : val.asText();
-  }
-
-  private String buildAddress(JsonNode element) {
-    String houseNumber = getTag(element, "addr:housenumber");
-    String street = getTag(element, "addr:street");
-    StringBuilder sb = new StringBuilder();
-    if (houseNumber != null && !houseNumber.isBlank()) sb.append(houseNumber);
-    if (street != null && !street.isBlank()) {
-      if (!sb.isEmpty()) sb.append(" ");
-      sb.append(street);
-    }
-    return sb.isEmpty() ? "" : sb.toString();
+  /** Every named restaurant/fast food/cafe in {@code box}, unlimited; for tile fills. */
+  private List<OverpassRestaurant> fetchBox(GeoMath.BoundingBox box) throws Exception {
+    String bbox = String.format(java.util.Locale.US, "%.7f,%.7f,%.7f,%.7f",
+      box.minLat(), box.minLng(), box.maxLat(), box.maxLng());
+    String query = "[out:json][timeout:25];\n(\n"
+      + "  node[\"amenity\"~\"restaurant|fast_food|cafe\"][\"name\"](" + bbox + ");\n"
+      + "  way[\"amenity\"~\"restaurant|fast_food|cafe\"][\"name\"](" + bbox + ");\n"
+      + ");\nout center body;\n";
+    List<OverpassRestaurant> results = post(query, null, Integer.MAX_VALUE);
+    log.info("Overpass returned {} raw restaurants in box {}", results.size(), bbox);
+    return results;
   }
 
-  private String firstNonNull(String... vals) {
-    for (String v : vals) {
-      if (v != null && !v.isBlank()) return v;
-    }
-    return null;
+  /**
+   * Runs {@code query} and decodes the response as it arrives with
+   * {@link OverpassStreamParser}, keeping at most {@code limit} elements whose
+   * name matches {@code nameQuery}; the rest of the body is not read. Identical
+   * concurrent calls share one upstream call ({@link UpstreamScheduler}), which
+   * {@link OverpassEndpointPool} sends to the fastest healthy endpoint, hedged.
+   */
+  private List<OverpassRestaurant> post(String query, String nameQuery, int limit) throws Exception {
+    String key = nameQuery == null && limit == Integer.MAX_VALUE ? query : query + '\n' + nameQuery + '\n' + limit;
+    String form = "data=" + java.net.URLEncoder.encode(query, java.nio.charset.StandardCharsets.UTF_8);
+    return upstreamScheduler.call(UpstreamScheduler.OVERPASS, key, () -> endpoints.execute((url, onCancel) -> {
+      Flux<DataBuffer> body = webClient.post()
+        .uri(url)
+        .header("Content-Type", "application/x-www-form-urlencoded")
+        .bodyValue(form)
+        .retrieve()
+        .bodyToFlux(DataBuffer.class);
+      // Closing the stream cancels the exchange and releases any buffers not yet read,
+      // both when parsing stops early and when a hedged attempt loses
+      try (InputStream in = new DataBufferInputStream(body, STREAM_DEMAND)) {
+        onCancel.accept(in);
+        return OverpassStreamParser.parse(objectMapper.getFactory(), in, nameQuery, limit);
+      }
+    }));
   }
-
 }
@@ -0,0 +1,167 @@
+package com.freshbite.backend.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Token-stream decoder for Overpass {@code [out:json]} responses.
+ * <p>
+ * Walks {@code elements} one object at a time, keeping only the fields an
+ * {@link OverpassService.OverpassRestaurant} needs (other fields and tags are
+ * skipped unread), so memory is bounded by the matches kept rather than the
+ * payload. The name filter is applied per element and parsing stops once
+ * {@code limit} elements matched — closing the stream then cancels the rest
+ * of the download. Low-cardinality values (amenity, cuisine, street, city,
+ * state, country) are de-duplicated within a response, so a tile of 500
+ * restaurants in one city holds one "Phoenix" rather than 500.
+ */
+final class OverpassStreamParser {
+
+  /** Caps the de-duplication table when reading a full regional dump. */
+  private static final int MAX_INTERNED = 20_000;
+
+  private OverpassStreamParser() {}
+
+  /**
+   * Named elements whose name contains {@code nameQuery} (case-insensitive;
+   * null or blank matches all), at most {@code limit}, in response order.
+   */
+  static List<OverpassService.OverpassRestaurant> parse(JsonFactory factory, InputStream in,
+                                                        String nameQuery, int limit) throws IOException {
+    String needle = nameQuery == null || nameQuery.isBlank() ? null : nameQuery.toLowerCase(Locale.ROOT);
+    List<OverpassService.OverpassRestaurant> results = new ArrayList<>();
+    if (limit <= 0) return results;
+    read(factory, in, r -> {
+      if (needle != null && !r.name().toLowerCase(Locale.ROOT).contains(needle)) return true;
+      results.add(r);
+      return results.size() < limit;
+    });
+    return results;
+  }
+
+  /** Hands every named element to {@code sink} without collecting them; for dumps of any size. */
+  static void forEach(JsonFactory factory, InputStream in,
+                      Consumer<OverpassService.OverpassRestaurant> sink) throws IOException {
+    read(factory, in, r -> {
+      sink.accept(r);
+      return true;
+    });
+  }
+
+  /** Feeds named elements to {@code sink} until the array ends or it returns false. */
+  private static void read(JsonFactory factory, InputStream in,
+                           Predicate<OverpassService.OverpassRestaurant> sink) throws IOException {
+    Map<String, String> interned = new HashMap<>();
+    try (JsonParser p = factory.createParser(in)) {
+      if (p.nextToken() != JsonToken.START_OBJECT) return;
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        String field = p.currentName();
+        JsonToken value = p.nextToken();
+        if (!"elements".equals(field) || value != JsonToken.START_ARRAY) {
+          p.skipChildren();
+          continue;
+        }
+        while (p.nextToken() == JsonToken.START_OBJECT) {
+          OverpassService.OverpassRestaurant r = element(p, interned);
+          if (r != null && !sink.test(r)) return;
+        }
+        return;
+      }
+    }
+  }
+
+  /** Reads one element object (parser on its START_OBJECT); null when unnamed. */
+  private static OverpassService.OverpassRestaurant element(JsonParser p, Map<String, String> interned) throws IOException {
+    long id = 0;
+    double lat = 0;
+    double lng = 0;
+    String name = null, amenity = null, cuisine = null, houseNumber = null, street = null;
+    String city = null, state = null, country = null, phone = null, website = null, openingHours = null;
+
+    while (p.nextToken() == JsonToken.FIELD_NAME) {
+      String field = p.currentName();
+      JsonToken value = p.nextToken();
+      switch (field) {
+        case "id" -> id = p.getValueAsLong();
+        case "lat" -> lat = p.getValueAsDouble();
+        case "lon" -> lng = p.getValueAsDouble();
+        case "center" -> {
+          // Ways carry their position here instead of lat/lon
+          if (value != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            break;
+          }
+          while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String coord = p.currentName();
+            p.nextToken();
+            if ("lat".equals(coord)) lat = p.getValueAsDouble();
+            else if ("lon".equals(coord)) lng = p.getValueAsDouble();
+            else p.skipChildren();
+          }
+        }
+        case "tags" -> {
+          if (value != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            break;
+          }
+          while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String tag = p.currentName();
+            JsonToken tagValue = p.nextToken();
+            if (tagValue != JsonToken.VALUE_STRING) {
+              p.skipChildren();
+              continue;
+            }
+            switch (tag) {
+              case "name" -> name = p.getText();
+              case "amenity" -> amenity = intern(interned, p.getText());
+              case "cuisine" -> cuisine = intern(interned, p.getText());
+              case "addr:housenumber" -> houseNumber = p.getText();
+              case "addr:street" -> street = intern(interned, p.getText());
+              case "addr:city" -> city = intern(interned, p.getText());
+              case "addr:state" -> state = intern(interned, p.getText());
+              case "addr:country" -> country = intern(interned, p.getText());
+              case "phone" -> phone = p.getText();
+              case "website" -> website = p.getText();
+              case "opening_hours" -> openingHours = intern(interned, p.getText());
+              default -> { }
+            }
+          }
+        }
+        default -> p.skipChildren();
+      }
+    }
+
+    if (name == null || name.isBlank()) return null; // Skip unnamed
+    return new OverpassService.OverpassRestaurant(
+      id, name, cuisine, address(houseNumber, street), city, state, country,
+      phone, website, openingHours, amenity != null ? amenity : "restaurant", lat, lng
+    );
+  }
+
+  private static String address(String houseNumber, String street) {
+    StringBuilder sb = new StringBuilder();
+    if (houseNumber != null && !houseNumber.isBlank()) sb.append(houseNumber);
+    if (street != null && !street.isBlank()) {
+      if (!sb.isEmpty()) sb.append(" ");
+      sb.append(street);
+    }
+    return sb.isEmpty() ? "" : sb.toString();
+  }
+
+  private static String intern(Map<String, String> interned, String value) {
+    if (interned.size() >= MAX_INTERNED) return interned.getOrDefault(value, value);
+    String existing = interned.putIfAbsent(value, value);
+    return existing != null ? existing : value;
+  }
+}
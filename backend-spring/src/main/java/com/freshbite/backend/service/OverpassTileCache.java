@@ -0,0 +1,277 @@
+package com.freshbite.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Overpass results cached per geohash tile of fixed {@code precision}
+ * (5 ≈ 4.9 × 4.9 km at the equator).
+ * <p>
+ * A radius query reads every tile covering its bounding box. Tiles younger
+ * than {@code fresh-minutes} are used as is. Older tiles, up to
+ * {@code max-stale-hours}, are still served, and one background refresh per
+ * tile is queued; concurrent requests for a tile that is already refreshing
+ * do not queue another. Missing tiles are fetched synchronously with one
+ * Overpass bounding-box query, but only when they fit in a rectangle of
+ * {@code sync-max-tiles} tiles; a colder request is answered by the caller's
+ * capped direct query, after which the caller has its missing tiles filled
+ * in the background ({@link #fillInBackground}), one query per block of at
+ * most {@code sync-max-tiles} tiles. A query's
+ * elements are bucketed back into tiles by the geohash of their position
+ * (empty tiles are cached too). A tile always holds every named
+ * restaurant/fast food/cafe inside it, so any radius and name filter can be
+ * answered from it.
+ * <p>
+ * Memory is bounded by {@code max-restaurants}, the total held across tiles.
+ * Counted in {@code overpass.tiles} tagged {@code state=fresh|stale|miss}.
+ */
+@Component
+public class OverpassTileCache {
+  private static final Logger log = LoggerFactory.getLogger(OverpassTileCache.class);
+
+  /** Every Overpass element whose position lies in {@code box}. Throws on failure. */
+  @FunctionalInterface
+  public interface BoxFetcher {
+    List<OverpassService.OverpassRestaurant> fetch(GeoMath.BoundingBox box) throws Exception;
+  }
+
+  private record Tile(List<OverpassService.OverpassRestaurant> restaurants, long fetchedAtMillis) {}
+
+  private record Cell(long row, long col) {}
+
+  private final boolean enabled;
+  private final int precision;
+  private final int maxTiles;
+  private final int syncMaxTiles;
+  private final long freshMillis;
+  private final Cache<String, Tile> tiles;
+  private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+  private final Counter fresh;
+  private final Counter stale;
+  private final Counter missing;
+  private final ExecutorService refresher = Executors.newSingleThreadExecutor(r -> {
+    Thread t = new Thread(r, "overpass-tile-refresh");
+    t.setDaemon(true);
+    return t;
+  });
+
+  public OverpassTileCache(
+    MeterRegistry meterRegistry,
+    @Value("${app.overpass.tiles.enabled:true}") boolean enabled,
+    @Value("${app.overpass.tiles.precision:5}") int precision,
+    @Value("${app.overpass.tiles.max-tiles:64}") int maxTiles,
+    @Value("${app.overpass.tiles.sync-max-tiles:9}") int syncMaxTiles,
+    @Value("${app.overpass.tiles.max-restaurants:50000}") long maxRestaurants,
+    @Value("${app.overpass.tiles.fresh-minutes:60}") long freshMinutes,
+    @Value("${app.overpass.tiles.max-stale-hours:168}") long maxStaleHours
+  ) {
+    this.enabled = enabled;
+    this.precision = precision;
+    this.maxTiles = maxTiles;
+    this.syncMaxTiles = Math.max(1, syncMaxTiles);
+    this.freshMillis = Duration.ofMinutes(freshMinutes).toMillis();
+    this.tiles = Caffeine.newBuilder()
+      .maximumWeight(maxRestaurants)
+      .weigher((String hash, Tile tile) -> tile.restaurants().size() + 1) // empty tiles are not free
+      .expireAfterWrite(Duration.ofHours(maxStaleHours))
+      .build();
+    this.fresh = meterRegistry.counter("overpass.tiles", "state", "fresh");
+    this.stale = meterRegistry.counter("overpass.tiles", "state", "stale");
+    this.missing = meterRegistry.counter("overpass.tiles", "state", "miss");
+  }
+
+  /**
+   * Every cached or freshly fetched restaurant in the tiles covering
+   * {@code box}; null when the cache is disabled, the box needs more than
+   * {@code max-tiles} tiles, or its missing tiles span more than
+   * {@code sync-max-tiles}, in which case the caller queries Overpass
+   * directly. Tiles that could not be fetched contribute nothing, except
+   * that {@link UpstreamScheduler.RejectedException} propagates.
+   */
+  public List<OverpassService.OverpassRestaurant> restaurantsIn(GeoMath.BoundingBox box, BoxFetcher fetcher) {
+    if (!enabled) return null;
+    List<String> hashes = Geohash.covering(box, precision, maxTiles);
+    if (hashes == null) return null;
+
+    long now = System.currentTimeMillis();
+    List<OverpassService.OverpassRestaurant> out = new ArrayList<>();
+    List<String> toFetch = new ArrayList<>();
+    List<String> toRefresh = new ArrayList<>();
+    for (String hash : hashes) {
+      Tile tile = tiles.getIfPresent(hash);
+      if (tile == null) {
+        missing.increment();
+        toFetch.add(hash);
+        continue;
+      }
+      out.addAll(tile.restaurants());
+      if (now - tile.fetchedAtMillis() < freshMillis) {
+        fresh.increment();
+      } else {
+        stale.increment();
+        if (refreshing.add(hash)) toRefresh.add(hash);
+      }
+    }
+
+    if (!toFetch.isEmpty() && spanTiles(toFetch) > syncMaxTiles) {
+      // Too wide to wait for: the caller's capped query answers now, then calls fillInBackground
+      refreshing.removeAll(toRefresh);
+      return null;
+    }
+    if (!toFetch.isEmpty()) {
+      try {
+        for (Tile tile : fetchTiles(toFetch, fetcher).values()) out.addAll(tile.restaurants());
+      } catch (UpstreamScheduler.RejectedException e) {
+        refreshing.removeAll(toRefresh); // saturated: no refreshes either
+        throw e;
+      } catch (Exception e) {
+        log.error("Overpass tile fetch failed tiles={} error={}", toFetch.size(), e.getMessage());
+      }
+    }
+    inBackground(toRefresh, fetcher);
+    return out;
+  }
+
+  /**
+   * Queues a fetch of every missing or stale tile covering {@code box} that
+   * is not already being fetched. Called after {@link #restaurantsIn}
+   * returned null for lack of tiles, once the caller's direct query has been
+   * sent, so that query is not queued behind the fills for the Overpass rate
+   * limit.
+   */
+  public void fillInBackground(GeoMath.BoundingBox box, BoxFetcher fetcher) {
+    if (!enabled) return;
+    List<String> hashes = Geohash.covering(box, precision, maxTiles);
+    if (hashes == null) return;
+    long now = System.currentTimeMillis();
+    List<String> toFill = new ArrayList<>();
+    for (String hash : hashes) {
+      Tile tile = tiles.getIfPresent(hash);
+      boolean current = tile != null && now - tile.fetchedAtMillis() < freshMillis;
+      if (!current && refreshing.add(hash)) toFill.add(hash);
+    }
+    inBackground(toFill, fetcher);
+  }
+
+  /** Queues a fetch of {@code hashes}, which the caller has added to {@code refreshing}. */
+  private void inBackground(List<String> hashes, BoxFetcher fetcher) {
+    if (hashes.isEmpty()) return;
+    try {
+      refresher.execute(() -> refresh(hashes, fetcher));
+    } catch (RejectedExecutionException e) {
+      refreshing.removeAll(hashes);
+    }
+  }
+
+  private void refresh(List<String> hashes, BoxFetcher fetcher) {
+    for (List<String> block : blocks(hashes)) {
+      long start = System.currentTimeMillis();
+      try {
+        fetchTiles(block, fetcher);
+        log.debug("Overpass tiles refreshed count={} duration={}ms", block.size(), System.currentTimeMillis() - start);
+      } catch (Exception e) {
+        log.warn("Overpass tile refresh failed tiles={} error={}", block.size(), e.getMessage());
+      } finally {
+        refreshing.removeAll(block);
+      }
+    }
+  }
+
+  /** Tiles in the smallest rectangle holding all of {@code hashes}, i.e. what one query over them covers. */
+  private long spanTiles(List<String> hashes) {
+    long minRow = Long.MAX_VALUE, maxRow = Long.MIN_VALUE, minCol = Long.MAX_VALUE, maxCol = Long.MIN_VALUE;
+    for (String hash : hashes) {
+      Cell cell = cell(hash);
+      minRow = Math.min(minRow, cell.row());
+      maxRow = Math.max(maxRow, cell.row());
+      minCol = Math.min(minCol, cell.col());
+      maxCol = Math.max(maxCol, cell.col());
+    }
+    return (maxRow - minRow + 1) * (maxCol - minCol + 1);
+  }
+
+  /**
+   * {@code hashes} as one block when they span at most {@code sync-max-tiles}
+   * tiles, else in square blocks of at most that many, counted from their
+   * south-west corner.
+   */
+  private Collection<List<String>> blocks(List<String> hashes) {
+    if (spanTiles(hashes) <= syncMaxTiles) return List.of(hashes);
+    int side = (int) Math.sqrt(syncMaxTiles);
+    long minRow = Long.MAX_VALUE, minCol = Long.MAX_VALUE;
+    for (String hash : hashes) {
+      Cell cell = cell(hash);
+      minRow = Math.min(minRow, cell.row());
+      minCol = Math.min(minCol, cell.col());
+    }
+    Map<Cell, List<String>> blocks = new LinkedHashMap<>();
+    for (String hash : hashes) {
+      Cell cell = cell(hash);
+      Cell block = new Cell((cell.row() - minRow) / side, (cell.col() - minCol) / side);
+      blocks.computeIfAbsent(block, k -> new ArrayList<>()).add(hash);
+    }
+    return blocks.values();
+  }
+
+  /** Grid row and column of a tile, counted from the south-west corner. */
+  private Cell cell(String hash) {
+    GeoMath.BoundingBox b = Geohash.bounds(hash);
+    return new Cell(
+      (long) Math.floor(((b.minLat() + b.maxLat()) / 2 + 90) / Geohash.cellLatDegrees(precision)),
+      (long) Math.floor(((b.minLng() + b.maxLng()) / 2 + 180) / Geohash.cellLngDegrees(precision)));
+  }
+
+  /** Fetches the union box of {@code hashes} in one query and stores each tile. */
+  private Map<String, Tile> fetchTiles(List<String> hashes, BoxFetcher fetcher) throws Exception {
+    double minLat = 90, maxLat = -90, minLng = 180, maxLng = -180;
+    Map<String, List<OverpassService.OverpassRestaurant>> buckets = new HashMap<>();
+    for (String hash : hashes) {
+      GeoMath.BoundingBox b = Geohash.bounds(hash);
+      minLat = Math.min(minLat, b.minLat());
+      maxLat = Math.max(maxLat, b.maxLat());
+      minLng = Math.min(minLng, b.minLng());
+      maxLng = Math.max(maxLng, b.maxLng());
+      buckets.put(hash, new ArrayList<>());
+    }
+
+    List<OverpassService.OverpassRestaurant> fetched = fetcher.fetch(new GeoMath.BoundingBox(minLat, maxLat, minLng, maxLng));
+    for (OverpassService.OverpassRestaurant r : fetched) {
+      List<OverpassService.OverpassRestaurant> bucket = buckets.get(Geohash.encode(r.latitude(), r.longitude(), precision));
+      if (bucket != null) bucket.add(r);
+    }
+
+    long now = System.currentTimeMillis();
+    Map<String, Tile> stored = new HashMap<>();
+    for (Map.Entry<String, List<OverpassService.OverpassRestaurant>> e : buckets.entrySet()) {
+      Tile tile = new Tile(List.copyOf(e.getValue()), now);
+      tiles.put(e.getKey(), tile);
+      stored.put(e.getKey(), tile);
+    }
+    return stored;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    refresher.shutdownNow();
+  }
+}
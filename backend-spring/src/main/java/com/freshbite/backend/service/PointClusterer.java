@@ -0,0 +1,166 @@
+package com.freshbite.backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hierarchical greedy point clustering for map markers (the Supercluster
+ * scheme), immutable once built.
+ * <p>
+ * Points are projected to Web Mercator [0, 1]². Level {@code maxZoom + 1}
+ * holds the raw points; each lower zoom is built from the one above by
+ * visiting its items in order and merging every not-yet-merged item within
+ * {@code radiusPx} screen pixels (at {@code extent} px per tile) into one
+ * cluster at their count-weighted centroid. Every level keeps a
+ * {@link KdBush}, so a viewport query is a single box search on one level.
+ */
+final class PointClusterer {
+
+  /**
+   * One marker: a single point ({@code point} ≥ 0, its index in the input)
+   * or a cluster of {@code count} points ({@code point} = -1).
+   */
+  record Cluster(double lat, double lng, int count, int point) {}
+
+  private static final class Level {
+    final double[] x;
+    final double[] y;
+    final int[] count;
+    final int[] point;
+    final int size;
+    final KdBush tree;
+
+    Level(double[] x, double[] y, int[] count, int[] point, int size) {
+      this.x = x;
+      this.y = y;
+      this.count = count;
+      this.point = point;
+      this.size = size;
+      this.tree = new KdBush(x, y, size);
+    }
+  }
+
+  private static final class IntList {
+    int[] values = new int[16];
+    int size;
+
+    void add(int v) {
+      if (size == values.length) values = Arrays.copyOf(values, size * 2);
+      values[size++] = v;
+    }
+  }
+
+  private final int maxZoom;
+  private final Level[] levels; // index = zoom, 0..maxZoom + 1
+
+  PointClusterer(double[] lats, double[] lngs, int n, int radiusPx, int extent, int maxZoom) {
+    this.maxZoom = maxZoom;
+    this.levels = new Level[maxZoom + 2];
+    double[] x = new double[n];
+    double[] y = new double[n];
+    int[] count = new int[n];
+    int[] point = new int[n];
+    for (int i = 0; i < n; i++) {
+      x[i] = lngX(lngs[i]);
+      y[i] = latY(lats[i]);
+      count[i] = 1;
+      point[i] = i;
+    }
+    levels[maxZoom + 1] = new Level(x, y, count, point, n);
+    for (int z = maxZoom; z >= 0; z--) {
+      levels[z] = cluster(levels[z + 1], radiusPx / (extent * Math.pow(2, z)));
+    }
+  }
+
+  int maxZoom() {
+    return maxZoom;
+  }
+
+  /**
+   * Markers inside the lat/lng box at {@code zoom} (clamped to
+   * 0..maxZoom + 1). {@code minLng > maxLng} means the box crosses the
+   * antimeridian.
+   */
+  List<Cluster> clusters(double minLat, double minLng, double maxLat, double maxLng, int zoom) {
+    Level level = levels[Math.min(Math.max(zoom, 0), maxZoom + 1)];
+    List<Cluster> out = new ArrayList<>();
+    double top = latY(maxLat);
+    double bottom = latY(minLat);
+    if (minLng > maxLng) {
+      level.tree.range(lngX(minLng), top, 1, bottom, i -> out.add(toCluster(level, i)));
+      level.tree.range(0, top, lngX(maxLng), bottom, i -> out.add(toCluster(level, i)));
+    } else {
+      level.tree.range(lngX(minLng), top, lngX(maxLng), bottom, i -> out.add(toCluster(level, i)));
+    }
+    return out;
+  }
+
+  private static Level cluster(Level prev, double r) {
+    int n = prev.size;
+    double[] x = new double[n];
+    double[] y = new double[n];
+    int[] count = new int[n];
+    int[] point = new int[n];
+    boolean[] merged = new boolean[n];
+    IntList neighbours = new IntList();
+    int size = 0;
+
+    for (int i = 0; i < n; i++) {
+      if (merged[i]) continue;
+      merged[i] = true;
+      neighbours.size = 0;
+      prev.tree.within(prev.x[i], prev.y[i], r, j -> {
+        if (!merged[j]) neighbours.add(j);
+      });
+
+      if (neighbours.size == 0) {
+        x[size] = prev.x[i];
+        y[size] = prev.y[i];
+        count[size] = prev.count[i];
+        point[size] = prev.point[i];
+        size++;
+        continue;
+      }
+      int total = prev.count[i];
+      double wx = prev.x[i] * total;
+      double wy = prev.y[i] * total;
+      for (int k = 0; k < neighbours.size; k++) {
+        int j = neighbours.values[k];
+        merged[j] = true;
+        wx += prev.x[j] * prev.count[j];
+        wy += prev.y[j] * prev.count[j];
+        total += prev.count[j];
+      }
+      x[size] = wx / total;
+      y[size] = wy / total;
+      count[size] = total;
+      point[size] = -1;
+      size++;
+    }
+    return new Level(
+      Arrays.copyOf(x, size), Arrays.copyOf(y, size), Arrays.copyOf(count, size), Arrays.copyOf(point, size), size);
+  }
+
+  private static Cluster toCluster(Level level, int i) {
+    return new Cluster(yLat(level.y[i]), xLng(level.x[i]), level.count[i], level.point[i]);
+  }
+
+  private static double lngX(double lng) {
+    return lng / 360 + 0.5;
+  }
+
+  private static double latY(double lat) {
+    double sin = Math.sin(Math.toRadians(lat));
+    double y = 0.5 - 0.25 * Math.log((1 + sin) / (1 - sin)) / Math.PI;
+    return Math.min(1, Math.max(0, y));
+  }
+
+  private static double xLng(double x) {
+    return (x - 0.5) * 360;
+  }
+
+  private static double yLat(double y) {
+    return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y))));
+  }
+}
@@ -0,0 +1,208 @@
+package com.freshbite.backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Radix (path-compressed) trie that answers "best K entries under this
+ * prefix" without walking the subtree.
+ * <p>
+ * Every node caches the top {@code k} entries of its subtree in
+ * {@code order}. Entries are only ever added and their weights only ever
+ * grow (review counts), so a cache can be maintained exactly by offering
+ * the touched entry to each node on its path — nothing can fall out of a
+ * subtree's top K except by being overtaken. A lookup is one descent of at
+ * most {@code prefix.length()} characters plus a copy of the cached array.
+ * <p>
+ * Weights live on the entries themselves; callers must change them only
+ * inside {@link #reweigh} so caches are re-sorted under the write lock.
+ */
+final class PrefixTrie<E> {
+  private final int k;
+  private final Comparator<E> order;
+  private final Node<E> root = new Node<>("");
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private int nodes = 1;
+
+  private static final class Node<E> {
+    String label;
+    char[] firsts = new char[0];
+    Node<E>[] children = newArray(0);
+    Object[] top = new Object[0];
+
+    Node(String label) {
+      this.label = label;
+    }
+
+    int indexOf(char c) {
+      return Arrays.binarySearch(firsts, c);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> Node<E>[] newArray(int n) {
+      return (Node<E>[]) new Node[n];
+    }
+  }
+
+  /**
+   * @param k     entries cached per node — the largest limit {@link #top} can serve
+   * @param order best first; must be consistent while weights are unchanged
+   */
+  PrefixTrie(int k, Comparator<E> order) {
+    this.k = k;
+    this.order = order;
+  }
+
+  /**
+   * Adds {@code entry} under {@code key} (already normalized). The same entry
+   * may be inserted under several keys, e.g. once per word of its name.
+   */
+  void insert(String key, E entry) {
+    if (key.isEmpty()) return;
+    lock.writeLock().lock();
+    try {
+      Node<E> node = root;
+      offer(node, entry);
+      int i = 0;
+      while (i < key.length()) {
+        int at = node.indexOf(key.charAt(i));
+        if (at < 0) {
+          Node<E> leaf = new Node<>(key.substring(i));
+          offer(leaf, entry);
+          addChild(node, -(at + 1), leaf);
+          return;
+        }
+        Node<E> child = node.children[at];
+        int common = commonPrefix(child.label, key, i);
+        if (common < child.label.length()) {
+          // Split the edge: node -> mid(label[0..common]) -> child(label[common..])
+          Node<E> mid = new Node<>(child.label.substring(0, common));
+          child.label = child.label.substring(common);
+          mid.firsts = new char[] {child.label.charAt(0)};
+          mid.children = Node.newArray(1);
+          mid.children[0] = child;
+          mid.top = child.top.clone();
+          node.children[at] = mid;
+          nodes++;
+          child = mid;
+        }
+        offer(child, entry);
+        i += common;
+        node = child;
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Runs {@code mutation} (which may only increase the weight of
+   * {@code entry}) and then refreshes the caches along each of its keys.
+   */
+  void reweigh(E entry, Runnable mutation, List<String> keys) {
+    lock.writeLock().lock();
+    try {
+      mutation.run();
+      offer(root, entry);
+      for (String key : keys) {
+        Node<E> node = root;
+        int i = 0;
+        while (i < key.length()) {
+          int at = node.indexOf(key.charAt(i));
+          if (at < 0) break;
+          node = node.children[at];
+          offer(node, entry);
+          i += node.label.length();
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Best {@code limit} (at most k) entries with a key starting with {@code prefix}.
+   */
+  @SuppressWarnings("unchecked")
+  List<E> top(String prefix, int limit) {
+    lock.readLock().lock();
+    try {
+      Node<E> node = root;
+      int i = 0;
+      while (i < prefix.length()) {
+        int at = node.indexOf(prefix.charAt(i));
+        if (at < 0) return List.of();
+        node = node.children[at];
+        int common = commonPrefix(node.label, prefix, i);
+        // The prefix must either consume the whole edge or end inside it
+        if (common < node.label.length() && i + common < prefix.length()) return List.of();
+        i += common;
+      }
+      int n = Math.min(limit, node.top.length);
+      List<E> result = new ArrayList<>(n);
+      for (int j = 0; j < n; j++) result.add((E) node.top[j]);
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  int nodeCount() {
+    lock.readLock().lock();
+    try {
+      return nodes;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Places or re-positions {@code entry} in the node's sorted top-K cache. */
+  @SuppressWarnings("unchecked")
+  private void offer(Node<E> node, E entry) {
+    Object[] top = node.top;
+    int present = -1;
+    for (int j = 0; j < top.length; j++) {
+      if (top[j] == entry) {
+        present = j;
+        break;
+      }
+    }
+    if (present < 0 && top.length == k && order.compare(entry, (E) top[k - 1]) >= 0) return;
+
+    List<E> merged = new ArrayList<>(Math.min(top.length + 1, k));
+    for (Object o : top) {
+      if (o != entry) merged.add((E) o);
+    }
+    int pos = 0;
+    while (pos < merged.size() && order.compare((E) merged.get(pos), entry) <= 0) pos++;
+    merged.add(pos, entry);
+    if (merged.size() > k) merged.remove(merged.size() - 1);
+    node.top = merged.toArray();
+  }
+
+  private void addChild(Node<E> node, int insertAt, Node<E> child) {
+    int n = node.firsts.length;
+    char[] firsts = new char[n + 1];
+    Node<E>[] children = Node.newArray(n + 1);
+    System.arraycopy(node.firsts, 0, firsts, 0, insertAt);
+    System.arraycopy(node.children, 0, children, 0, insertAt);
+    firsts[insertAt] = child.label.charAt(0);
+    children[insertAt] = child;
+    System.arraycopy(node.firsts, insertAt, firsts, insertAt + 1, n - insertAt);
+    System.arraycopy(node.children, insertAt, children, insertAt + 1, n - insertAt);
+    node.firsts = firsts;
+    node.children = children;
+    nodes++;
+  }
+
+  private static int commonPrefix(String label, String key, int from) {
+    int max = Math.min(label.length(), key.length() - from);
+    int j = 0;
+    while (j < max && label.charAt(j) == key.charAt(from + j)) j++;
+    return j;
+  }
+}
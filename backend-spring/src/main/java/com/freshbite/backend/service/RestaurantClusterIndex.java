@@ -0,0 +1,146 @@
+package com.freshbite.backend.service;
+
+import com.freshbite.backend.domain.Restaurant;
+import com.freshbite.backend.dto.MapClusterResponse;
+import com.freshbite.backend.event.RestaurantCreatedEvent;
+import com.freshbite.backend.repository.RestaurantRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Marker clusters over every FreshBite restaurant with coordinates, for
+ * {@code GET /api/clusters}.
+ * <p>
+ * Holds one {@link PointClusterer} per snapshot of the table. The hierarchy
+ * cannot take inserts, so a {@link RestaurantCreatedEvent} schedules a full
+ * rebuild on the background thread instead (requests arriving while one is
+ * pending collapse into it); reads keep using the previous snapshot until
+ * the new one is swapped in. A periodic rebuild picks up rows written by the
+ * Next.js API routes.
+ */
+@Component
+public class RestaurantClusterIndex {
+  private static final Logger log = LoggerFactory.getLogger(RestaurantClusterIndex.class);
+
+  private record Snapshot(PointClusterer clusterer, String[] ids, String[] names) {}
+
+  private final RestaurantRepository restaurantRepository;
+  private final boolean enabled;
+  private final int radiusPx;
+  private final int extent;
+  private final int maxZoom;
+  private final long rebuildMinutes;
+  private final AtomicBoolean rebuildPending = new AtomicBoolean();
+  private volatile Snapshot current;
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread t = new Thread(r, "cluster-index-rebuild");
+    t.setDaemon(true);
+    return t;
+  });
+
+  public RestaurantClusterIndex(
+    RestaurantRepository restaurantRepository,
+    @Value("${app.map.clusters.enabled:true}") boolean enabled,
+    @Value("${app.map.clusters.radius-px:40}") int radiusPx,
+    @Value("${app.map.clusters.extent:512}") int extent,
+    @Value("${app.map.clusters.max-zoom:16}") int maxZoom,
+    @Value("${app.search.index.rebuild-minutes:10}") long rebuildMinutes
+  ) {
+    this.restaurantRepository = restaurantRepository;
+    this.enabled = enabled;
+    this.radiusPx = radiusPx;
+    this.extent = extent;
+    this.maxZoom = maxZoom;
+    this.rebuildMinutes = rebuildMinutes;
+  }
+
+  @PostConstruct
+  public void load() {
+    if (!enabled) {
+      log.info("RestaurantClusterIndex disabled");
+      return;
+    }
+    rebuild();
+    if (rebuildMinutes > 0) {
+      scheduler.scheduleWithFixedDelay(this::rebuild, rebuildMinutes, rebuildMinutes, TimeUnit.MINUTES);
+    }
+  }
+
+  public boolean isReady() {
+    return current != null;
+  }
+
+  /**
+   * Markers for the viewport at map zoom {@code zoom}; {@code minLng > maxLng}
+   * means the viewport crosses the antimeridian. Requires {@link #isReady()}.
+   */
+  public List<MapClusterResponse> clusters(double minLat, double minLng, double maxLat, double maxLng, int zoom) {
+    Snapshot snapshot = current;
+    List<PointClusterer.Cluster> clusters = snapshot.clusterer().clusters(minLat, minLng, maxLat, maxLng, zoom);
+    List<MapClusterResponse> out = new ArrayList<>(clusters.size());
+    for (PointClusterer.Cluster c : clusters) {
+      boolean single = c.point() >= 0;
+      out.add(new MapClusterResponse(
+        c.lat(), c.lng(), c.count(),
+        single ? snapshot.ids()[c.point()] : null,
+        single ? snapshot.names()[c.point()] : null
+      ));
+    }
+    return out;
+  }
+
+  @EventListener
+  public void onRestaurantCreated(RestaurantCreatedEvent event) {
+    if (!enabled || event.restaurant().getLatitude() == null || event.restaurant().getLongitude() == null) return;
+    if (rebuildPending.compareAndSet(false, true)) {
+      scheduler.execute(this::rebuild);
+    }
+  }
+
+  private void rebuild() {
+    rebuildPending.set(false);
+    long start = System.currentTimeMillis();
+    try {
+      List<Restaurant> all = restaurantRepository.findAll();
+      double[] lats = new double[all.size()];
+      double[] lngs = new double[all.size()];
+      String[] ids = new String[all.size()];
+      String[] names = new String[all.size()];
+      int n = 0;
+      for (Restaurant r : all) {
+        if (r.getLatitude() == null || r.getLongitude() == null) continue;
+        lats[n] = r.getLatitude();
+        lngs[n] = r.getLongitude();
+        ids[n] = r.getId();
+        names[n] = r.getName();
+        n++;
+      }
+      current = new Snapshot(
+        new PointClusterer(lats, lngs, n, radiusPx, extent, maxZoom),
+        Arrays.copyOf(ids, n), Arrays.copyOf(names, n)
+      );
+      log.info("RestaurantClusterIndex rebuilt points={} zooms=0..{} duration={}ms",
+        n, maxZoom + 1, System.currentTimeMillis() - start);
+    } catch (Exception e) {
+      log.error("RestaurantClusterIndex rebuild FAILED error={}", e.getMessage(), e);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+}
@@ -0,0 +1,193 @@
+package com.freshbite.backend.service;
+
+import com.freshbite.backend.domain.Restaurant;
+import com.freshbite.backend.dto.RestaurantSearchResponse;
+import com.freshbite.backend.event.RestaurantCreatedEvent;
+import com.freshbite.backend.repository.RestaurantRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * In-memory spatial index over restaurants with coordinates
+ * ({@code app.search.geo-index.enabled}), serving nearest-N and radius
+ * queries for {@code /api/restaurants/search?lat=&lng=}.
+ * <p>
+ * The optional text filter has the same semantics as
+ * {@code RestaurantRepository.searchNearby}: a case-insensitive substring of
+ * name, city, address, country or state. Kept current like
+ * {@link CatalogSearchIndex}: loaded before traffic, updated from
+ * {@link RestaurantCreatedEvent}, fully rebuilt every {@code rebuild-minutes}
+ * with events received mid-rebuild replayed into the new grid.
+ */
+@Component
+public class RestaurantGeoIndex {
+  private static final Logger log = LoggerFactory.getLogger(RestaurantGeoIndex.class);
+
+  private record Place(RestaurantSearchResponse restaurant, String[] fields) {}
+
+  private static final class Generation {
+    final GeoGrid<Place> grid;
+    final Set<String> ids = new HashSet<>();
+
+    Generation(double cellDegrees) {
+      this.grid = new GeoGrid<>(cellDegrees);
+    }
+
+    void add(Restaurant r) {
+      if (r.getLatitude() == null || r.getLongitude() == null || !ids.add(r.getId())) return;
+      RestaurantSearchResponse doc = new RestaurantSearchResponse(
+        r.getId(), r.getName(), r.getAddress(), r.getCity(), r.getState(), r.getCountry(),
+        r.getLatitude(), r.getLongitude(), null, r.getCreatedAt()
+      );
+      grid.add(new Place(doc, lower(r.getName(), r.getCity(), r.getAddress(), r.getCountry(), r.getState())),
+        r.getLatitude(), r.getLongitude());
+    }
+  }
+
+  private final RestaurantRepository restaurantRepository;
+  private final boolean enabled;
+  private final double cellDegrees;
+  private final long rebuildMinutes;
+  private final Object writeLock = new Object();
+  private final List<Restaurant> addedDuringRebuild = new ArrayList<>();
+  private volatile Generation current;
+  private boolean rebuilding;
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread t = new Thread(r, "geo-index-rebuild");
+    t.setDaemon(true);
+    return t;
+  });
+
+  public RestaurantGeoIndex(
+    RestaurantRepository restaurantRepository,
+    @Value("${app.search.geo-index.enabled:true}") boolean enabled,
+    @Value("${app.search.geo-index.cell-degrees:0.05}") double cellDegrees,
+    @Value("${app.search.index.rebuild-minutes:10}") long rebuildMinutes
+  ) {
+    this.restaurantRepository = restaurantRepository;
+    this.enabled = enabled;
+    this.cellDegrees = cellDegrees;
+    this.rebuildMinutes = rebuildMinutes;
+  }
+
+  @PostConstruct
+  public void load() {
+    if (!enabled) {
+      log.info("RestaurantGeoIndex disabled — proximity search uses the query path");
+      return;
+    }
+    rebuild();
+    if (rebuildMinutes > 0) {
+      scheduler.scheduleWithFixedDelay(this::rebuild, rebuildMinutes, rebuildMinutes, TimeUnit.MINUTES);
+    }
+  }
+
+  public boolean isReady() {
+    return current != null;
+  }
+
+  /**
+   * The {@code limit} restaurants nearest to (lat, lng) matching {@code query}.
+   * Requires {@link #isReady()}.
+   */
+  public List<RestaurantSearchResponse> nearest(String query, double lat, double lng, int limit) {
+    return toResponses(current.grid.nearest(lat, lng, limit, matching(query)));
+  }
+
+  /**
+   * Restaurants within {@code radiusKm} of (lat, lng) matching {@code query},
+   * nearest first, at most {@code limit}. Requires {@link #isReady()}.
+   */
+  public List<RestaurantSearchResponse> withinRadius(String query, double lat, double lng, double radiusKm, int limit) {
+    return toResponses(current.grid.withinRadius(lat, lng, radiusKm, limit, matching(query)));
+  }
+
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void onRestaurantCreated(RestaurantCreatedEvent event) {
+    if (!enabled) return;
+    synchronized (writeLock) {
+      Generation gen = current;
+      if (gen != null) gen.add(event.restaurant());
+      if (rebuilding) addedDuringRebuild.add(event.restaurant());
+    }
+  }
+
+  private void rebuild() {
+    synchronized (writeLock) {
+      rebuilding = true;
+      addedDuringRebuild.clear();
+    }
+    long start = System.currentTimeMillis();
+    try {
+      Generation fresh = new Generation(cellDegrees);
+      for (Restaurant r : restaurantRepository.findAll()) fresh.add(r);
+      synchronized (writeLock) {
+        for (Restaurant r : addedDuringRebuild) fresh.add(r);
+        current = fresh;
+      }
+      log.info("RestaurantGeoIndex rebuilt points={} duration={}ms",
+        fresh.grid.size(), System.currentTimeMillis() - start);
+    } catch (Exception e) {
+      log.error("RestaurantGeoIndex rebuild FAILED error={}", e.getMessage(), e);
+    } finally {
+      synchronized (writeLock) {
+        rebuilding = false;
+        addedDuringRebuild.clear();
+      }
+    }
+  }
+
+  private static Predicate<Place> matching(String query) {
+    String q = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+    if (q.isEmpty()) return p -> true;
+    return p -> {
+      for (String f : p.fields()) {
+        if (f.contains(q)) return true;
+      }
+      return false;
+    };
+  }
+
+  private static List<RestaurantSearchResponse> toResponses(List<GeoGrid.Hit<Place>> hits) {
+    List<RestaurantSearchResponse> out = new ArrayList<>(hits.size());
+    for (GeoGrid.Hit<Place> h : hits) {
+      RestaurantSearchResponse r = h.point().restaurant();
+      out.add(new RestaurantSearchResponse(
+        r.id(), r.name(), r.address(), r.city(), r.state(), r.country(),
+        r.latitude(), r.longitude(), Math.round(h.distanceKm() * 100.0) / 100.0, r.createdAt()
+      ));
+    }
+    return out;
+  }
+
+  private static String[] lower(String... fields) {
+    String[] out = new String[fields.length];
+    for (int i = 0; i < fields.length; i++) {
+      out[i] = fields[i] == null ? "" : fields[i].toLowerCase(Locale.ROOT);
+    }
+    return out;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+}
@@ -0,0 +1,258 @@
+package com.freshbite.backend.service;
+
+import com.freshbite.backend.dto.TimeWindow;
+import com.freshbite.backend.repository.ReviewRepository;
+import com.freshbite.backend.repository.ReviewAggregate;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory sliding-window rating aggregates per DishAtRestaurant.
+ * <p>
+ * Each dish keeps a ring of hour buckets (review count + rating sum) wide enough
+ * for the largest {@link TimeWindow}, so 24h/48h/5d stats are answered in
+ * O(buckets). The hour containing the cutoff is only partly inside the window:
+ * when its bucket is non-empty, that slice is counted exactly with one indexed
+ * query, so totals match the query path's {@code createdAt > cutoff}.
+ * <p>
+ * Reviews are recorded once their row is in the database (by
+ * {@code DishService.createReview}, or the ReviewIngestBuffer flusher). Reviews
+ * written by other processes (e.g. the Next.js API routes) are picked up by a
+ * full rebuild every {@code rebuild-minutes}, which bounds how stale a summary
+ * can be; reviews recorded while a rebuild is loading are replayed into the
+ * fresh snapshot unless it already holds their id.
+ */
+@Component
+public class ReviewAggregateStore {
+  private static final Logger log = LoggerFactory.getLogger(ReviewAggregateStore.class);
+  private static final long HOUR_SECONDS = Duration.ofHours(1).getSeconds();
+  // 5 days of full hours plus the partial current hour
+  static final int BUCKETS = (int) (Duration.ofDays(5).getSeconds() / HOUR_SECONDS) + 1;
+
+  private final ReviewRepository reviewRepository;
+  private final boolean enabled;
+  private final long rebuildMinutes;
+  private final Object writeLock = new Object();
+  private final List<Recorded> recordedDuringRebuild = new ArrayList<>();
+  private volatile Map<String, HourlyBuckets> byDish = new ConcurrentHashMap<>();
+  private volatile boolean ready;
+  private boolean rebuilding;
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread t = new Thread(r, "review-aggregates-rebuild");
+    t.setDaemon(true);
+    return t;
+  });
+
+  public ReviewAggregateStore(
+    ReviewRepository reviewRepository,
+    @Value("${app.review-aggregates.enabled:true}") boolean enabled,
+    @Value("${app.review-aggregates.rebuild-minutes:10}") long rebuildMinutes
+  ) {
+    this.reviewRepository = reviewRepository;
+    this.enabled = enabled;
+    this.rebuildMinutes = rebuildMinutes;
+  }
+
+  public record Totals(long reviewCount, long ratingSum) {}
+
+  private record Recorded(String reviewId, String dishAtRestaurantId, int rating, Instant createdAt) {}
+
+  @PostConstruct
+  public void load() {
+    if (!enabled) {
+      log.info("ReviewAggregateStore disabled — summaries use the query path");
+      return;
+    }
+    rebuild();
+    if (rebuildMinutes > 0) {
+      scheduler.scheduleWithFixedDelay(this::rebuild, rebuildMinutes, rebuildMinutes, TimeUnit.MINUTES);
+    }
+  }
+
+  /** Loads the last 5 days of ratings and swaps them in. */
+  void rebuild() {
+    synchronized (writeLock) {
+      rebuilding = true;
+      recordedDuringRebuild.clear();
+    }
+    long start = System.currentTimeMillis();
+    try {
+      Instant cutoff = Instant.now().minus(Duration.ofDays(5)).minus(Duration.ofHours(1));
+      List<Object[]> rows = reviewRepository.findRatingsCreatedAfter(cutoff);
+
+      Map<String, HourlyBuckets> fresh = new ConcurrentHashMap<>();
+      Set<String> loadedIds = new HashSet<>(rows.size() * 2);
+      for (Object[] row : rows) {
+        loadedIds.add((String) row[0]);
+        String dishAtRestaurantId = (String) row[1];
+        int rating = ((Number) row[2]).intValue();
+        Instant createdAt = (Instant) row[3];
+        fresh.computeIfAbsent(dishAtRestaurantId, id -> new HourlyBuckets())
+          .add(epochHour(createdAt), rating);
+      }
+
+      synchronized (writeLock) {
+        // Committed after the snapshot was read, or read by it: the id tells which
+        for (Recorded r : recordedDuringRebuild) {
+          if (!loadedIds.contains(r.reviewId())) addTo(fresh, r);
+        }
+        byDish = fresh;
+        ready = true;
+      }
+      log.info("ReviewAggregateStore rebuilt dishes={} reviews={} duration={}ms",
+        fresh.size(), rows.size(), System.currentTimeMillis() - start);
+    } catch (Exception e) {
+      log.error("ReviewAggregateStore rebuild FAILED error={}{}", e.getMessage(),
+        ready ? " — keeping the previous snapshot" : " — falling back to query path", e);
+    } finally {
+      synchronized (writeLock) {
+        rebuilding = false;
+        recordedDuringRebuild.clear();
+      }
+    }
+  }
+
+  /** Adds a review whose row is already committed to the Review table. */
+  public void record(String reviewId, String dishAtRestaurantId, int rating, Instant createdAt) {
+    Recorded r = new Recorded(reviewId, dishAtRestaurantId, rating, createdAt != null ? createdAt : Instant.now());
+    synchronized (writeLock) {
+      if (ready) addTo(byDish, r);
+      if (rebuilding) recordedDuringRebuild.add(r);
+    }
+  }
+
+  /**
+   * Totals for the window ending at {@code now}, or empty when the store has
+   * nothing for this id (not rebuilt, disabled, or no reviews in the last 5 days).
+   */
+  public Optional<Totals> totals(String dishAtRestaurantId, TimeWindow window, Instant now) {
+    if (!ready) return Optional.empty();
+    HourlyBuckets buckets = byDish.get(dishAtRestaurantId);
+    if (buckets == null) return Optional.empty();
+
+    Instant cutoff = window.cutoff(now);
+    long cutoffHour = epochHour(cutoff);
+    Totals whole = buckets.sum(cutoffHour + 1, epochHour(now));
+    if (buckets.count(cutoffHour) == 0) return Optional.of(whole);
+
+    ReviewAggregate edge = reviewRepository.aggregateBetween(dishAtRestaurantId,
+      ReviewRepository.firstInstantAfter(cutoff), Instant.ofEpochSecond((cutoffHour + 1) * HOUR_SECONDS));
+    return Optional.of(new Totals(
+      whole.reviewCount() + edge.getReviewCount(), whole.ratingSum() + edge.getRatingSum()));
+  }
+
+  /**
+   * Totals over the whole hours after the one holding the window's cutoff,
+   * from the buckets alone: never touches the database, and never counts a
+   * review older than the window, but may miss up to an hour at its far end.
+   * Empty under the same conditions as {@link #totals}.
+   */
+  public Optional<Totals> hourlyTotals(String dishAtRestaurantId, TimeWindow window, Instant now) {
+    if (!ready) return Optional.empty();
+    HourlyBuckets buckets = byDish.get(dishAtRestaurantId);
+    if (buckets == null) return Optional.empty();
+    return Optional.of(buckets.sum(epochHour(window.cutoff(now)) + 1, epochHour(now)));
+  }
+
+  /**
+   * Review count per dish from {@code hourStart} on, or empty when the store
+   * cannot answer exactly: disabled, not rebuilt yet, or {@code hourStart} is
+   * not an hour boundary still inside the ring.
+   */
+  public Optional<Map<String, Long>> countsSince(Instant hourStart, Instant now) {
+    long fromHour = epochHour(hourStart);
+    boolean aligned = hourStart.getNano() == 0 && hourStart.getEpochSecond() % HOUR_SECONDS == 0;
+    if (!ready || !aligned || fromHour <= epochHour(now) - (BUCKETS - 1)) return Optional.empty();
+    Map<String, Long> counts = new HashMap<>();
+    byDish.forEach((id, buckets) -> {
+      long count = buckets.sum(fromHour, Long.MAX_VALUE).reviewCount();
+      if (count > 0) counts.put(id, count);
+    });
+    return Optional.of(counts);
+  }
+
+  /**
+   * Ids of dishes with at least one review in the last 5 days (live view).
+   */
+  public Set<String> dishIds() {
+    return ready ? byDish.keySet() : Set.of();
+  }
+
+  private static void addTo(Map<String, HourlyBuckets> byDish, Recorded r) {
+    byDish.computeIfAbsent(r.dishAtRestaurantId(), id -> new HourlyBuckets())
+      .add(epochHour(r.createdAt()), r.rating());
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+
+  private static long epochHour(Instant instant) {
+    return Math.floorDiv(instant.getEpochSecond(), HOUR_SECONDS);
+  }
+
+  /**
+   * Fixed ring of hour buckets. Each slot remembers which epoch hour it holds,
+   * so slots left over from a previous lap are skipped or reset lazily.
+   */
+  static final class HourlyBuckets {
+    private final long[] hours = new long[BUCKETS];
+    private final int[] counts = new int[BUCKETS];
+    private final long[] sums = new long[BUCKETS];
+
+    HourlyBuckets() {
+      Arrays.fill(hours, Long.MIN_VALUE);
+    }
+
+    synchronized void add(long hour, int rating) {
+      int slot = (int) Math.floorMod(hour, (long) BUCKETS);
+      if (hours[slot] != hour) {
+        // Never let a late write for an expired hour clobber a newer slot
+        if (hours[slot] > hour) return;
+        hours[slot] = hour;
+        counts[slot] = 0;
+        sums[slot] = 0;
+      }
+      counts[slot]++;
+      sums[slot] += rating;
+    }
+
+    synchronized int count(long hour) {
+      int slot = (int) Math.floorMod(hour, (long) BUCKETS);
+      return hours[slot] == hour ? counts[slot] : 0;
+    }
+
+    synchronized Totals sum(long fromHour, long toHour) {
+      long count = 0;
+      long sum = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        long h = hours[i];
+        if (h >= fromHour && h <= toHour) {
+          count += counts[i];
+          sum += sums[i];
+        }
+      }
+      return new Totals(count, sum);
+    }
+  }
+}
@@ -0,0 +1,450 @@
+package com.freshbite.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.freshbite.backend.event.ReviewCreatedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind review ingestion ({@code app.reviews.ingest.mode=buffered}).
+ * <p>
+ * {@link #enqueue} takes one of {@code capacity} slots, appends the review to a
+ * local spool file and waits until it is durable, then queues it and returns
+ * so the request can be acknowledged. Durability is a group commit: the spool
+ * lock only covers the append, and one waiter fsyncs on behalf of every line
+ * written before it, so concurrent requests share a single force(). A single
+ * flusher thread drains the queue into multi-row inserts once
+ * {@code flush-size} reviews are waiting or {@code flush-latency-ms} has
+ * passed, then frees their slots. After every flush the spool is rewritten
+ * (and fsynced) to hold only what is still pending, so it never grows past
+ * {@code capacity}. On startup spooled reviews are handed to the flusher; the
+ * database is never written from startup itself, so an outage cannot hang it.
+ * Each batch is one multi-row {@code INSERT ... ON CONFLICT (id) DO NOTHING
+ * RETURNING id}, so a replay after a crash mid-flush cannot duplicate rows, and
+ * only the rows actually inserted are recorded in the ReviewAggregateStore and
+ * announced as ReviewCreatedEvents.
+ * <p>
+ * A row the database rejects for good (see {@link #insertWithRetry}) is logged
+ * and dropped instead of stalling the flusher.
+ * <p>
+ * Until a review is flushed it is visible through {@link #pendingFor}, which
+ * DishService merges into the submitter's next review list and summary.
+ */
+@Component
+public class ReviewIngestBuffer {
+  private static final Logger log = LoggerFactory.getLogger(ReviewIngestBuffer.class);
+  private static final String INSERT_SQL = """
+    INSERT INTO "Review" (id, "dishAtRestaurantId", rating, text, "createdAt", "visitedAt")
+    VALUES %s
+    ON CONFLICT (id) DO NOTHING
+    RETURNING id
+    """;
+
+  public record PendingReview(
+    String id,
+    String dishAtRestaurantId,
+    int rating,
+    String text,
+    Instant createdAt,
+    Instant visitedAt
+  ) {}
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate tx;
+  private final ObjectMapper objectMapper;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ReviewAggregateStore reviewAggregateStore;
+  private final boolean enabled;
+  private final int flushSize;
+  private final long flushLatencyMs;
+  private final long offerTimeoutMs;
+  private final boolean fsync;
+  private final Path spoolFile;
+  private final int capacity;
+
+  private final BlockingQueue<PendingReview> queue = new LinkedBlockingQueue<>();
+  private final Map<String, PendingReview> pending = new ConcurrentHashMap<>();
+  // Locks rather than synchronized: enqueue runs on virtual threads and must not pin the carrier during I/O
+  private final Lock spoolLock = new ReentrantLock();
+  private final Lock syncLock = new ReentrantLock();
+  private final Condition syncDone = syncLock.newCondition();
+  private volatile Semaphore slots;
+  private FileOutputStream spoolOut;
+  private long writtenSeq; // guarded by spoolLock: lines appended so far
+  private long syncedSeq; // guarded by syncLock: lines known durable
+  private boolean syncing; // guarded by syncLock
+  private Thread flusher;
+  private volatile boolean running;
+
+  public ReviewIngestBuffer(
+    JdbcTemplate jdbcTemplate,
+    PlatformTransactionManager transactionManager,
+    ObjectMapper objectMapper,
+    ApplicationEventPublisher eventPublisher,
+    ReviewAggregateStore reviewAggregateStore,
+    @Value("${app.reviews.ingest.mode:direct}") String mode,
+    @Value("${app.reviews.ingest.capacity:1000}") int capacity,
+    @Value("${app.reviews.ingest.flush-size:100}") int flushSize,
+    @Value("${app.reviews.ingest.flush-latency-ms:200}") long flushLatencyMs,
+    @Value("${app.reviews.ingest.offer-timeout-ms:100}") long offerTimeoutMs,
+    @Value("${app.reviews.ingest.spool-fsync:true}") boolean fsync,
+    @Value("${app.reviews.ingest.spool-file:./data/review-spool.ndjson}") String spoolFile
+  ) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.tx = new TransactionTemplate(transactionManager);
+    this.objectMapper = objectMapper;
+    this.eventPublisher = eventPublisher;
+    this.reviewAggregateStore = reviewAggregateStore;
+    this.enabled = "buffered".equalsIgnoreCase(mode);
+    this.flushSize = flushSize;
+    this.flushLatencyMs = flushLatencyMs;
+    this.offerTimeoutMs = offerTimeoutMs;
+    this.fsync = fsync;
+    this.spoolFile = Path.of(spoolFile);
+    this.capacity = capacity;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @PostConstruct
+  public void start() throws IOException {
+    if (!enabled) return;
+    Files.createDirectories(spoolFile.toAbsolutePath().getParent());
+    int replayed = replaySpool();
+    // Negative when a lowered capacity left more spooled than fits; new reviews wait for the backlog
+    slots = new Semaphore(capacity - replayed);
+    spoolOut = new FileOutputStream(spoolFile.toFile(), true);
+    running = true;
+    flusher = new Thread(this::flushLoop, "review-ingest-flusher");
+    flusher.setDaemon(true);
+    flusher.start();
+    log.info("ReviewIngestBuffer started capacity={} flushSize={} flushLatencyMs={} spool={}",
+      capacity, flushSize, flushLatencyMs, spoolFile);
+  }
+
+  /**
+   * Spools and queues a review. Returns false when the buffer stayed full for
+   * {@code offer-timeout-ms}; the caller should shed load (503) rather than block.
+   */
+  public boolean enqueue(PendingReview review) throws IOException, InterruptedException {
+    if (!slots.tryAcquire(offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+      return false;
+    }
+    byte[] line = objectMapper.writeValueAsBytes(review);
+    // Pending before the append, so a compaction racing with us keeps this review
+    pending.put(review.id(), review);
+    try {
+      long seq;
+      spoolLock.lockInterruptibly();
+      try {
+        spoolOut.write(line);
+        spoolOut.write('\n');
+        seq = ++writtenSeq;
+      } finally {
+        spoolLock.unlock();
+      }
+      if (fsync) awaitDurable(seq);
+    } catch (IOException | InterruptedException | RuntimeException e) {
+      // Not acknowledged; the next compaction drops the line if it was written
+      pending.remove(review.id());
+      slots.release();
+      throw e;
+    }
+    queue.add(review);
+    return true;
+  }
+
+  /**
+   * Returns once spool line {@code seq} is on disk. The first waiter to find no
+   * sync in progress forces the file for every line appended so far; the others
+   * wait for it, so one force() covers a whole burst of requests.
+   */
+  private void awaitDurable(long seq) throws IOException, InterruptedException {
+    syncLock.lockInterruptibly();
+    try {
+      while (syncedSeq < seq) {
+        if (syncing) {
+          syncDone.await();
+          continue;
+        }
+        syncing = true;
+        long target = 0;
+        IOException failure = null;
+        syncLock.unlock();
+        try {
+          FileChannel channel;
+          spoolLock.lock();
+          try {
+            target = writtenSeq;
+            channel = spoolOut.getChannel();
+          } finally {
+            spoolLock.unlock();
+          }
+          channel.force(false);
+        } catch (IOException e) {
+          failure = e;
+        } finally {
+          syncLock.lock();
+          syncing = false;
+          syncDone.signalAll();
+        }
+        // A compaction may have closed the channel after making these lines durable itself
+        if (failure != null && syncedSeq < seq) throw failure;
+        syncedSeq = Math.max(syncedSeq, target);
+      }
+    } finally {
+      syncLock.unlock();
+    }
+  }
+
+  /**
+   * Reviews for this dish that are acknowledged but not yet in the database, newest first.
+   */
+  public List<PendingReview> pendingFor(String dishAtRestaurantId) {
+    if (pending.isEmpty()) return List.of();
+    return pending.values().stream()
+      .filter(r -> r.dishAtRestaurantId().equals(dishAtRestaurantId))
+      .sorted(Comparator.comparing(PendingReview::createdAt).reversed())
+      .toList();
+  }
+
+  private void flushLoop() {
+    List<PendingReview> batch = new ArrayList<>(flushSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        PendingReview first = queue.poll(flushLatencyMs, TimeUnit.MILLISECONDS);
+        if (first == null) continue;
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushLatencyMs);
+        while (batch.size() < flushSize) {
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0) break;
+          PendingReview next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next == null) break;
+          batch.add(next);
+        }
+        flushWithRetry(batch);
+        batch.clear();
+        if (Thread.currentThread().isInterrupted()) return;
+      } catch (InterruptedException e) {
+        return; // stop() gave up waiting; the spool keeps the rest for the next start
+      }
+    }
+  }
+
+  private void flushWithRetry(List<PendingReview> batch) {
+    Set<String> inserted = insertWithRetry(batch);
+    if (inserted == null) return; // interrupted; the spool still holds the batch
+    for (PendingReview r : batch) {
+      pending.remove(r.id());
+      if (!inserted.contains(r.id())) continue; // written before a crash, already counted
+      reviewAggregateStore.record(r.id(), r.dishAtRestaurantId(), r.rating(), r.createdAt());
+      eventPublisher.publishEvent(new ReviewCreatedEvent(r.dishAtRestaurantId(), r.id(), r.rating(), r.createdAt()));
+    }
+    slots.release(batch.size());
+    compactSpool();
+  }
+
+  /**
+   * Ids of the rows this call inserted, or null when interrupted. Errors such
+   * as a lost connection are retried with backoff until the database is back.
+   * A data integrity violation (a dish deleted through the Next.js routes, a
+   * check or length violation) would fail every retry, so the batch is split
+   * into single-row inserts and the rows that still violate are logged and
+   * dropped; the next compaction removes them from the spool.
+   */
+  private Set<String> insertWithRetry(List<PendingReview> batch) {
+    String sql = INSERT_SQL.formatted(String.join(", ", Collections.nCopies(batch.size(), "(?, ?, ?, ?, ?, ?)")));
+    Object[] args = new Object[batch.size() * 6];
+    int i = 0;
+    for (PendingReview r : batch) {
+      args[i++] = r.id();
+      args[i++] = r.dishAtRestaurantId();
+      args[i++] = r.rating();
+      args[i++] = r.text();
+      args[i++] = Timestamp.from(r.createdAt()); // as Hibernate binds Review's Instant columns
+      args[i++] = r.visitedAt() != null ? Timestamp.from(r.visitedAt()) : null;
+    }
+    long backoffMs = 100;
+    while (true) {
+      try {
+        long start = System.currentTimeMillis();
+        List<String> ids = tx.execute(status -> jdbcTemplate.queryForList(sql, String.class, args));
+        log.debug("ReviewIngestBuffer flushed count={} inserted={} duration={}ms",
+          batch.size(), ids.size(), System.currentTimeMillis() - start);
+        return new HashSet<>(ids);
+      } catch (DataIntegrityViolationException e) {
+        if (batch.size() > 1) return insertRowByRow(batch);
+        PendingReview r = batch.get(0);
+        log.error("ReviewIngestBuffer dropping review id={} dishAtRestaurantId={} rating={} createdAt={} error={}",
+          r.id(), r.dishAtRestaurantId(), r.rating(), r.createdAt(), e.getMessage());
+        return Set.of();
+      } catch (Exception e) {
+        log.error("ReviewIngestBuffer flush FAILED count={} error={} retryIn={}ms",
+          batch.size(), e.getMessage(), backoffMs);
+        try {
+          Thread.sleep(backoffMs);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          return null;
+        }
+        backoffMs = Math.min(backoffMs * 2, 10_000);
+      }
+    }
+  }
+
+  private Set<String> insertRowByRow(List<PendingReview> batch) {
+    log.warn("ReviewIngestBuffer batch of {} violates a constraint, inserting row by row", batch.size());
+    Set<String> inserted = new HashSet<>();
+    for (PendingReview r : batch) {
+      Set<String> ids = insertWithRetry(List.of(r));
+      if (ids == null) return null;
+      inserted.addAll(ids);
+    }
+    return inserted;
+  }
+
+  /**
+   * Rewrites the spool with only the still-pending reviews. The new file is
+   * fsynced before it replaces the old one, so a crash leaves one complete
+   * spool or the other; holding spoolLock keeps enqueue from appending while
+   * the file is swapped.
+   */
+  private void compactSpool() {
+    spoolLock.lock();
+    try {
+      long covered = writtenSeq;
+      try {
+        spoolOut.close();
+        Path tmp = spoolFile.resolveSibling(spoolFile.getFileName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp.toFile());
+             BufferedWriter w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+          for (PendingReview r : pending.values()) {
+            w.write(objectMapper.writeValueAsString(r));
+            w.write('\n');
+          }
+          w.flush();
+          out.getChannel().force(true);
+        }
+        Files.move(tmp, spoolFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+        spoolOut = new FileOutputStream(spoolFile.toFile(), true);
+        // Every line appended so far is either flushed or in the file just forced
+        syncLock.lock();
+        try {
+          syncedSeq = Math.max(syncedSeq, covered);
+          syncDone.signalAll();
+        } finally {
+          syncLock.unlock();
+        }
+      } catch (IOException e) {
+        log.error("ReviewIngestBuffer spool compaction FAILED error={}", e.getMessage(), e);
+        try {
+          spoolOut = new FileOutputStream(spoolFile.toFile(), true);
+        } catch (IOException reopen) {
+          throw new IllegalStateException("Cannot reopen review spool " + spoolFile, reopen);
+        }
+      }
+    } finally {
+      spoolLock.unlock();
+    }
+  }
+
+  /** Makes the rename itself durable; best effort, not every platform can open a directory. */
+  private void syncDirectory() {
+    try (FileChannel dir = FileChannel.open(spoolFile.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+      dir.force(true);
+    } catch (IOException e) {
+      log.debug("ReviewIngestBuffer spool directory fsync skipped: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Hands whatever a previous run acknowledged but never flushed to the
+   * flusher, which inserts, records and announces it like any new review. The
+   * spool file is kept as-is; the first compaction after those rows land trims
+   * it. Returns how many reviews were re-queued.
+   */
+  private int replaySpool() throws IOException {
+    if (!Files.exists(spoolFile)) return 0;
+    int replayed = 0;
+    for (String line : Files.readAllLines(spoolFile, StandardCharsets.UTF_8)) {
+      if (line.isBlank()) continue;
+      PendingReview review;
+      try {
+        review = objectMapper.readValue(line, PendingReview.class);
+      } catch (IOException e) {
+        // A torn last line from a crash mid-append; that request was never acknowledged
+        log.warn("ReviewIngestBuffer skipping unreadable spool line: {}", e.getMessage());
+        continue;
+      }
+      if (pending.putIfAbsent(review.id(), review) != null) continue;
+      queue.add(review);
+      replayed++;
+    }
+    if (replayed > 0) {
+      log.info("ReviewIngestBuffer replaying {} spooled reviews", replayed);
+    }
+    return replayed;
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    if (!enabled || flusher == null) return;
+    running = false;
+    flusher.join(TimeUnit.SECONDS.toMillis(10));
+    if (flusher.isAlive()) {
+      // Database still unreachable: stop retrying, the spool replays on the next start
+      flusher.interrupt();
+      flusher.join(TimeUnit.SECONDS.toMillis(1));
+    }
+    spoolLock.lock();
+    try {
+      spoolOut.close();
+    } catch (IOException e) {
+      log.warn("ReviewIngestBuffer spool close failed: {}", e.getMessage());
+    } finally {
+      spoolLock.unlock();
+    }
+    log.info("ReviewIngestBuffer stopped unflushed={}", queue.size());
+  }
+}
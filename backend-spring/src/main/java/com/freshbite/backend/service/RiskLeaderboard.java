@@ -0,0 +1,183 @@
+package com.freshbite.backend.service;
+
+import com.freshbite.backend.domain.DishAtRestaurant;
+import com.freshbite.backend.dto.RiskLeaderboardEntry;
+import com.freshbite.backend.dto.TimeWindow;
+import com.freshbite.backend.event.DishAtRestaurantCreatedEvent;
+import com.freshbite.backend.event.ReviewCreatedEvent;
+import com.freshbite.backend.repository.DishAtRestaurantRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * "Which dishes are risky right now" — per-city and global rankings of
+ * DishAtRestaurant by 24h average rating (lowest first), then review count
+ * (highest first).
+ * <p>
+ * Rankings live in sorted sets that are updated incrementally from
+ * {@link ReviewAggregateStore}'s hour buckets whenever a review is created,
+ * and re-derived every few minutes so dishes age out as the 24h window slides.
+ * Neither updates nor reads touch Postgres: the window is rounded to whole
+ * hours, and dish labels are reloaded in one query per refresh (plus dishes
+ * created through this backend as they are linked). Dishes below the
+ * risk-label minimum of 3 reviews are left out.
+ */
+@Component
+public class RiskLeaderboard {
+  private static final Logger log = LoggerFactory.getLogger(RiskLeaderboard.class);
+  private static final int MIN_REVIEWS = 3;
+  private static final long REFRESH_MINUTES = 5;
+  private static final String GLOBAL = "";
+
+  private record Label(String dishName, String restaurantName, String city) {}
+
+  // cityKey is the city ranking the entry sits in, so it can be removed after its label is gone
+  private record Entry(String id, String cityKey, double avgRating, int reviewCount) {}
+
+  private static final Comparator<Entry> RISKIEST_FIRST = Comparator
+    .comparingDouble(Entry::avgRating)
+    .thenComparing(Comparator.comparingInt(Entry::reviewCount).reversed())
+    .thenComparing(Entry::id);
+
+  private final ReviewAggregateStore reviewAggregateStore;
+  private final DishAtRestaurantRepository dishAtRestaurantRepository;
+  private final Map<String, Label> labels = new ConcurrentHashMap<>();
+  private final Map<String, Entry> current = new ConcurrentHashMap<>();
+  private final Map<String, NavigableSet<Entry>> rankings = new ConcurrentHashMap<>();
+  // Makes each dish's remove-and-re-add atomic; held for in-memory work only
+  private final Lock rankLock = new ReentrantLock();
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread t = new Thread(r, "risk-leaderboard-refresh");
+    t.setDaemon(true);
+    return t;
+  });
+
+  public RiskLeaderboard(
+    ReviewAggregateStore reviewAggregateStore,
+    DishAtRestaurantRepository dishAtRestaurantRepository
+  ) {
+    this.reviewAggregateStore = reviewAggregateStore;
+    this.dishAtRestaurantRepository = dishAtRestaurantRepository;
+  }
+
+  @PostConstruct
+  public void load() {
+    refreshAll();
+    log.info("RiskLeaderboard loaded labels={} ranked={}", labels.size(), current.size());
+    scheduler.scheduleAtFixedRate(this::refreshAll, REFRESH_MINUTES, REFRESH_MINUTES, TimeUnit.MINUTES);
+  }
+
+  @EventListener
+  public void onReviewCreated(ReviewCreatedEvent event) {
+    update(event.dishAtRestaurantId(), Instant.now());
+  }
+
+  @EventListener
+  public void onDishAtRestaurantCreated(DishAtRestaurantCreatedEvent event) {
+    DishAtRestaurant dar = event.dishAtRestaurant();
+    if (!dar.isActive()) return;
+    labels.put(dar.getId(), new Label(dar.getDish().getName(), dar.getRestaurant().getName(), dar.getRestaurant().getCity()));
+  }
+
+  /**
+   * Top {@code limit} riskiest dishes, optionally restricted to a city (case-insensitive).
+   */
+  public List<RiskLeaderboardEntry> top(String city, int limit) {
+    NavigableSet<Entry> ranking = rankings.get(cityKey(city));
+    if (ranking == null) return List.of();
+    List<RiskLeaderboardEntry> result = new ArrayList<>(limit);
+    Iterator<Entry> it = ranking.iterator();
+    while (it.hasNext() && result.size() < limit) {
+      Entry e = it.next();
+      Label label = labels.get(e.id());
+      if (label == null) continue; // deactivated since it was ranked
+      double rounded = Math.round(e.avgRating() * 10.0) / 10.0;
+      result.add(new RiskLeaderboardEntry(
+        e.id(), label.dishName(), label.restaurantName(), label.city(),
+        rounded, e.reviewCount(), RiskLabelCalculator.calculate(rounded, e.reviewCount())
+      ));
+    }
+    return result;
+  }
+
+  private void refreshAll() {
+    try {
+      // Picks up dishes linked or (de)activated through the Next.js routes
+      Map<String, Label> fresh = new HashMap<>();
+      for (Object[] row : dishAtRestaurantRepository.findActiveLabels()) {
+        fresh.put((String) row[0], new Label((String) row[1], (String) row[2], (String) row[3]));
+      }
+      labels.putAll(fresh);
+      labels.keySet().retainAll(fresh.keySet());
+    } catch (Exception e) {
+      log.error("RiskLeaderboard label load FAILED error={} — keeping the previous labels", e.getMessage(), e);
+    }
+    Instant now = Instant.now();
+    for (String id : reviewAggregateStore.dishIds()) {
+      update(id, now);
+    }
+    // Dishes that left the 5d store entirely
+    for (String id : current.keySet()) {
+      if (!reviewAggregateStore.dishIds().contains(id)) update(id, now);
+    }
+  }
+
+  /** Re-ranks one dish; a dish without a label (inactive, or not loaded yet) is unranked. */
+  private void update(String id, Instant now) {
+    rankLock.lock();
+    try {
+      Entry previous = current.remove(id);
+      if (previous != null) {
+        rankingFor(GLOBAL).remove(previous);
+        rankingFor(previous.cityKey()).remove(previous);
+      }
+      Label label = labels.get(id);
+      if (label == null) return;
+
+      ReviewAggregateStore.Totals totals = reviewAggregateStore.hourlyTotals(id, TimeWindow.H24, now).orElse(null);
+      if (totals == null || totals.reviewCount() < MIN_REVIEWS) return;
+
+      Entry entry = new Entry(id, cityKey(label.city()),
+        (double) totals.ratingSum() / totals.reviewCount(), (int) totals.reviewCount());
+      current.put(id, entry);
+      rankingFor(GLOBAL).add(entry);
+      rankingFor(entry.cityKey()).add(entry);
+    } finally {
+      rankLock.unlock();
+    }
+  }
+
+  private NavigableSet<Entry> rankingFor(String key) {
+    return rankings.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>(RISKIEST_FIRST));
+  }
+
+  private static String cityKey(String city) {
+    return city == null ? GLOBAL : city.trim().toLowerCase(Locale.ROOT);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+}
@@ -0,0 +1,257 @@
+package com.freshbite.backend.service;
+
+import com.freshbite.backend.domain.DishAtRestaurant;
+import com.freshbite.backend.domain.Restaurant;
+import com.freshbite.backend.dto.RestaurantSearchResponse;
+import com.freshbite.backend.event.DishAtRestaurantCreatedEvent;
+import com.freshbite.backend.event.RestaurantCreatedEvent;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Result cache for dish and restaurant text/proximity search.
+ * <p>
+ * Keys are the normalized query (trimmed, single-spaced, lowercased — every
+ * backend matches case-insensitively) and, for proximity search, the
+ * {@code cell-degrees} grid cell of the caller. A proximity entry is computed
+ * once from the cell centre; each hit re-derives {@code distanceKm} from the
+ * caller's own point and re-sorts, so only the membership of the nearest-200
+ * set is shared within a cell.
+ * <p>
+ * Both caches are Caffeine (W-TinyLFU admission) bounded by total result
+ * rows rather than entry count. Creating a restaurant or dish drops only the
+ * entries whose query could match the new row (see {@link #couldMatch}) and,
+ * for proximity entries, only when the new restaurant is closer than the
+ * farthest cached result. Rows written by the Next.js API routes publish no
+ * event and age out after {@code ttl-minutes}. Each create also bumps a
+ * generation counter; a load that was already reading the database when it
+ * moved may have missed the new row, so its result is returned but not stored.
+ * Loads run on the calling thread, outside Caffeine's map locks, so a JDBC
+ * query never pins a virtual thread to a bin lock.
+ * <p>
+ * Entries hold response-shaped rows, never entities. Dish hits leave out the
+ * review count, which the caller attaches fresh on every request.
+ * <p>
+ * Hit/miss/eviction counts are exported as {@code cache.*} meters tagged
+ * {@code cache=search.dishes|search.restaurants}, plus
+ * {@code search.cache.invalidations}.
+ */
+@Component
+public class SearchCache {
+  private static final Logger log = LoggerFactory.getLogger(SearchCache.class);
+  private static final int NEARBY_LIMIT = 200;
+
+  /** A dish search result; {@code effectiveQuery} differs from the key when typo correction kicked in. */
+  public record DishResult(String effectiveQuery, List<DishHit> results) {}
+
+  /** One dish search row, as listed by /api/dishes minus its review count. */
+  public record DishHit(
+    String id,
+    String dishName,
+    String cuisine,
+    String description,
+    String restaurantName,
+    String city
+  ) {}
+
+  @FunctionalInterface
+  public interface NearbyLoader {
+    List<RestaurantSearchResponse> load(String query, double lat, double lng);
+  }
+
+  // latCell/lngCell are only meaningful when nearby is true
+  private record RestaurantKey(String query, boolean nearby, long latCell, long lngCell) {}
+
+  private final AsyncCache<String, DishResult> dishes;
+  private final AsyncCache<RestaurantKey, List<RestaurantSearchResponse>> restaurants;
+  private final double cellDegrees;
+  private final Counter invalidations;
+  // Bumped before a create invalidates, so loads that overlapped it are not stored
+  private final AtomicLong dishGeneration = new AtomicLong();
+  private final AtomicLong restaurantGeneration = new AtomicLong();
+
+  public SearchCache(
+    MeterRegistry meterRegistry,
+    @Value("${app.search.cache.max-rows:100000}") long maxRows,
+    @Value("${app.search.cache.ttl-minutes:10}") long ttlMinutes,
+    @Value("${app.search.cache.cell-degrees:0.01}") double cellDegrees
+  ) {
+    this.cellDegrees = cellDegrees;
+    this.dishes = Caffeine.newBuilder()
+      .maximumWeight(maxRows / 2)
+      .weigher((String k, DishResult v) -> v.results().size() + 1)
+      .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+      .recordStats()
+      .buildAsync();
+    this.restaurants = Caffeine.newBuilder()
+      .maximumWeight(maxRows / 2)
+      .weigher((RestaurantKey k, List<RestaurantSearchResponse> v) -> v.size() + 1)
+      .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+      .recordStats()
+      .buildAsync();
+    CaffeineCacheMetrics.monitor(meterRegistry, dishes, "search.dishes");
+    CaffeineCacheMetrics.monitor(meterRegistry, restaurants, "search.restaurants");
+    this.invalidations = meterRegistry.counter("search.cache.invalidations");
+  }
+
+  public static String normalize(String query) {
+    return query == null ? "" : query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+  }
+
+  public DishResult dishes(String query, Function<String, DishResult> loader) {
+    String q = normalize(query);
+    return load(dishes, dishGeneration, q, () -> loader.apply(q));
+  }
+
+  public List<RestaurantSearchResponse> restaurants(String query, Function<String, List<RestaurantSearchResponse>> loader) {
+    String q = normalize(query);
+    return load(restaurants, restaurantGeneration, new RestaurantKey(q, false, 0, 0), () -> loader.apply(q));
+  }
+
+  public List<RestaurantSearchResponse> nearbyRestaurants(String query, double lat, double lng, NearbyLoader loader) {
+    String q = normalize(query);
+    long latCell = (long) Math.floor(lat / cellDegrees);
+    long lngCell = (long) Math.floor(lng / cellDegrees);
+    List<RestaurantSearchResponse> shared = load(restaurants, restaurantGeneration,
+      new RestaurantKey(q, true, latCell, lngCell),
+      () -> loader.load(q, cellCenter(latCell), cellCenter(lngCell))
+    );
+
+    List<RestaurantSearchResponse> results = new ArrayList<>(shared.size());
+    for (RestaurantSearchResponse r : shared) {
+      double km = GeoMath.haversineKm(lat, lng, r.latitude(), r.longitude());
+      results.add(new RestaurantSearchResponse(
+        r.id(), r.name(), r.address(), r.city(), r.state(), r.country(),
+        r.latitude(), r.longitude(), Math.round(km * 100.0) / 100.0, r.createdAt()
+      ));
+    }
+    results.sort(Comparator.comparingDouble(RestaurantSearchResponse::distanceKm));
+    return results;
+  }
+
+  /**
+   * Cached value for {@code key}, loading it at most once at a time. The
+   * first caller registers an empty future and runs the loader itself, after
+   * Caffeine has released the map; later callers wait on that future. A result
+   * whose load overlapped a create of the same kind is handed back uncached;
+   * callers that were waiting on that load then run their own.
+   */
+  private static <K, V> V load(AsyncCache<K, V> cache, AtomicLong generation, K key, Supplier<V> loader) {
+    CompletableFuture<V> mine = new CompletableFuture<>();
+    CompletableFuture<V> entry = cache.get(key, (k, executor) -> mine);
+    if (entry != mine) {
+      V value;
+      try {
+        value = entry.join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException re) throw re;
+        throw e;
+      }
+      return value != null ? value : loader.get();
+    }
+
+    long before = generation.get();
+    V result;
+    try {
+      result = loader.get();
+    } catch (RuntimeException | Error e) {
+      mine.completeExceptionally(e); // Caffeine drops a failed future; waiters see the same error
+      throw e;
+    }
+    mine.complete(generation.get() == before ? result : null); // null: Caffeine stores nothing
+    return result;
+  }
+
+  @EventListener
+  public void onRestaurantCreated(RestaurantCreatedEvent event) {
+    Restaurant r = event.restaurant();
+    restaurantGeneration.incrementAndGet();
+    String[] fields = {r.getName(), r.getCity(), r.getAddress(), r.getState(), r.getCountry()};
+    int dropped = removeIf(restaurants, (key, cached) -> {
+      if (!couldMatch(key.query(), fields)) return false;
+      if (!key.nearby()) return true;
+      if (r.getLatitude() == null || r.getLongitude() == null) return false;
+      if (cached.size() < NEARBY_LIMIT) return true;
+      // Full list: only a restaurant closer than the current farthest can enter it
+      double farthest = 0;
+      for (RestaurantSearchResponse c : cached) {
+        if (c.distanceKm() != null) farthest = Math.max(farthest, c.distanceKm());
+      }
+      return GeoMath.haversineKm(cellCenter(key.latCell()), cellCenter(key.lngCell()),
+        r.getLatitude(), r.getLongitude()) <= farthest;
+    });
+    log.debug("SearchCache restaurant created id={} invalidated={}", r.getId(), dropped);
+  }
+
+  @EventListener
+  public void onDishAtRestaurantCreated(DishAtRestaurantCreatedEvent event) {
+    DishAtRestaurant dar = event.dishAtRestaurant();
+    dishGeneration.incrementAndGet();
+    String[] fields = {
+      dar.getDish().getName(), dar.getDish().getCuisine(),
+      dar.getRestaurant().getName(), dar.getRestaurant().getAddress(), dar.getRestaurant().getCity()
+    };
+    int dropped = removeIf(dishes, (key, cached) ->
+      // An empty result may have been a failed typo correction that the new name now satisfies
+      cached.results().isEmpty()
+        || couldMatch(key, fields)
+        || couldMatch(normalize(cached.effectiveQuery()), fields));
+    log.debug("SearchCache dish created id={} invalidated={}", dar.getId(), dropped);
+  }
+
+  /**
+   * Conservative match test: true whenever any backend might return a row with
+   * these fields for {@code query}. Every word of a LIKE/substring match occurs
+   * in some field; ranked full-text matches share at least a stem, which is
+   * approximated by the word's first four characters.
+   */
+  static boolean couldMatch(String query, String[] fields) {
+    if (query.isEmpty()) return true;
+    StringBuilder text = new StringBuilder();
+    for (String f : fields) {
+      if (f != null) text.append(f.toLowerCase(Locale.ROOT)).append(' ');
+    }
+    String haystack = text.toString();
+    for (String word : query.split(" ")) {
+      String stem = word.length() > 4 ? word.substring(0, 4) : word;
+      if (haystack.contains(stem)) return true;
+    }
+    return false;
+  }
+
+  private <K, V> int removeIf(AsyncCache<K, V> cache, BiPredicate<K, V> test) {
+    int[] removed = {0};
+    // The synchronous view skips loads still in flight; the generation check covers those
+    cache.synchronous().asMap().entrySet().removeIf(e -> {
+      boolean drop = test.test(e.getKey(), e.getValue());
+      if (drop) removed[0]++;
+      return drop;
+    });
+    invalidations.increment(removed[0]);
+    return removed[0];
+  }
+
+  private double cellCenter(long cell) {
+    return (cell + 0.5) * cellDegrees;
+  }
+}
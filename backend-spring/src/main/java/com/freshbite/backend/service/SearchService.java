@@ -0,0 +1,159 @@
+package com.freshbite.backend.service;
+
+import com.freshbite.backend.domain.DishAtRestaurant;
+import com.freshbite.backend.domain.Restaurant;
+import com.freshbite.backend.dto.RestaurantSearchResponse;
+import com.freshbite.backend.repository.DishAtRestaurantRepository;
+import com.freshbite.backend.repository.RestaurantRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Text search over dishes and restaurants, dispatched on {@code app.search.backend}:
+ * <ul>
+ *   <li>{@code like} — the original {@code LOWER(col) LIKE '%q%'} queries, newest first</li>
+ *   <li>{@code memory} — {@link CatalogSearchIndex}; falls back to {@code like} until loaded</li>
+ *   <li>{@code postgres} — tsvector/pg_trgm columns, ranked by ts_rank + word_similarity</li>
+ * </ul>
+ * Proximity search is answered by {@link RestaurantGeoIndex} once it is loaded
+ * and by {@code RestaurantRepository.searchNearby} otherwise. Restaurant
+ * results from the database paths go through {@link SearchCache}; dish results
+ * are cached by DishService, which adds the typo fallback.
+ */
+@Service
+public class SearchService {
+  private static final Logger log = LoggerFactory.getLogger(SearchService.class);
+  private static final int DISH_LIMIT = 50;
+  private static final int RESTAURANT_LIMIT = 200;
+
+  enum Backend { LIKE, MEMORY, POSTGRES }
+
+  private final DishAtRestaurantRepository dishAtRestaurantRepository;
+  private final RestaurantRepository restaurantRepository;
+  private final CatalogSearchIndex catalogSearchIndex;
+  private final RestaurantGeoIndex restaurantGeoIndex;
+  private final SearchCache searchCache;
+  private final Backend backend;
+
+  public SearchService(
+    DishAtRestaurantRepository dishAtRestaurantRepository,
+    RestaurantRepository restaurantRepository,
+    CatalogSearchIndex catalogSearchIndex,
+    RestaurantGeoIndex restaurantGeoIndex,
+    SearchCache searchCache,
+    @Value("${app.search.backend:memory}") String backend
+  ) {
+    this.dishAtRestaurantRepository = dishAtRestaurantRepository;
+    this.restaurantRepository = restaurantRepository;
+    this.catalogSearchIndex = catalogSearchIndex;
+    this.restaurantGeoIndex = restaurantGeoIndex;
+    this.searchCache = searchCache;
+    this.backend = Backend.valueOf(backend.trim().toUpperCase(Locale.ROOT));
+    log.info("SearchService backend={}", this.backend);
+  }
+
+  /**
+   * Active dishes matching {@code query}, best first.
+   */
+  public List<DishAtRestaurant> searchDishes(String query) {
+    return switch (effectiveBackend()) {
+      case LIKE -> dishAtRestaurantRepository.searchByQuery(query);
+      case POSTGRES -> dishAtRestaurantRepository.searchRanked(query);
+      case MEMORY -> {
+        List<String> ids = catalogSearchIndex.searchDishes(query, DISH_LIMIT).stream()
+          .map(CatalogSearchIndex.DishDoc::id)
+          .toList();
+        if (ids.isEmpty()) yield List.of();
+        // findAllById does not keep order; restore the index ranking
+        Map<String, DishAtRestaurant> byId = dishAtRestaurantRepository.findAllById(ids).stream()
+          .collect(Collectors.toMap(DishAtRestaurant::getId, Function.identity()));
+        yield ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+      }
+    };
+  }
+
+  /**
+   * Restaurants matching {@code query} (no proximity); an empty query returns the newest.
+   */
+  public List<RestaurantSearchResponse> searchRestaurants(String query) {
+    return searchCache.restaurants(query, this::findRestaurants);
+  }
+
+  /**
+   * Restaurants matching {@code query} nearest to (lat, lng): the nearest
+   * {@value #RESTAURANT_LIMIT}, or when {@code radiusKm} is set, those within it.
+   */
+  public List<RestaurantSearchResponse> searchNearby(String query, double lat, double lng, Double radiusKm) {
+    if (restaurantGeoIndex.isReady()) {
+      return radiusKm != null
+        ? restaurantGeoIndex.withinRadius(query, lat, lng, radiusKm, RESTAURANT_LIMIT)
+        : restaurantGeoIndex.nearest(query, lat, lng, RESTAURANT_LIMIT);
+    }
+    List<RestaurantSearchResponse> nearest = searchCache.nearbyRestaurants(query, lat, lng, this::findNearby);
+    if (radiusKm == null) return nearest;
+    return nearest.stream().filter(r -> r.distanceKm() <= radiusKm).toList();
+  }
+
+  private List<RestaurantSearchResponse> findRestaurants(String query) {
+    return switch (effectiveBackend()) {
+      case MEMORY -> catalogSearchIndex.searchRestaurants(query, RESTAURANT_LIMIT).stream()
+        .map(r -> new RestaurantSearchResponse(
+          r.id(), r.name(), r.address(), r.city(),
+          r.state(), r.country(), r.latitude(), r.longitude(),
+          null, r.createdAt()
+        ))
+        .toList();
+      case LIKE -> toResponses(restaurantRepository.searchByText(query));
+      case POSTGRES -> toResponses(restaurantRepository.searchRanked(query));
+    };
+  }
+
+  private List<RestaurantSearchResponse> findNearby(String query, double lat, double lng) {
+    return restaurantRepository.searchNearby(query, lat, lng).stream()
+      .map(row -> {
+        String id = (String) row[0];
+        String name = (String) row[1];
+        String address = (String) row[2];
+        String city = (String) row[3];
+        String state = (String) row[4];
+        String country = (String) row[5];
+        // row[6] = timezone
+        Double latitude = row[7] != null ? ((Number) row[7]).doubleValue() : null;
+        Double longitude = row[8] != null ? ((Number) row[8]).doubleValue() : null;
+        // row[9] = createdAt, row[10] = updatedAt
+        Timestamp createdTs = (Timestamp) row[9];
+        Double distanceKm = row[11] != null ? ((Number) row[11]).doubleValue() : null;
+        return new RestaurantSearchResponse(
+          id, name, address, city, state, country,
+          latitude, longitude,
+          distanceKm != null ? Math.round(distanceKm * 100.0) / 100.0 : null,
+          createdTs != null ? createdTs.toInstant() : null
+        );
+      })
+      .toList();
+  }
+
+  private Backend effectiveBackend() {
+    return backend == Backend.MEMORY && !catalogSearchIndex.isReady() ? Backend.LIKE : backend;
+  }
+
+  private static List<RestaurantSearchResponse> toResponses(List<Restaurant> restaurants) {
+    return restaurants.stream()
+      .map(r -> new RestaurantSearchResponse(
+        r.getId(), r.getName(), r.getAddress(), r.getCity(),
+        r.getState(), r.getCountry(), r.getLatitude(), r.getLongitude(),
+        null, r.getCreatedAt()
+      ))
+      .toList();
+  }
+}
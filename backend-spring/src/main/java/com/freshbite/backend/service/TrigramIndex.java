@@ -0,0 +1,199 @@
+package com.freshbite.backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Append-only trigram inverted index with substring semantics.
+ * <p>
+ * Every document is a fixed list of text fields. Each field is lowercased and
+ * split into overlapping 3-character grams; a posting list per gram holds the
+ * ordinals of the documents containing it. A query of 3+ characters intersects
+ * the postings of its grams (shortest list first) and then verifies the
+ * surviving candidates with {@code contains}, so results are exactly those of
+ * {@code LOWER(field) LIKE '%q%'} on any field. Shorter queries fall back to a
+ * scan of the in-memory documents.
+ * <p>
+ * Matches are ranked by field weight — tripled for an exact field match and
+ * doubled when the query starts the field or one of its words — then by
+ * {@code tieBreak}.
+ */
+final class TrigramIndex<D> {
+  private final Function<D, String[]> fieldsOf;
+  private final int[] weights;
+  private final Comparator<D> tieBreak;
+  private final List<D> docs = new ArrayList<>();
+  private final List<String[]> normalized = new ArrayList<>();
+  private final Map<Long, IntList> postings = new HashMap<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private record Scored<T>(T doc, int score) {}
+
+  /**
+   * @param fieldsOf extracts the searchable fields of a document (nulls allowed)
+   * @param weights  relative importance of each field, same order as {@code fieldsOf}
+   * @param tieBreak order among equally scored matches
+   */
+  TrigramIndex(Function<D, String[]> fieldsOf, int[] weights, Comparator<D> tieBreak) {
+    this.fieldsOf = fieldsOf;
+    this.weights = weights;
+    this.tieBreak = tieBreak;
+  }
+
+  void add(D doc) {
+    String[] fields = normalize(fieldsOf.apply(doc));
+    lock.writeLock().lock();
+    try {
+      int ordinal = docs.size();
+      docs.add(doc);
+      normalized.add(fields);
+      for (String field : fields) {
+        for (int i = 0; i + 3 <= field.length(); i++) {
+          IntList list = postings.computeIfAbsent(gram(field, i), k -> new IntList());
+          // Postings stay sorted because ordinals only grow; skip repeats within one doc
+          if (list.size == 0 || list.last() != ordinal) list.add(ordinal);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  int size() {
+    lock.readLock().lock();
+    try {
+      return docs.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Best {@code limit} documents containing {@code query} in any field,
+   * restricted to those accepted by {@code filter}.
+   */
+  List<D> search(String query, int limit, Predicate<D> filter) {
+    String q = query.trim().toLowerCase(Locale.ROOT);
+    Comparator<Scored<D>> worstFirst = Comparator.<Scored<D>>comparingInt(Scored::score)
+      .thenComparing(Scored::doc, tieBreak.reversed());
+    PriorityQueue<Scored<D>> top = new PriorityQueue<>(worstFirst);
+
+    lock.readLock().lock();
+    try {
+      IntList candidates = q.length() >= 3 ? candidates(q) : null;
+      int n = candidates != null ? candidates.size : docs.size();
+      for (int i = 0; i < n; i++) {
+        int ordinal = candidates != null ? candidates.values[i] : i;
+        int score = score(normalized.get(ordinal), q);
+        if (score == 0) continue;
+        D doc = docs.get(ordinal);
+        if (!filter.test(doc)) continue;
+        top.add(new Scored<>(doc, score));
+        if (top.size() > limit) top.poll();
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    List<D> result = new ArrayList<>(top.size());
+    while (!top.isEmpty()) result.add(top.poll().doc());
+    Collections.reverse(result);
+    return result;
+  }
+
+  List<D> search(String query, int limit) {
+    return search(query, limit, doc -> true);
+  }
+
+  private IntList candidates(String q) {
+    long[] grams = new long[q.length() - 2];
+    for (int i = 0; i < grams.length; i++) grams[i] = gram(q, i);
+    IntList[] lists = new IntList[grams.length];
+    for (int i = 0; i < grams.length; i++) {
+      lists[i] = postings.get(grams[i]);
+      if (lists[i] == null) return new IntList(); // some gram never occurs
+    }
+    Arrays.sort(lists, Comparator.comparingInt(l -> l.size));
+
+    IntList result = lists[0].copy();
+    for (int i = 1; i < lists.length && result.size > 0; i++) {
+      result.retainAll(lists[i]);
+    }
+    return result;
+  }
+
+  private int score(String[] fields, String q) {
+    if (q.isEmpty()) return 1; // match-all, ordered purely by tieBreak
+    int score = 0;
+    for (int i = 0; i < fields.length; i++) {
+      String field = fields[i];
+      int at = field.indexOf(q);
+      if (at < 0) continue;
+      int multiplier = 1;
+      if (field.length() == q.length()) {
+        multiplier = 3;
+      } else if (at == 0 || !Character.isLetterOrDigit(field.charAt(at - 1))) {
+        multiplier = 2;
+      }
+      score += weights[i] * multiplier;
+    }
+    return score;
+  }
+
+  private static String[] normalize(String[] fields) {
+    String[] out = new String[fields.length];
+    for (int i = 0; i < fields.length; i++) {
+      out[i] = fields[i] == null ? "" : fields[i].toLowerCase(Locale.ROOT);
+    }
+    return out;
+  }
+
+  private static long gram(String s, int i) {
+    return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+  }
+
+  /** Growable sorted int array; avoids boxing a posting per document. */
+  private static final class IntList {
+    int[] values = new int[4];
+    int size;
+
+    void add(int v) {
+      if (size == values.length) values = Arrays.copyOf(values, size * 2);
+      values[size++] = v;
+    }
+
+    int last() {
+      return values[size - 1];
+    }
+
+    IntList copy() {
+      IntList c = new IntList();
+      c.values = Arrays.copyOf(values, Math.max(size, 1));
+      c.size = size;
+      return c;
+    }
+
+    /** In-place sorted intersection. */
+    void retainAll(IntList other) {
+      int w = 0;
+      int j = 0;
+      for (int i = 0; i < size; i++) {
+        int v = values[i];
+        while (j < other.size && other.values[j] < v) j++;
+        if (j < other.size && other.values[j] == v) values[w++] = v;
+      }
+      size = w;
+    }
+  }
+}
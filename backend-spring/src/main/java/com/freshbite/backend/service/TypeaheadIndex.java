@@ -0,0 +1,332 @@
+package com.freshbite.backend.service;
+
+import com.freshbite.backend.domain.DishAtRestaurant;
+import com.freshbite.backend.domain.Restaurant;
+import com.freshbite.backend.dto.SuggestionResponse;
+import com.freshbite.backend.event.DishAtRestaurantCreatedEvent;
+import com.freshbite.backend.event.RestaurantCreatedEvent;
+import com.freshbite.backend.event.ReviewCreatedEvent;
+import com.freshbite.backend.repository.DishAtRestaurantRepository;
+import com.freshbite.backend.repository.RestaurantRepository;
+import com.freshbite.backend.repository.ReviewRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Autocomplete over dish names, restaurant names and cities, weighted by
+ * all-time review count.
+ * <p>
+ * Each name is inserted into a {@link PrefixTrie} under its full normalized
+ * form and under every word suffix, so "tik" completes "Chicken Tikka". Dish
+ * entries are shared across restaurants (one per dish name) and carry the
+ * reviews of every restaurant serving it; restaurant and city entries carry
+ * the reviews of their dishes.
+ * <p>
+ * New restaurants, dishes and reviews are applied incrementally from their
+ * events. Events that arrive while a rebuild is loading are also replayed onto
+ * the new state before it is swapped in, except reviews created before the
+ * review counts were read, which those counts already hold. A full rebuild every
+ * {@code app.search.index.rebuild-minutes} picks up rows written by the
+ * Next.js API routes.
+ * <p>
+ * Rebuilds do not recount every review. Counts up to a settled hour are
+ * loaded once and reused for {@link #SETTLED_MAX_AGE}; the reviews since then
+ * come from {@link ReviewAggregateStore}, which already holds them. Without
+ * the store (disabled or not ready) each rebuild counts all reviews.
+ */
+@Component
+public class TypeaheadIndex {
+  private static final Logger log = LoggerFactory.getLogger(TypeaheadIndex.class);
+  public static final int MAX_LIMIT = 10;
+  // Kept under the store's 5-day ring so the hours since the settled count are always in it
+  private static final Duration SETTLED_MAX_AGE = Duration.ofDays(4);
+
+  private static final class Entry {
+    final String type;
+    final String text;
+    final String id;
+    final List<String> keys;
+    // Written under the index and trie locks; read lock-free by suggest()
+    volatile long weight;
+
+    Entry(String type, String text, String id) {
+      this.type = type;
+      this.text = text;
+      this.id = id;
+      this.keys = keys(text);
+    }
+  }
+
+  private static final Comparator<Entry> MOST_REVIEWED_FIRST = Comparator
+    .comparingLong((Entry e) -> -e.weight)
+    .thenComparingInt(e -> e.text.length())
+    .thenComparing(e -> e.text)
+    .thenComparing(e -> e.type);
+
+  /** Trie plus the lookups needed to apply events; swapped whole on rebuild. */
+  private static final class State {
+    final PrefixTrie<Entry> trie = new PrefixTrie<>(MAX_LIMIT, MOST_REVIEWED_FIRST);
+    final Map<String, Entry> dishesByName = new HashMap<>();
+    final Map<String, Entry> restaurantsById = new HashMap<>();
+    final Map<String, Entry> citiesByName = new HashMap<>();
+    final Map<String, Entry> cityOfRestaurant = new HashMap<>();
+    final Map<String, Entry[]> byDishAtRestaurant = new HashMap<>();
+
+    void insert(Entry e) {
+      for (String key : e.keys) trie.insert(key, e);
+    }
+  }
+
+  private final DishAtRestaurantRepository dishAtRestaurantRepository;
+  private final RestaurantRepository restaurantRepository;
+  private final ReviewRepository reviewRepository;
+  private final ReviewAggregateStore reviewAggregateStore;
+  private final long rebuildMinutes;
+  private volatile State state;
+  // Guarded by this: events seen while a rebuild loads, replayed onto its state
+  private boolean rebuilding;
+  private final List<Object> eventsDuringRebuild = new ArrayList<>();
+  // Rebuild thread only: all-time counts of reviews created before settledBefore
+  private Map<String, Long> settledCounts = Map.of();
+  private Instant settledBefore;
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread t = new Thread(r, "typeahead-rebuild");
+    t.setDaemon(true);
+    return t;
+  });
+
+  public TypeaheadIndex(
+    DishAtRestaurantRepository dishAtRestaurantRepository,
+    RestaurantRepository restaurantRepository,
+    ReviewRepository reviewRepository,
+    ReviewAggregateStore reviewAggregateStore,
+    @Value("${app.search.index.rebuild-minutes:10}") long rebuildMinutes
+  ) {
+    this.dishAtRestaurantRepository = dishAtRestaurantRepository;
+    this.restaurantRepository = restaurantRepository;
+    this.reviewRepository = reviewRepository;
+    this.reviewAggregateStore = reviewAggregateStore;
+    this.rebuildMinutes = rebuildMinutes;
+  }
+
+  @PostConstruct
+  public void load() {
+    rebuild();
+    if (rebuildMinutes > 0) {
+      scheduler.scheduleWithFixedDelay(this::rebuild, rebuildMinutes, rebuildMinutes, TimeUnit.MINUTES);
+    }
+  }
+
+  /**
+   * Up to {@code limit} completions for {@code prefix}, most reviewed first.
+   */
+  public List<SuggestionResponse> suggest(String prefix, int limit) {
+    State s = state;
+    if (s == null) return List.of();
+    List<SuggestionResponse> result = new ArrayList<>();
+    for (Entry e : s.trie.top(normalize(prefix), Math.min(limit, MAX_LIMIT))) {
+      result.add(new SuggestionResponse(e.type, e.text, e.id, e.weight));
+    }
+    return result;
+  }
+
+  @EventListener
+  public synchronized void onRestaurantCreated(RestaurantCreatedEvent event) {
+    apply(event);
+  }
+
+  @EventListener
+  public synchronized void onDishAtRestaurantCreated(DishAtRestaurantCreatedEvent event) {
+    apply(event);
+  }
+
+  @EventListener
+  public synchronized void onReviewCreated(ReviewCreatedEvent event) {
+    apply(event);
+  }
+
+  // Caller holds this
+  private void apply(Object event) {
+    if (rebuilding) eventsDuringRebuild.add(event);
+    State s = state;
+    if (s != null) applyTo(s, event);
+  }
+
+  private static void applyTo(State s, Object event) {
+    if (event instanceof RestaurantCreatedEvent created) {
+      addRestaurant(s, created.restaurant(), true);
+    } else if (event instanceof DishAtRestaurantCreatedEvent created) {
+      DishAtRestaurant dar = created.dishAtRestaurant();
+      if (!dar.isActive()) return;
+      addRestaurant(s, dar.getRestaurant(), true);
+      link(s, dar.getId(), dar.getDish().getId(), dar.getDish().getName(), dar.getRestaurant().getId(), true);
+    } else if (event instanceof ReviewCreatedEvent created) {
+      Entry[] entries = s.byDishAtRestaurant.get(created.dishAtRestaurantId());
+      if (entries == null) return;
+      for (Entry e : entries) {
+        if (e != null) s.trie.reweigh(e, () -> e.weight++, e.keys);
+      }
+    }
+  }
+
+  private void rebuild() {
+    synchronized (this) {
+      rebuilding = true;
+      eventsDuringRebuild.clear();
+    }
+    long start = System.currentTimeMillis();
+    try {
+      State fresh = new State();
+      for (Restaurant r : restaurantRepository.findAll()) {
+        addRestaurant(fresh, r, false);
+      }
+      Map<String, Long> reviewCounts = reviewCounts();
+      // Taken after the read: a review created from here on cannot be in the counts
+      Instant countedBefore = Instant.now();
+      for (Object[] row : dishAtRestaurantRepository.findActiveTypeaheadRows()) {
+        String darId = (String) row[0];
+        Entry[] entries = link(fresh, darId, (String) row[1], (String) row[2], (String) row[3], false);
+        long count = reviewCounts.getOrDefault(darId, 0L);
+        for (Entry e : entries) {
+          if (e != null) e.weight += count;
+        }
+      }
+      // Insert once weights are final so no cache has to be re-sorted
+      fresh.dishesByName.values().forEach(fresh::insert);
+      fresh.restaurantsById.values().forEach(fresh::insert);
+      fresh.citiesByName.values().forEach(fresh::insert);
+      synchronized (this) {
+        // Creates are idempotent against what was loaded; only reviews after the counts are new
+        for (Object event : eventsDuringRebuild) {
+          if (event instanceof ReviewCreatedEvent review && isCounted(review, countedBefore)) continue;
+          applyTo(fresh, event);
+        }
+        state = fresh;
+      }
+      log.info("TypeaheadIndex rebuilt dishes={} restaurants={} cities={} nodes={} duration={}ms",
+        fresh.dishesByName.size(), fresh.restaurantsById.size(), fresh.citiesByName.size(),
+        fresh.trie.nodeCount(), System.currentTimeMillis() - start);
+    } catch (Exception e) {
+      log.error("TypeaheadIndex rebuild FAILED error={}", e.getMessage(), e);
+    } finally {
+      synchronized (this) {
+        rebuilding = false;
+        eventsDuringRebuild.clear();
+      }
+    }
+  }
+
+  /**
+   * Whether a review announced during a rebuild is already in the counts it
+   * read. The row's createdAt is set before it is recorded and announced, so a
+   * review created at or after {@code countedBefore} is not in them. One
+   * created before that but recorded after the read (a buffered review still
+   * being flushed) is missing until the next rebuild.
+   */
+  private static boolean isCounted(ReviewCreatedEvent review, Instant countedBefore) {
+    return review.createdAt() != null && review.createdAt().isBefore(countedBefore);
+  }
+
+  /**
+   * All-time review count per DishAtRestaurant: the settled counts plus the
+   * store's hours since. Re-settles (one full count) when the settled hour is
+   * older than {@link #SETTLED_MAX_AGE} or the store cannot cover it.
+   */
+  private Map<String, Long> reviewCounts() {
+    Instant now = Instant.now();
+    Optional<Map<String, Long>> recent = Optional.empty();
+    if (settledBefore != null && settledBefore.isAfter(now.minus(SETTLED_MAX_AGE))) {
+      recent = reviewAggregateStore.countsSince(settledBefore, now);
+    }
+    if (recent.isEmpty()) {
+      // An hour back, so reviews still committing around the boundary are in the settled count
+      Instant before = now.truncatedTo(ChronoUnit.HOURS).minus(Duration.ofHours(1));
+      recent = reviewAggregateStore.countsSince(before, now);
+      settledCounts = countsCreatedBefore(recent.isPresent() ? before : ReviewRepository.OPEN_END);
+      settledBefore = recent.isPresent() ? before : null;
+      if (recent.isEmpty()) return settledCounts;
+    }
+    Map<String, Long> counts = new HashMap<>(settledCounts);
+    recent.get().forEach((id, count) -> counts.merge(id, count, Long::sum));
+    return counts;
+  }
+
+  private Map<String, Long> countsCreatedBefore(Instant before) {
+    Map<String, Long> counts = new HashMap<>();
+    for (Object[] row : reviewRepository.countCreatedBefore(before)) {
+      counts.put((String) row[0], ((Number) row[1]).longValue());
+    }
+    return counts;
+  }
+
+  private static void addRestaurant(State s, Restaurant r, boolean insertNow) {
+    if (s.restaurantsById.containsKey(r.getId())) return;
+    Entry entry = new Entry("restaurant", r.getName(), r.getId());
+    s.restaurantsById.put(r.getId(), entry);
+    if (insertNow) s.insert(entry);
+
+    String city = normalize(r.getCity());
+    if (city.isEmpty()) return;
+    Entry cityEntry = s.citiesByName.get(city);
+    if (cityEntry == null) {
+      cityEntry = new Entry("city", r.getCity().trim(), null);
+      s.citiesByName.put(city, cityEntry);
+      if (insertNow) s.insert(cityEntry);
+    }
+    s.cityOfRestaurant.put(r.getId(), cityEntry);
+  }
+
+  // Entries whose weight a review of this dish-at-restaurant raises: dish, restaurant, city
+  private static Entry[] link(State s, String darId, String dishId, String dishName, String restaurantId, boolean insertNow) {
+    String key = normalize(dishName);
+    Entry dish = s.dishesByName.get(key);
+    if (dish == null) {
+      dish = new Entry("dish", dishName.trim(), dishId);
+      s.dishesByName.put(key, dish);
+      if (insertNow) s.insert(dish);
+    }
+    Entry[] entries = {dish, s.restaurantsById.get(restaurantId), s.cityOfRestaurant.get(restaurantId)};
+    s.byDishAtRestaurant.put(darId, entries);
+    return entries;
+  }
+
+  private static String normalize(String text) {
+    return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+  }
+
+  // The whole name plus every word suffix: "chicken tikka" -> [chicken tikka, tikka]
+  private static List<String> keys(String text) {
+    String normalized = normalize(text);
+    List<String> keys = new ArrayList<>();
+    if (normalized.isEmpty()) return keys;
+    keys.add(normalized);
+    for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+      keys.add(normalized.substring(i + 1));
+    }
+    return keys;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+}
@@ -0,0 +1,164 @@
+package com.freshbite.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gatekeeper for calls to the public OSM services (Nominatim, Overpass).
+ * <p>
+ * Identical in-flight calls — same host and key — are coalesced: the first
+ * caller runs it and later callers wait for and share its result or
+ * exception. Distinct calls are paced per host by a token bucket
+ * ({@code rate-per-second}, up to {@code burst} back to back). A caller that
+ * would wait longer than {@code max-wait-ms}, or find {@code max-queue}
+ * callers already waiting on the host, is rejected with
+ * {@link RejectedException} instead of piling up behind the limit.
+ * <p>
+ * Per host: {@code upstream.queue.depth} (callers waiting for a token),
+ * {@code upstream.wait} (time spent waiting) and {@code upstream.requests}
+ * tagged {@code outcome=executed|coalesced|rejected}.
+ */
+@Component
+public class UpstreamScheduler {
+
+  public static final String NOMINATIM = "nominatim";
+  public static final String OVERPASS = "overpass";
+
+  /** The call was not attempted because the host's queue is full or the wait too long. */
+  public static class RejectedException extends RuntimeException {
+    public RejectedException(String message) {
+      super(message);
+    }
+  }
+
+  private final class Bucket {
+    final double ratePerNano;
+    final double burst;
+    final AtomicInteger waiting = new AtomicInteger();
+    final Timer waitTimer;
+    final Counter executed;
+    final Counter coalesced;
+    final Counter rejected;
+    double tokens;
+    long refilledAt = System.nanoTime();
+
+    Bucket(String host, double ratePerSecond, int burst, MeterRegistry registry) {
+      this.ratePerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+      this.burst = burst;
+      this.tokens = burst;
+      Gauge.builder("upstream.queue.depth", waiting, AtomicInteger::get).tag("host", host).register(registry);
+      this.waitTimer = registry.timer("upstream.wait", "host", host);
+      this.executed = registry.counter("upstream.requests", "host", host, "outcome", "executed");
+      this.coalesced = registry.counter("upstream.requests", "host", host, "outcome", "coalesced");
+      this.rejected = registry.counter("upstream.requests", "host", host, "outcome", "rejected");
+    }
+
+    /**
+     * Takes a token, possibly one not yet refilled, and returns how long to
+     * wait before using it; -1 (nothing taken) when that exceeds the limit.
+     */
+    synchronized long reserve(long maxWaitNanos) {
+      long now = System.nanoTime();
+      tokens = Math.min(burst, tokens + (now - refilledAt) * ratePerNano);
+      refilledAt = now;
+      long wait = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / ratePerNano);
+      if (wait > maxWaitNanos) return -1;
+      tokens -= 1;
+      return wait;
+    }
+
+    void acquire(String key) throws InterruptedException {
+      if (waiting.incrementAndGet() > maxQueue) {
+        waiting.decrementAndGet();
+        rejected.increment();
+        throw new RejectedException("Upstream queue full for key " + key);
+      }
+      try {
+        long wait = reserve(maxWaitNanos);
+        if (wait < 0) {
+          rejected.increment();
+          throw new RejectedException("Upstream rate limit wait too long for key " + key);
+        }
+        long deadline = System.nanoTime() + wait;
+        for (long left = wait; left > 0; left = deadline - System.nanoTime()) {
+          LockSupport.parkNanos(left);
+          if (Thread.interrupted()) throw new InterruptedException();
+        }
+        waitTimer.record(wait, TimeUnit.NANOSECONDS);
+      } finally {
+        waiting.decrementAndGet();
+      }
+    }
+  }
+
+  private final Map<String, Bucket> buckets;
+  private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+  private final int maxQueue;
+  private final long maxWaitNanos;
+
+  public UpstreamScheduler(
+    MeterRegistry meterRegistry,
+    @Value("${app.upstream.nominatim.rate-per-second:1}") double nominatimRate,
+    @Value("${app.upstream.nominatim.burst:1}") int nominatimBurst,
+    @Value("${app.upstream.overpass.rate-per-second:1}") double overpassRate,
+    @Value("${app.upstream.overpass.burst:2}") int overpassBurst,
+    @Value("${app.upstream.max-queue:50}") int maxQueue,
+    @Value("${app.upstream.max-wait-ms:10000}") long maxWaitMs
+  ) {
+    this.maxQueue = maxQueue;
+    this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+    this.buckets = Map.of(
+      NOMINATIM, new Bucket(NOMINATIM, nominatimRate, nominatimBurst, meterRegistry),
+      OVERPASS, new Bucket(OVERPASS, overpassRate, overpassBurst, meterRegistry)
+    );
+  }
+
+  /**
+   * Runs {@code call} against {@code host} (one of the constants above), or
+   * joins an identical call already running. Rethrows the call's exception;
+   * throws {@link RejectedException} when the host is saturated.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T call(String host, String key, Callable<T> call) throws Exception {
+    Bucket bucket = buckets.get(host);
+    if (bucket == null) throw new IllegalArgumentException("Unknown upstream host: " + host);
+
+    String flightKey = host + '\n' + key;
+    CompletableFuture<Object> mine = new CompletableFuture<>();
+    CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, mine);
+    if (existing != null) {
+      bucket.coalesced.increment();
+      try {
+        return (T) existing.get();
+      } catch (ExecutionException e) {
+        throw e.getCause() instanceof Exception ex ? ex : e;
+      }
+    }
+
+    try {
+      bucket.acquire(key);
+      bucket.executed.increment();
+      T result = call.call();
+      mine.complete(result);
+      return result;
+    } catch (Throwable t) {
+      mine.completeExceptionally(t);
+      throw t;
+    } finally {
+      inFlight.remove(flightKey, mine);
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.freshbite.backend.service;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD haversine over coordinate arrays (JDK Vector API, incubator module
+ * {@code jdk.incubator.vector}). Compiled only with {@code -Pvector}, and
+ * loaded by name from {@link GeoMath} after it has checked the module is
+ * present, so the default build stays free of incubator warnings.
+ */
+final class VectorHaversine implements GeoMath.BulkHaversine {
+  private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+  private static final double HALF_RADIANS = Math.PI / 360;
+
+  VectorHaversine() {}
+
+  @Override
+  public void distancesKm(double lat, double lng, double[] lats, double[] lngs, double[] out, int n) {
+    double cosLat = Math.cos(Math.toRadians(lat));
+    int i = 0;
+    for (int upper = SPECIES.loopBound(n); i < upper; i += SPECIES.length()) {
+      DoubleVector la = DoubleVector.fromArray(SPECIES, lats, i);
+      DoubleVector lo = DoubleVector.fromArray(SPECIES, lngs, i);
+      DoubleVector sinDLat = la.sub(lat).mul(HALF_RADIANS).lanewise(VectorOperators.SIN);
+      DoubleVector sinDLng = lo.sub(lng).mul(HALF_RADIANS).lanewise(VectorOperators.SIN);
+      DoubleVector cosLa = la.mul(2 * HALF_RADIANS).lanewise(VectorOperators.COS);
+      DoubleVector a = sinDLng.mul(sinDLng).mul(cosLa).mul(cosLat).add(sinDLat.mul(sinDLat)).min(1.0);
+      a.lanewise(VectorOperators.SQRT)
+        .lanewise(VectorOperators.ASIN)
+        .mul(2 * GeoMath.EARTH_RADIUS_KM)
+        .intoArray(out, i);
+    }
+    for (; i < n; i++) {
+      out[i] = GeoMath.haversineKm(lat, lng, lats[i], lngs[i]);
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.freshbite.backend;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Boots the application against a throwaway Postgres; skipped when Docker is
+ * not available. One container serves every subclass in the JVM (started
+ * here rather than per class, so cached application contexts stay valid) and
+ * is removed by Testcontainers when the JVM exits.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresIntegrationTest {
+
+  @ServiceConnection
+  protected static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  static {
+    if (DockerClientFactory.instance().isDockerAvailable()) POSTGRES.start();
+  }
+}
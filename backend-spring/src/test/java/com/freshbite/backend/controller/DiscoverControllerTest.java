@@ -0,0 +1,59 @@
+package com.freshbite.backend.controller;
+
+import com.freshbite.backend.repository.RestaurantRepository;
+import com.freshbite.backend.service.DiscoverMerger;
+import com.freshbite.backend.service.NominatimService;
+import com.freshbite.backend.service.OverpassService;
+import com.freshbite.backend.service.UpstreamScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.Executor;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A saturated upstream queue must answer 503, not "Could not find location"
+ * or an empty list.
+ */
+class DiscoverControllerTest {
+  private final OverpassService overpassService = mock(OverpassService.class);
+  private final NominatimService nominatimService = mock(NominatimService.class);
+  private final RestaurantRepository restaurantRepository = mock(RestaurantRepository.class);
+  private MockMvc mvc;
+
+  @BeforeEach
+  void setUp() {
+    Executor direct = Runnable::run;
+    mvc = MockMvcBuilders.standaloneSetup(new DiscoverController(
+      overpassService, nominatimService, restaurantRepository, mock(DiscoverMerger.class), direct)).build();
+  }
+
+  @Test
+  void rejectedGeocodeIsServiceUnavailable() throws Exception {
+    when(nominatimService.geocode("Phoenix, AZ")).thenThrow(new UpstreamScheduler.RejectedException("Upstream queue full"));
+
+    mvc.perform(get("/api/discover").param("location", "Phoenix, AZ")).andExpect(status().isServiceUnavailable());
+    // Also when coordinates came along: the typed place is not silently ignored
+    mvc.perform(get("/api/discover").param("location", "Phoenix, AZ").param("lat", "30.2").param("lng", "-97.7"))
+      .andExpect(status().isServiceUnavailable());
+    verifyNoInteractions(overpassService);
+  }
+
+  @Test
+  void rejectedOverpassIsServiceUnavailable() throws Exception {
+    when(overpassService.findNearby(anyDouble(), anyDouble(), anyInt(), any(), anyInt()))
+      .thenThrow(new UpstreamScheduler.RejectedException("Upstream rate limit wait too long"));
+
+    mvc.perform(get("/api/discover").param("lat", "30.2").param("lng", "-97.7")).andExpect(status().isServiceUnavailable());
+  }
+}
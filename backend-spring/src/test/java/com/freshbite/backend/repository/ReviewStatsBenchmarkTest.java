@@ -0,0 +1,118 @@
+package com.freshbite.backend.repository;
+
+import com.freshbite.backend.PostgresIntegrationTest;
+import com.freshbite.backend.domain.Review;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Window stats for a dish with 10k reviews: hydrating every Review and
+ * averaging in Java (the old getReviews path) versus the single-row
+ * {@link ReviewRepository#aggregateAfter}. Reports median latency and bytes
+ * allocated by the calling thread; run with {@code mvn test -Pbench}.
+ */
+@Tag("benchmark")
+class ReviewStatsBenchmarkTest extends PostgresIntegrationTest {
+  private static final int REVIEWS = 10_000;
+  private static final int WARMUP = 5;
+  private static final int RUNS = 20;
+
+  @Autowired
+  private ReviewRepository reviewRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private final Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS); // createdAt is TIMESTAMP(3)
+  private String dishAtRestaurantId;
+
+  @BeforeEach
+  void seed() {
+    String restaurantId = UUID.randomUUID().toString();
+    String dishId = UUID.randomUUID().toString();
+    dishAtRestaurantId = UUID.randomUUID().toString();
+    jdbcTemplate.update("INSERT INTO \"Restaurant\" (id, name, country, timezone) VALUES (?, 'Bench', 'USA', 'UTC')", restaurantId);
+    jdbcTemplate.update("INSERT INTO \"Dish\" (id, name) VALUES (?, 'Bench Bowl')", dishId);
+    jdbcTemplate.update("""
+      INSERT INTO "DishAtRestaurant" (id, "restaurantId", "dishId", "isActive", "createdAt") VALUES (?, ?, ?, true, ?)
+      """, dishAtRestaurantId, restaurantId, dishId, Timestamp.from(now.minus(Duration.ofDays(7))));
+    jdbcTemplate.batchUpdate("""
+      INSERT INTO "Review" (id, "dishAtRestaurantId", rating, text, "createdAt") VALUES (?, ?, ?, ?, ?)
+      """, IntStream.range(0, REVIEWS).mapToObj(i -> new Object[] {
+        UUID.randomUUID().toString(), dishAtRestaurantId, 1 + i % 5, "Review text number " + i,
+        Timestamp.from(now.minusSeconds(1 + i * 8L))
+      }).toList());
+    jdbcTemplate.execute("ANALYZE \"Review\"");
+  }
+
+  @Test
+  void aggregateInDatabaseBeatsHydratingEntities() {
+    Instant cutoff = now.minus(Duration.ofDays(1));
+
+    Result entities = measure("hydrate entities + Java average", () -> transactionTemplate.execute(status -> {
+      List<Review> reviews = entityManager.createQuery("""
+          SELECT r FROM Review r WHERE r.dishAtRestaurant.id = :id AND r.createdAt > :cutoff
+          """, Review.class)
+        .setParameter("id", dishAtRestaurantId)
+        .setParameter("cutoff", cutoff)
+        .getResultList();
+      long sum = 0;
+      for (Review r : reviews) sum += r.getRating();
+      entityManager.clear();
+      return reviews.size() * 10L + sum;
+    }));
+    Result aggregate = measure("aggregateAfter", () -> {
+      ReviewAggregate a = reviewRepository.aggregateAfter(dishAtRestaurantId, cutoff);
+      return a.getReviewCount() * 10L + a.getRatingSum();
+    });
+
+    assertThat(aggregate.checksum).isEqualTo(entities.checksum);
+    assertThat(aggregate.allocatedBytes).isLessThan(entities.allocatedBytes);
+  }
+
+  private record Result(long medianMicros, long allocatedBytes, long checksum) {}
+
+  private static Result measure(String name, Supplier<Long> body) {
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long checksum = 0;
+    for (int i = 0; i < WARMUP; i++) checksum = body.get();
+    long[] micros = new long[RUNS];
+    long allocated = 0;
+    for (int i = 0; i < RUNS; i++) {
+      long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+      long start = System.nanoTime();
+      checksum = body.get();
+      micros[i] = (System.nanoTime() - start) / 1_000;
+      allocated += threads.getCurrentThreadAllocatedBytes() - bytesBefore;
+    }
+    Arrays.sort(micros);
+    Result result = new Result(micros[RUNS / 2], allocated / RUNS, checksum);
+    System.out.printf("%-34s reviews=%d median=%dus allocated=%dKB/op%n",
+      name, REVIEWS, result.medianMicros(), result.allocatedBytes() / 1024);
+    return result;
+  }
+}
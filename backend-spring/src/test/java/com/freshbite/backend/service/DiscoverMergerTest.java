@@ -0,0 +1,108 @@
+package com.freshbite.backend.service;
+
+import com.freshbite.backend.dto.DiscoveredRestaurant;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link DiscoverMerger} with the default thresholds: 100 m and a name
+ * similarity of 0.6.
+ */
+class DiscoverMergerTest {
+  private static final double LAT = 33.4484;
+  private static final double LNG = -112.0740;
+  // ~1 m of latitude
+  private static final double METRE = 1 / 111_195.0;
+
+  private final DiscoverMerger merger = new DiscoverMerger(100, 0.6);
+
+  @Test
+  void osmPlaceIdMatchesWhateverTheNameAndDistance() {
+    DiscoveredRestaurant o = osm(42, "Taqueria El Sol", LAT, LNG);
+    DiscoveredRestaurant fb = freshbite("fb1", 42, "Sunny's Tacos", LAT + 2_000 * METRE, LNG);
+
+    assertThat(merger.merge(List.of(o), List.of(fb)))
+      .singleElement()
+      .satisfies(r -> {
+        assertThat(r.freshbiteId()).isEqualTo("fb1");
+        assertThat(r.osmId()).isEqualTo(42);
+      });
+  }
+
+  @Test
+  void nearbySimilarNamesMatch() {
+    DiscoveredRestaurant o = osm(1, "Joe's Café & Grill", LAT, LNG);
+
+    // Same name once normalized, 30 m away
+    assertThat(merger.merge(List.of(o), List.of(freshbite("fb1", 0, "Joes Cafe Grill", LAT + 30 * METRE, LNG))))
+      .singleElement()
+      .satisfies(r -> assertThat(r.freshbiteId()).isEqualTo("fb1"));
+    // A close spelling, neither name containing the other (Dice ~0.83)
+    assertThat(merger.merge(List.of(o), List.of(freshbite("fb1", 0, "Joe's Kafe & Grill", LAT, LNG))))
+      .hasSize(1);
+    // Same name, but beyond 100 m
+    assertThat(merger.merge(List.of(o), List.of(freshbite("fb1", 0, "Joe's Café & Grill", LAT + 150 * METRE, LNG))))
+      .hasSize(2);
+    // Next door, but another restaurant
+    assertThat(merger.merge(List.of(o), List.of(freshbite("fb1", 0, "Burger Barn", LAT + 10 * METRE, LNG))))
+      .hasSize(2);
+  }
+
+  @Test
+  void containmentNeedsFourCharacters() {
+    // "kona" in "kona grill scottsdale": Dice alone is ~0.29
+    assertThat(merger.merge(List.of(osm(1, "Kona Grill Scottsdale", LAT, LNG)), List.of(freshbite("fb1", 0, "Kona", LAT, LNG))))
+      .hasSize(1);
+    // "pho" is too short to count as containment
+    assertThat(merger.merge(List.of(osm(1, "Pho Saigon Kitchen", LAT, LNG)), List.of(freshbite("fb1", 0, "Pho", LAT, LNG))))
+      .hasSize(2);
+  }
+
+  @Test
+  void freshBiteWinsAndKeepsOsmOnlyFields() {
+    DiscoveredRestaurant o = new DiscoveredRestaurant(7, "Pizzeria Bianco", "pizza", "623 E Adams St", "Phoenix", "AZ", "US",
+      "+1 602 258 8300", "https://pizzeriabianco.com", "Tu-Sa 11:00-21:00", "restaurant",
+      LAT + 20 * METRE, LNG, 0.4, "osm", null);
+    DiscoveredRestaurant fb = new DiscoveredRestaurant(0, "Pizzeria Bianco", null, "623 East Adams Street", "Phoenix", "AZ", "US",
+      null, null, null, "restaurant", LAT, LNG, 0.38, "freshbite", "fb1");
+
+    DiscoveredRestaurant merged = merger.merge(List.of(o), List.of(fb)).get(0);
+
+    assertThat(merged).isEqualTo(new DiscoveredRestaurant(7, "Pizzeria Bianco", "pizza", "623 East Adams Street",
+      "Phoenix", "AZ", "US", "+1 602 258 8300", "https://pizzeriabianco.com", "Tu-Sa 11:00-21:00", "restaurant",
+      LAT, LNG, 0.38, "freshbite", "fb1"));
+  }
+
+  @Test
+  void eachFreshBiteRowAbsorbsOneOsmElement() {
+    // Two OSM nodes for the same place (e.g. a node and a building outline)
+    List<DiscoveredRestaurant> osm = List.of(
+      osm(1, "Green Leaf Cafe", LAT, LNG),
+      osm(2, "Green Leaf Cafe", LAT + 5 * METRE, LNG)
+    );
+    List<DiscoveredRestaurant> merged = merger.merge(osm, List.of(freshbite("fb1", 0, "Green Leaf Cafe", LAT, LNG)));
+
+    assertThat(merged).extracting(DiscoveredRestaurant::osmId).containsExactly(1L, 2L);
+    assertThat(merged).extracting(DiscoveredRestaurant::freshbiteId).containsExactly("fb1", null);
+
+    // With a second row, each OSM node pairs with the nearer free row
+    merged = merger.merge(osm, List.of(
+      freshbite("fb1", 0, "Green Leaf Cafe", LAT, LNG),
+      freshbite("fb2", 0, "Green Leaf Cafe", LAT + 6 * METRE, LNG)
+    ));
+    assertThat(merged).extracting(DiscoveredRestaurant::freshbiteId).containsExactly("fb1", "fb2");
+  }
+
+  private static DiscoveredRestaurant osm(long id, String name, double lat, double lng) {
+    return new DiscoveredRestaurant(id, name, null, null, null, null, null, null, null, null,
+      "restaurant", lat, lng, null, "osm", null);
+  }
+
+  private static DiscoveredRestaurant freshbite(String id, long osmId, String name, double lat, double lng) {
+    return new DiscoveredRestaurant(osmId, name, null, null, null, null, null, null, null, null,
+      "restaurant", lat, lng, null, "freshbite", id);
+  }
+}
@@ -0,0 +1,11 @@
+package com.freshbite.backend.service;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * {@link DishListingStatementsTest} on the {@code like} backend, whose native
+ * query returns the rows the in-memory index hands to {@code findAllById}.
+ */
+@TestPropertySource(properties = "app.search.backend=like")
+class DishListingStatementsLikeTest extends DishListingStatementsTest {
+}
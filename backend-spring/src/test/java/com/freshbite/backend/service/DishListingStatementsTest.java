@@ -0,0 +1,107 @@
+package com.freshbite.backend.service;
+
+import com.freshbite.backend.PostgresIntegrationTest;
+import com.freshbite.backend.dto.DishListItemResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A listing page costs a fixed number of statements however many rows it has:
+ * the page query, one IN-batch each for Dish and Restaurant
+ * ({@code default_batch_fetch_size}), and one grouped review count
+ * ({@code countByDishAtRestaurantIds}). Search runs on the production
+ * default, the {@code memory} backend, reloaded after seeding so it holds the
+ * new rows; {@link DishListingStatementsLikeTest} repeats the tests on the
+ * {@code like} backend.
+ */
+@TestPropertySource(properties = {
+  "spring.jpa.properties.hibernate.generate_statistics=true",
+  // No periodic reloads: the seed reloads the index itself
+  "app.search.index.rebuild-minutes=0"
+})
+class DishListingStatementsTest extends PostgresIntegrationTest {
+  private static final int LISTING_STATEMENTS = 4;
+
+  @Autowired
+  private DishService dishService;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private CatalogSearchIndex catalogSearchIndex;
+
+  private Statistics statistics;
+  // Rows from other tests share the database; searches match only this seed
+  private final String tag = UUID.randomUUID().toString().substring(0, 8);
+
+  @BeforeEach
+  void seed() {
+    // Every row gets its own Dish and Restaurant, the worst case for per-row loading
+    Instant createdAt = Instant.now().plusSeconds(60);
+    for (int i = 0; i < 10; i++) {
+      String restaurantId = UUID.randomUUID().toString();
+      String dishId = UUID.randomUUID().toString();
+      String dishAtRestaurantId = UUID.randomUUID().toString();
+      jdbcTemplate.update("""
+        INSERT INTO "Restaurant" (id, name, city, country, timezone) VALUES (?, ?, 'Austin', 'USA', 'UTC')
+        """, restaurantId, "Listing Place " + i);
+      jdbcTemplate.update("INSERT INTO \"Dish\" (id, name) VALUES (?, ?)", dishId, "Listing Dish " + tag + " " + i);
+      jdbcTemplate.update("""
+        INSERT INTO "DishAtRestaurant" (id, "restaurantId", "dishId", "isActive", "createdAt") VALUES (?, ?, ?, true, ?)
+        """, dishAtRestaurantId, restaurantId, dishId, Timestamp.from(createdAt.plusMillis(i)));
+      for (int r = 0; r < i; r++) {
+        jdbcTemplate.update("""
+          INSERT INTO "Review" (id, "dishAtRestaurantId", rating, text, "createdAt") VALUES (?, ?, 4, 'ok', ?)
+          """, UUID.randomUUID().toString(), dishAtRestaurantId, Timestamp.from(Instant.now()));
+      }
+    }
+    catalogSearchIndex.load(); // a no-op unless the backend is memory
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  void recentDishesUseAFixedNumberOfStatements() {
+    List<DishListItemResponse> dishes = dishService.listRecentDishes();
+
+    assertThat(dishes).hasSize(10);
+    assertThat(statistics.getPrepareStatementCount())
+      .as("statements for a page of %d rows", dishes.size())
+      .isEqualTo(LISTING_STATEMENTS);
+    assertThat(dishes).allSatisfy(d -> {
+      assertThat(d.restaurantName()).startsWith("Listing Place ");
+      assertThat(d.reviewCount()).isEqualTo(Long.parseLong(d.restaurantName().substring("Listing Place ".length())));
+    });
+  }
+
+  @Test
+  void dishSearchUsesAFixedNumberOfStatements() {
+    List<DishListItemResponse> dishes = dishService.searchDishes(tag);
+
+    assertThat(dishes).hasSize(10);
+    assertThat(statistics.getPrepareStatementCount())
+      .as("statements for %d search results", dishes.size())
+      .isEqualTo(LISTING_STATEMENTS);
+    assertThat(dishes).allSatisfy(d -> {
+      assertThat(d.dishName()).contains(tag);
+      assertThat(d.reviewCount()).isEqualTo(Long.parseLong(d.restaurantName().substring("Listing Place ".length())));
+    });
+  }
+}
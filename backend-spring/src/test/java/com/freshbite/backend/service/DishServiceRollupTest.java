@@ -0,0 +1,143 @@
+package com.freshbite.backend.service;
+
+import com.freshbite.backend.PostgresIntegrationTest;
+import com.freshbite.backend.dto.ReviewStats;
+import com.freshbite.backend.dto.TimeWindow;
+import com.freshbite.backend.repository.ReviewAggregate;
+import com.freshbite.backend.repository.ReviewRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The rollup path must answer exactly what the raw {@code createdAt > cutoff}
+ * scan answers, whichever days have a settled, stale or missing rollup.
+ */
+@TestPropertySource(properties = "app.review-aggregates.enabled=false")
+class DishServiceRollupTest extends PostgresIntegrationTest {
+
+  @Autowired
+  private DishService dishService;
+
+  @Autowired
+  private ReviewRepository reviewRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private final Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+  private String dishAtRestaurantId;
+
+  @BeforeEach
+  void seed() {
+    String restaurantId = UUID.randomUUID().toString();
+    String dishId = UUID.randomUUID().toString();
+    dishAtRestaurantId = UUID.randomUUID().toString();
+    jdbcTemplate.update("""
+      INSERT INTO "Restaurant" (id, name, country, timezone) VALUES (?, 'Rollup Diner', 'USA', 'UTC')
+      """, restaurantId);
+    jdbcTemplate.update("INSERT INTO \"Dish\" (id, name) VALUES (?, 'Rollup Soup')", dishId);
+    jdbcTemplate.update("""
+      INSERT INTO "DishAtRestaurant" (id, "restaurantId", "dishId", "isActive", "createdAt") VALUES (?, ?, ?, true, ?)
+      """, dishAtRestaurantId, restaurantId, dishId, Timestamp.from(now.minus(Duration.ofDays(7))));
+  }
+
+  @Test
+  void rollupPlusRawEdgesEqualsRawScan() {
+    Random random = new Random(42);
+    List<Instant> times = new ArrayList<>();
+    for (int i = 0; i < 400; i++) {
+      times.add(now.minusMillis((long) (random.nextDouble() * Duration.ofDays(6).toMillis())));
+    }
+    // Edges every window must get right
+    for (TimeWindow window : TimeWindow.values()) {
+      Instant cutoff = window.cutoff(now);
+      times.add(cutoff);
+      times.add(cutoff.plusMillis(1));
+      times.add(cutoff.minusMillis(1));
+    }
+    LocalDate today = now.atZone(ZoneOffset.UTC).toLocalDate();
+    for (int d = 0; d <= 6; d++) {
+      Instant midnight = today.minusDays(d).atStartOfDay(ZoneOffset.UTC).toInstant();
+      times.add(midnight);
+      times.add(midnight.minusMillis(1));
+    }
+
+    TreeMap<LocalDate, long[]> byDay = new TreeMap<>();
+    for (Instant at : times) {
+      if (at.isAfter(now)) continue;
+      int rating = 1 + random.nextInt(5);
+      insertReview(at, rating);
+      long[] day = byDay.computeIfAbsent(at.atZone(ZoneOffset.UTC).toLocalDate(), k -> new long[2]);
+      day[0]++;
+      day[1] += rating;
+    }
+
+    // Settled rollups for most days; one day missing, one refreshed too early with wrong numbers
+    LocalDate missing = today.minusDays(2);
+    LocalDate stale = today.minusDays(3);
+    byDay.forEach((day, totals) -> {
+      if (day.equals(today) || day.equals(missing)) return;
+      Instant dayEnd = day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+      if (day.equals(stale)) {
+        insertRollup(day, totals[0] / 2, totals[1] / 2, dayEnd.minusSeconds(60));
+      } else {
+        insertRollup(day, totals[0], totals[1], dayEnd.plus(Duration.ofMinutes(10)));
+      }
+    });
+
+    for (TimeWindow window : TimeWindow.values()) {
+      ReviewAggregate raw = reviewRepository.aggregateAfter(dishAtRestaurantId, window.cutoff(now));
+      assertThat(raw.getReviewCount()).isPositive();
+      ReviewStats expected = new ReviewStats(
+        Math.round((double) raw.getRatingSum() / raw.getReviewCount() * 10.0) / 10.0,
+        (int) raw.getReviewCount(),
+        window.getValue()
+      );
+      assertThat(dishService.rollupStats(dishAtRestaurantId, window, now))
+        .as("window %s", window.getValue())
+        .isEqualTo(expected);
+    }
+  }
+
+  @Test
+  void emptyWindowHasNoAverage() {
+    insertReview(now.minus(Duration.ofDays(6)), 5);
+    assertThat(dishService.rollupStats(dishAtRestaurantId, TimeWindow.H24, now))
+      .isEqualTo(new ReviewStats(null, 0, "24h"));
+  }
+
+  private void insertReview(Instant createdAt, int rating) {
+    jdbcTemplate.update("""
+      INSERT INTO "Review" (id, "dishAtRestaurantId", rating, text, "createdAt") VALUES (?, ?, ?, 'ok', ?)
+      """, UUID.randomUUID().toString(), dishAtRestaurantId, rating, ts(createdAt));
+  }
+
+  private void insertRollup(LocalDate day, long count, long sum, Instant updatedAt) {
+    jdbcTemplate.update("""
+      INSERT INTO daily_rollup (id, "dishAtRestaurantId", "rollupDate", "reviewCount", "ratingSum",
+        rating_1_count, rating_2_count, rating_3_count, rating_4_count, rating_5_count, "updatedAt")
+      VALUES (?, ?, ?, ?, ?, 0, 0, 0, 0, 0, ?)
+      """, UUID.randomUUID().toString(), dishAtRestaurantId, day, count, sum, ts(updatedAt));
+  }
+
+  private static Timestamp ts(Instant instant) {
+    return Timestamp.from(instant);
+  }
+}
@@ -0,0 +1,39 @@
+package com.freshbite.backend.service;
+
+import com.freshbite.backend.domain.Restaurant;
+import com.freshbite.backend.event.RestaurantCreatedEvent;
+import com.freshbite.backend.repository.DishAtRestaurantRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link FuzzyMatcher} re-reads its vocabulary while restaurants are created.
+ */
+class FuzzyMatcherTest {
+  private final DishAtRestaurantRepository dishAtRestaurantRepository = mock(DishAtRestaurantRepository.class);
+  private final FuzzyMatcher matcher = new FuzzyMatcher(dishAtRestaurantRepository, 50, 5_000, 0);
+
+  @Test
+  void wordsAddedDuringRefreshAreKept() {
+    // Created while the rows are loading, so the re-read does not see it
+    when(dishAtRestaurantRepository.findActiveSearchRows()).thenAnswer(inv -> {
+      Restaurant created = new Restaurant();
+      created.setName("Quesadilla Palace");
+      created.setCity("Austin");
+      matcher.onRestaurantCreated(new RestaurantCreatedEvent(created));
+      return List.<Object[]>of(new Object[] {"dar1", "Chicken Tikka", "Indian", "Curry House", "1 Main St", "Austin", Instant.now()});
+    });
+
+    matcher.load();
+
+    assertThat(matcher.correct("quesadilla palace")).as("known words are left alone").isEmpty();
+    assertThat(matcher.correct("quesadila")).contains("quesadilla");
+    assertThat(matcher.correct("chiken tikka")).contains("chicken tikka");
+  }
+}
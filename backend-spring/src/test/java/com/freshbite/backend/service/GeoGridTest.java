@@ -0,0 +1,107 @@
+package com.freshbite.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * {@link GeoGrid} queries checked against a brute-force scan of the same
+ * points, with clusters at both poles and astride the antimeridian where the
+ * ring scan has to wrap or stop early.
+ */
+class GeoGridTest {
+  private static final double CELL_DEGREES = 0.5;
+
+  private record Point(int id, double lat, double lng) {}
+
+  private final Random random = new Random(42);
+  private final List<Point> points = new ArrayList<>();
+  private final GeoGrid<Point> grid = new GeoGrid<>(CELL_DEGREES);
+
+  @Test
+  void nearestMatchesBruteForce() {
+    populate();
+    for (double[] q : queries()) {
+      for (int k : new int[] {1, 5, 40}) {
+        assertSame(grid.nearest(q[0], q[1], k, p -> true), bruteForce(q[0], q[1], Double.POSITIVE_INFINITY, k, p -> true));
+        Predicate<Point> even = p -> p.id() % 2 == 0;
+        assertSame(grid.nearest(q[0], q[1], k, even), bruteForce(q[0], q[1], Double.POSITIVE_INFINITY, k, even));
+      }
+    }
+  }
+
+  @Test
+  void withinRadiusMatchesBruteForce() {
+    populate();
+    for (double[] q : queries()) {
+      for (double radiusKm : new double[] {1, 25, 150, 1_500}) {
+        assertSame(grid.withinRadius(q[0], q[1], radiusKm, 30, p -> true), bruteForce(q[0], q[1], radiusKm, 30, p -> true));
+      }
+    }
+  }
+
+  @Test
+  void sparseGridFallsBackToLinearScan() {
+    add(89.9, 10);
+    add(-89.9, -170);
+    add(0, 179.99);
+
+    // The only other point is on the far side of the planet
+    assertThat(grid.nearest(89.9, 10, 2, p -> true)).extracting(h -> h.point().lat()).containsExactly(89.9, 0.0);
+    assertThat(grid.nearest(0, -179.99, 1, p -> true)).extracting(h -> h.point().lng()).containsExactly(179.99);
+  }
+
+  private void populate() {
+    for (int i = 0; i < 1_500; i++) add(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180);
+    // Around both poles, where a degree of longitude is almost no distance
+    for (int i = 0; i < 300; i++) add(88 + random.nextDouble() * 2, random.nextDouble() * 360 - 180);
+    for (int i = 0; i < 300; i++) add(-90 + random.nextDouble() * 2, random.nextDouble() * 360 - 180);
+    // Straddling ±180°
+    for (int i = 0; i < 300; i++) {
+      double lng = 178 + random.nextDouble() * 4;
+      add(-10 + random.nextDouble() * 20, lng > 180 ? lng - 360 : lng);
+    }
+  }
+
+  private List<double[]> queries() {
+    List<double[]> queries = new ArrayList<>(List.of(
+      new double[] {90, 0}, new double[] {89.95, 179.9}, new double[] {-90, 45}, new double[] {-89.7, -179.99},
+      new double[] {0, 180}, new double[] {0, -180}, new double[] {5, 179.8}, new double[] {-5, -179.8},
+      new double[] {30.2672, -97.7431}
+    ));
+    for (int i = 0; i < 40; i++) queries.add(new double[] {random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180});
+    return queries;
+  }
+
+  private void add(double lat, double lng) {
+    Point p = new Point(points.size(), lat, lng);
+    points.add(p);
+    grid.add(p, lat, lng);
+  }
+
+  private List<GeoGrid.Hit<Point>> bruteForce(double lat, double lng, double radiusKm, int k, Predicate<Point> filter) {
+    List<GeoGrid.Hit<Point>> all = new ArrayList<>();
+    for (Point p : points) {
+      double d = GeoMath.haversineKm(lat, lng, p.lat(), p.lng());
+      if (d <= radiusKm && filter.test(p)) all.add(new GeoGrid.Hit<>(p, d));
+    }
+    all.sort(Comparator.comparingDouble(GeoGrid.Hit::distanceKm));
+    return all.subList(0, Math.min(k, all.size()));
+  }
+
+  // Random positions never tie, so the order is fully determined
+  private static void assertSame(List<GeoGrid.Hit<Point>> actual, List<GeoGrid.Hit<Point>> expected) {
+    assertThat(actual).hasSameSizeAs(expected);
+    for (int i = 0; i < expected.size(); i++) {
+      assertThat(actual.get(i).point()).isEqualTo(expected.get(i).point());
+      assertThat(actual.get(i).distanceKm()).isCloseTo(expected.get(i).distanceKm(), within(1e-9));
+    }
+  }
+}
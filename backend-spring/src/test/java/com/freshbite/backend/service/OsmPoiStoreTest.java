@@ -0,0 +1,141 @@
+package com.freshbite.backend.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * {@link OsmPoiImporter} over a small Overpass dump (eleven elements in
+ * Austin, San Antonio and Dallas: eight POIs, a bar and an ice cream cart
+ * that are skipped, and an unnamed restaurant the parser drops), and
+ * {@link OsmPoiStore} over the file it writes.
+ */
+class OsmPoiStoreTest {
+  private static final double AUSTIN_LAT = 30.2672;
+  private static final double AUSTIN_LNG = -97.7431;
+
+  @TempDir
+  Path dir;
+
+  @ParameterizedTest
+  @ValueSource(strings = {"osm-extract.json", "osm-extract.json.gz"})
+  void importsPlainAndGzippedDumps(String fixture) throws Exception {
+    Path target = dir.resolve("pois.bin");
+    OsmPoiImporter.Result result = OsmPoiImporter.run(new JsonFactory(), fixture(fixture), target);
+
+    assertThat(result.imported()).isEqualTo(8);
+    assertThat(result.skipped()).isEqualTo(2);
+    assertThat(result.bytes()).isEqualTo(Files.size(target));
+    try (OsmPoiStore store = new OsmPoiStore(target)) {
+      assertThat(store.size()).isEqualTo(8);
+      assertThat(store.importedAtMillis()).isPositive();
+    }
+    try (var files = Files.list(dir)) {
+      assertThat(files).as("temporary files removed").containsExactly(target);
+    }
+  }
+
+  @Test
+  void withinFiltersByBoxAndName() throws Exception {
+    try (OsmPoiStore store = imported()) {
+      GeoMath.BoundingBox downtown = GeoMath.boundingBox(AUSTIN_LAT, AUSTIN_LNG, 1.0);
+      assertThat(store.within(downtown, null)).extracting(OverpassService.OverpassRestaurant::osmId)
+        .containsExactlyInAnyOrder(1001L, 1002L, 1003L, 1004L);
+      assertThat(store.within(downtown, "taco")).extracting(OverpassService.OverpassRestaurant::osmId)
+        .containsExactly(1002L);
+      assertThat(store.within(downtown, "COFFEE")).extracting(OverpassService.OverpassRestaurant::osmId)
+        .containsExactly(1003L);
+
+      GeoMath.BoundingBox sanAntonio = GeoMath.boundingBox(29.4241, -98.4936, 2.0);
+      assertThat(store.within(sanAntonio, "taco")).extracting(OverpassService.OverpassRestaurant::osmId)
+        .containsExactly(2001L);
+      assertThat(store.within(GeoMath.boundingBox(35.0, -101.0, 5.0), null)).isEmpty();
+
+      // Central Texas, wide enough to span coarse cells: everything but Dallas
+      GeoMath.BoundingBox region = new GeoMath.BoundingBox(29.0, 31.0, -99.0, -97.0);
+      assertThat(store.within(region, null)).hasSize(7);
+    }
+  }
+
+  @Test
+  void recordsRoundTrip() throws Exception {
+    try (OsmPoiStore store = imported()) {
+      List<OverpassService.OverpassRestaurant> found = store.within(GeoMath.boundingBox(30.2649, -97.7436, 0.05), null);
+      assertThat(found).hasSize(1);
+      OverpassService.OverpassRestaurant r = found.get(0);
+      assertThat(r.osmId()).isEqualTo(1001L);
+      assertThat(r.name()).isEqualTo("Congress Taqueria");
+      assertThat(r.cuisine()).isEqualTo("mexican");
+      assertThat(r.address()).isEqualTo("101 Congress Avenue");
+      assertThat(r.city()).isEqualTo("Austin");
+      assertThat(r.state()).isEqualTo("TX");
+      assertThat(r.country()).isNull();
+      assertThat(r.phone()).isNull();
+      assertThat(r.openingHours()).isEqualTo("Mo-Su 10:00-22:00");
+      assertThat(r.type()).isEqualTo("restaurant");
+      assertThat(r.latitude()).isCloseTo(30.2649, within(1e-7));
+      assertThat(r.longitude()).isCloseTo(-97.7436, within(1e-7));
+
+      // Ways are stored at their centre
+      OverpassService.OverpassRestaurant way = store.within(GeoMath.boundingBox(30.2691, -97.7422, 0.05), null).get(0);
+      assertThat(way.osmId()).isEqualTo(1003L);
+      assertThat(way.type()).isEqualTo("cafe");
+      assertThat(way.website()).isEqualTo("https://coffee.example/");
+    }
+  }
+
+  @Test
+  void rejectsCorruptHeader() throws Exception {
+    Path target = dir.resolve("pois.bin");
+    OsmPoiImporter.run(new JsonFactory(), fixture("osm-extract.json"), target);
+
+    Path wrongMagic = copyWith(target, "magic.bin", 0, 0x12345678);
+    assertThatThrownBy(() -> new OsmPoiStore(wrongMagic)).isInstanceOf(IOException.class).hasMessageContaining("Not a version");
+
+    Path wrongCount = copyWith(target, "count.bin", 8, 9);
+    assertThatThrownBy(() -> new OsmPoiStore(wrongCount)).isInstanceOf(IOException.class).hasMessageContaining("Corrupt");
+
+    Path truncated = dir.resolve("truncated.bin");
+    Files.write(truncated, new byte[OsmPoiStore.HEADER_BYTES - 1]);
+    assertThatThrownBy(() -> new OsmPoiStore(truncated)).isInstanceOf(IOException.class).hasMessageContaining("Bad POI store size");
+  }
+
+  @Test
+  void rejectsPbf() {
+    assertThatThrownBy(() -> OsmPoiImporter.run(new JsonFactory(), dir.resolve("texas-latest.osm.pbf"), dir.resolve("pois.bin")))
+      .isInstanceOf(IOException.class).hasMessageContaining("PBF");
+  }
+
+  private OsmPoiStore imported() throws Exception {
+    Path target = dir.resolve("pois.bin");
+    OsmPoiImporter.run(new JsonFactory(), fixture("osm-extract.json"), target);
+    return new OsmPoiStore(target);
+  }
+
+  private Path copyWith(Path source, String name, int offset, int value) throws IOException {
+    Path copy = Files.copy(source, dir.resolve(name));
+    try (FileChannel ch = FileChannel.open(copy, StandardOpenOption.WRITE)) {
+      ch.write(ByteBuffer.allocate(4).putInt(0, value), offset);
+    }
+    return copy;
+  }
+
+  private static Path fixture(String name) throws URISyntaxException {
+    return Path.of(OsmPoiStoreTest.class.getResource("/overpass/" + name).toURI());
+  }
+}
@@ -0,0 +1,214 @@
+package com.freshbite.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link OverpassEndpointPool} against local stand-in servers that answer
+ * after a configurable delay, fail their first requests, and notice when the
+ * client hangs up. Most cases drive the pool with a bare-socket attempt; one
+ * goes through {@link OverpassService} and its WebClient.
+ */
+class OverpassEndpointPoolTest {
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final List<StandIn> servers = new ArrayList<>();
+
+  @AfterEach
+  void stop() {
+    servers.forEach(s -> s.server.stop(0));
+    executor.shutdownNow();
+  }
+
+  @Test
+  void hedgeWinsAndLoserIsCancelled() throws Exception {
+    StandIn slow = standIn("slow", 5_000, 0);
+    StandIn fast = standIn("fast", 0, 0);
+    // Untried endpoints tie, so the first request goes to the slow one in config order
+    OverpassEndpointPool pool = pool(List.of(slow.url(), fast.url()), true, 10_000, 3, 30);
+
+    long start = System.nanoTime();
+    assertThat(pool.execute(OverpassEndpointPoolTest::get)).isEqualTo("fast");
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2_000);
+
+    assertThat(slow.disconnected.await(2, TimeUnit.SECONDS)).as("losing request closed").isTrue();
+    assertThat(registry.counter("overpass.hedge", "outcome", "sent").count()).isEqualTo(1);
+    assertThat(registry.counter("overpass.hedge", "outcome", "won").count()).isEqualTo(1);
+  }
+
+  @Test
+  void overpassServiceHedgesThroughWebClient() throws Exception {
+    StandIn slow = standIn(elements("Slow Diner"), 5_000, 0);
+    StandIn fast = standIn(elements("Fast Diner"), 0, 0);
+    ObjectMapper objectMapper = new ObjectMapper();
+    OverpassService service = new OverpassService(
+      objectMapper,
+      new OverpassTileCache(registry, false, 5, 64, 9, 50_000, 60, 168),
+      new LocalPoiIndex(objectMapper, "remote", "unused.bin", ""),
+      new UpstreamScheduler(registry, 100, 100, 100, 100, 50, 10_000),
+      pool(List.of(slow.url(), fast.url()), true, 10_000, 3, 30));
+
+    long start = System.nanoTime();
+    assertThat(service.findNearby(30.2672, -97.7431, 1_000, null, 10))
+      .extracting(OverpassService.OverpassRestaurant::name)
+      .containsExactly("Fast Diner");
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2_000);
+
+    assertThat(slow.disconnected.await(2, TimeUnit.SECONDS)).as("losing exchange cancelled").isTrue();
+    assertThat(registry.counter("overpass.hedge", "outcome", "won").count()).isEqualTo(1);
+  }
+
+  @Test
+  void circuitOpensAfterFailureThreshold() throws Exception {
+    StandIn failing = standIn("failing", 0, Integer.MAX_VALUE);
+    OverpassEndpointPool pool = pool(List.of(failing.url()), false, 10_000, 3, 30);
+
+    for (int i = 0; i < 3; i++) {
+      assertThatThrownBy(() -> pool.execute(OverpassEndpointPoolTest::get)).hasMessageContaining("HTTP 500");
+    }
+    assertThat(registry.get("overpass.endpoint.circuit.open").gauge().value()).isEqualTo(1);
+
+    assertThatThrownBy(() -> pool.execute(OverpassEndpointPoolTest::get))
+      .isInstanceOf(OverpassEndpointPool.UnavailableException.class);
+    assertThat(failing.hits).as("nothing sent while open").hasValue(3);
+  }
+
+  @Test
+  void halfOpenTrialClosesCircuit() throws Exception {
+    StandIn flaky = standIn("recovered", 0, 3);
+    OverpassEndpointPool pool = pool(List.of(flaky.url()), false, 10_000, 3, 1);
+
+    for (int i = 0; i < 3; i++) {
+      assertThatThrownBy(() -> pool.execute(OverpassEndpointPoolTest::get)).hasMessageContaining("HTTP 500");
+    }
+    assertThatThrownBy(() -> pool.execute(OverpassEndpointPoolTest::get))
+      .isInstanceOf(OverpassEndpointPool.UnavailableException.class);
+
+    Thread.sleep(1_100);
+    assertThat(pool.execute(OverpassEndpointPoolTest::get)).isEqualTo("recovered");
+    assertThat(registry.get("overpass.endpoint.circuit.open").gauge().value()).isZero();
+    assertThat(pool.execute(OverpassEndpointPoolTest::get)).isEqualTo("recovered");
+    assertThat(flaky.hits).hasValue(5);
+  }
+
+  @Test
+  void deadlineTimeoutCancelsRequest() throws Exception {
+    StandIn slow = standIn("slow", 5_000, 0);
+    OverpassEndpointPool pool = pool(List.of(slow.url()), false, 300, 3, 30);
+
+    long start = System.nanoTime();
+    assertThatThrownBy(() -> pool.execute(OverpassEndpointPoolTest::get)).isInstanceOf(TimeoutException.class);
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isBetween(300L, 2_000L);
+    assertThat(slow.disconnected.await(2, TimeUnit.SECONDS)).as("timed-out request closed").isTrue();
+  }
+
+  private OverpassEndpointPool pool(List<String> urls, boolean hedge, long timeoutMs, int failureThreshold, long openSeconds) {
+    return new OverpassEndpointPool(registry, executor, urls, hedge, 100, 50, 1_000, timeoutMs, failureThreshold, openSeconds);
+  }
+
+  /**
+   * What OverpassService does per attempt, over a bare socket so that closing
+   * it from the cancelling thread reliably aborts the read.
+   */
+  private static String get(String url, Consumer<Closeable> onCancel) throws IOException {
+    URI uri = URI.create(url);
+    try (Socket socket = new Socket(uri.getHost(), uri.getPort())) {
+      onCancel.accept(socket);
+      OutputStream out = socket.getOutputStream();
+      out.write(("GET " + uri.getPath() + " HTTP/1.1\r\nHost: " + uri.getHost() + "\r\nConnection: close\r\n\r\n")
+        .getBytes(StandardCharsets.US_ASCII));
+      out.flush();
+      String response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+      int status = Integer.parseInt(response.substring("HTTP/1.1 ".length(), "HTTP/1.1 ".length() + 3));
+      if (status != 200) throw new IOException("HTTP " + status + " from " + url);
+      return response.substring(response.indexOf("\r\n\r\n") + 4).trim();
+    }
+  }
+
+  private static String elements(String name) {
+    return "{\"version\":0.6,\"elements\":[{\"type\":\"node\",\"id\":1,\"lat\":30.2672,\"lon\":-97.7431,"
+      + "\"tags\":{\"amenity\":\"restaurant\",\"name\":\"" + name + "\"}}]}";
+  }
+
+  private StandIn standIn(String body, long delayMs, int failures) throws IOException {
+    StandIn standIn = new StandIn(body, delayMs, failures);
+    standIn.server.setExecutor(executor);
+    standIn.server.start();
+    servers.add(standIn);
+    return standIn;
+  }
+
+  /**
+   * Answers {@code body} after {@code delayMs}, trickling whitespace
+   * meanwhile so a client hang-up surfaces as a failed write; the first
+   * {@code failures} requests get a 500.
+   */
+  private static final class StandIn {
+    final HttpServer server;
+    final String body;
+    final long delayMs;
+    final int failures;
+    final AtomicInteger hits = new AtomicInteger();
+    final CountDownLatch disconnected = new CountDownLatch(1);
+
+    StandIn(String body, long delayMs, int failures) throws IOException {
+      this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+      this.body = body;
+      this.delayMs = delayMs;
+      this.failures = failures;
+      server.createContext("/api/interpreter", this::handle);
+    }
+
+    String url() {
+      return "http://127.0.0.1:" + server.getAddress().getPort() + "/api/interpreter";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+      exchange.getRequestBody().readAllBytes();
+      if (hits.incrementAndGet() <= failures) {
+        exchange.sendResponseHeaders(500, -1);
+        exchange.close();
+        return;
+      }
+      byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+      int padding = (int) (delayMs / 20);
+      exchange.sendResponseHeaders(200, padding + bytes.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        for (int i = 0; i < padding; i++) {
+          out.write(' ');
+          out.flush();
+          Thread.sleep(20);
+        }
+        out.write(bytes);
+      } catch (IOException e) {
+        disconnected.countDown();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package com.freshbite.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link OverpassService}'s WebClient path ({@code post}) against a stand-in
+ * Overpass server that streams one element every 20 ms and notices when the
+ * client hangs up. Tiles are disabled, so every call is a direct query.
+ */
+class OverpassServiceTest {
+  private static final double LAT = 30.2672;
+  private static final double LNG = -97.7431;
+  private static final int ELEMENTS = 250; // ~5 s to stream in full
+
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final CountDownLatch disconnected = new CountDownLatch(1);
+  private final AtomicInteger written = new AtomicInteger();
+  private HttpServer server;
+
+  @AfterEach
+  void stop() {
+    if (server != null) server.stop(0);
+    executor.shutdownNow();
+  }
+
+  @Test
+  void earlyStopClosesStreamAndCancelsExchange() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/api/interpreter", this::trickle);
+    server.setExecutor(executor);
+    server.start();
+    OverpassService service = service(List.of("http://127.0.0.1:" + server.getAddress().getPort() + "/api/interpreter"));
+
+    long start = System.nanoTime();
+    List<OverpassService.OverpassRestaurant> found = service.findNearby(LAT, LNG, 1_000, "taco", 2);
+
+    assertThat(found).extracting(OverpassService.OverpassRestaurant::name).containsExactly("Taco Stand 0", "Taco Stand 2");
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2_000);
+    assertThat(disconnected.await(3, TimeUnit.SECONDS)).as("exchange cancelled once the limit was reached").isTrue();
+    assertThat(written.get()).isLessThan(ELEMENTS);
+  }
+
+  private OverpassService service(List<String> urls) {
+    ObjectMapper objectMapper = new ObjectMapper();
+    return new OverpassService(
+      objectMapper,
+      new OverpassTileCache(registry, false, 5, 64, 9, 50_000, 60, 168),
+      new LocalPoiIndex(objectMapper, "remote", "unused.bin", ""),
+      new UpstreamScheduler(registry, 100, 100, 100, 100, 50, 10_000),
+      new OverpassEndpointPool(registry, executor, urls, true, 300, 50, 1_000, 10_000, 3, 30));
+  }
+
+  /** Streams {@value #ELEMENTS} elements near the centre, alternating taco and burger places. */
+  private void trickle(HttpExchange exchange) throws IOException {
+    exchange.getRequestBody().readAllBytes();
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, 0);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write("{\"version\":0.6,\"elements\":[".getBytes(StandardCharsets.UTF_8));
+      for (int i = 0; i < ELEMENTS; i++) {
+        String name = (i % 2 == 0 ? "Taco Stand " : "Burger Barn ") + i;
+        out.write(String.format(Locale.US,
+          "%s{\"type\":\"node\",\"id\":%d,\"lat\":%.7f,\"lon\":%.7f,\"tags\":{\"amenity\":\"restaurant\",\"name\":\"%s\"}}",
+          i == 0 ? "" : ",", i + 1, LAT + i * 1e-5, LNG, name).getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        written.incrementAndGet();
+        Thread.sleep(20);
+      }
+      out.write("]}".getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      disconnected.countDown();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,207 @@
+package com.freshbite.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link OverpassService#findNearby} through {@link OverpassTileCache} against
+ * a stand-in Overpass server that answers bounding-box queries from a fixed
+ * set of restaurants and records every query it receives.
+ */
+class OverpassTileCacheTest {
+  private static final double LAT = 30.2672;
+  private static final double LNG = -97.7431;
+  private static final Pattern BBOX = Pattern.compile("\\((-?[\\d.]+),(-?[\\d.]+),(-?[\\d.]+),(-?[\\d.]+)\\)");
+
+  private record Poi(long id, String name, double lat, double lng) {}
+
+  private final List<Poi> pois = new ArrayList<>();
+  private final List<String> queries = new CopyOnWriteArrayList<>();
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private volatile CountDownLatch gate = new CountDownLatch(0);
+  private HttpServer server;
+  private OverpassTileCache tileCache;
+  private OverpassService service;
+
+  private void start(long freshMinutes) throws IOException {
+    // A 21 x 21 grid, ~1 km apart, around downtown Austin
+    for (int i = 0; i < 21; i++) {
+      for (int j = 0; j < 21; j++) {
+        String name = (i + j) % 2 == 0 ? "Taco Stand " + i + "-" + j : "Burger Barn " + i + "-" + j;
+        // At the 7 decimals the stand-in writes, so decoded positions compare equal
+        double lat = Math.round((LAT + (i - 10) * 0.009) * 1e7) / 1e7;
+        double lng = Math.round((LNG + (j - 10) * 0.0104) * 1e7) / 1e7;
+        pois.add(new Poi(pois.size() + 1, name, lat, lng));
+      }
+    }
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/api/interpreter", this::answer);
+    server.setExecutor(executor);
+    server.start();
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    ObjectMapper objectMapper = new ObjectMapper();
+    tileCache = new OverpassTileCache(registry, true, 5, 64, 9, 50_000, freshMinutes, 168);
+    service = new OverpassService(
+      objectMapper,
+      tileCache,
+      new LocalPoiIndex(objectMapper, "remote", "unused.bin", ""),
+      new UpstreamScheduler(registry, 100, 100, 100, 100, 50, 10_000),
+      new OverpassEndpointPool(registry, executor,
+        List.of("http://127.0.0.1:" + server.getAddress().getPort() + "/api/interpreter"),
+        false, 3_000, 500, 10_000, 10_000, 3, 30));
+  }
+
+  @AfterEach
+  void stop() {
+    gate.countDown();
+    if (tileCache != null) tileCache.shutdown();
+    if (server != null) server.stop(0);
+    executor.shutdownNow();
+  }
+
+  @Test
+  void panningAndNameChangesAreServedFromTiles() throws IOException {
+    start(60);
+
+    List<OverpassService.OverpassRestaurant> first = service.findNearby(LAT, LNG, 3_000, null, 500);
+    assertThat(queries).hasSize(1);
+    assertThat(queries.get(0)).doesNotContain("around:");
+    assertThat(first).isNotEmpty();
+
+    // A few hundred metres north, a smaller radius and a name filter: all inside the cached tiles
+    List<OverpassService.OverpassRestaurant> panned = service.findNearby(LAT + 0.003, LNG, 1_000, "taco", 500);
+    assertThat(queries).hasSize(1);
+    assertThat(panned).isNotEmpty().allSatisfy(r -> {
+      assertThat(r.name()).startsWith("Taco Stand");
+      assertThat(GeoMath.haversineKm(LAT + 0.003, LNG, r.latitude(), r.longitude())).isLessThanOrEqualTo(1.0);
+    });
+    assertThat(panned).hasSameElementsAs(expected(LAT + 0.003, LNG, 1.0, "taco"));
+  }
+
+  @Test
+  void staleTilesAreServedWhileOneRefreshRuns() throws Exception {
+    start(0); // every cached tile is stale at once
+
+    List<OverpassService.OverpassRestaurant> first = service.findNearby(LAT, LNG, 2_000, null, 500);
+    assertThat(queries).hasSize(1);
+
+    gate = new CountDownLatch(1); // hold the refresh at the server
+    for (int i = 0; i < 3; i++) {
+      assertThat(service.findNearby(LAT, LNG, 2_000, null, 500)).hasSameElementsAs(first);
+    }
+    await(() -> queries.size() == 2);
+    Thread.sleep(200);
+    assertThat(queries).as("one refresh for concurrent stale reads").hasSize(2);
+    gate.countDown();
+  }
+
+  @Test
+  void wideColdRequestIsAnsweredDirectlyAndFilledInBackground() throws Exception {
+    start(60);
+
+    List<OverpassService.OverpassRestaurant> first = service.findNearby(LAT, LNG, 8_000, null, 500);
+    assertThat(queries).anySatisfy(q -> assertThat(q).contains("around:8000"));
+    assertThat(first).hasSameElementsAs(expected(LAT, LNG, 8.0, null));
+
+    // Every covering tile is filled, each query spanning at most 3 x 3 tiles
+    List<String> cover = Geohash.covering(GeoMath.boundingBox(LAT, LNG, 8.0), 5, 64);
+    assertThat(cover).hasSizeGreaterThan(9);
+    await(() -> cover.stream().allMatch(hash -> {
+      GeoMath.BoundingBox b = Geohash.bounds(hash);
+      return queries.stream().anyMatch(q -> contains(q, (b.minLat() + b.maxLat()) / 2, (b.minLng() + b.maxLng()) / 2));
+    }));
+    double maxLat = 3 * Geohash.cellLatDegrees(5) + 1e-6;
+    double maxLng = 3 * Geohash.cellLngDegrees(5) + 1e-6;
+    for (String q : queries) {
+      if (q.contains("around:")) continue;
+      Matcher m = BBOX.matcher(q);
+      assertThat(m.find()).as(q).isTrue();
+      assertThat(Double.parseDouble(m.group(3)) - Double.parseDouble(m.group(1))).isLessThanOrEqualTo(maxLat);
+      assertThat(Double.parseDouble(m.group(4)) - Double.parseDouble(m.group(2))).isLessThanOrEqualTo(maxLng);
+    }
+
+    // Once the last fill is stored, the same request is answered from tiles alone
+    await(() -> {
+      int before = queries.size();
+      List<OverpassService.OverpassRestaurant> cached = service.findNearby(LAT, LNG, 8_000, null, 500);
+      return queries.size() == before && cached.size() == first.size();
+    });
+  }
+
+  private List<OverpassService.OverpassRestaurant> expected(double lat, double lng, double radiusKm, String name) {
+    return pois.stream()
+      .filter(p -> GeoMath.haversineKm(lat, lng, p.lat(), p.lng()) <= radiusKm)
+      .filter(p -> name == null || p.name().toLowerCase(Locale.ROOT).contains(name))
+      .map(p -> new OverpassService.OverpassRestaurant(p.id(), p.name(), null, "", null, null, null,
+        null, null, null, "restaurant", p.lat(), p.lng()))
+      .toList();
+  }
+
+  private void answer(HttpExchange exchange) throws IOException {
+    String form = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+    String query = URLDecoder.decode(form.substring(form.indexOf('=') + 1), StandardCharsets.UTF_8);
+    queries.add(query);
+    try {
+      gate.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    StringBuilder json = new StringBuilder("{\"version\":0.6,\"elements\":[");
+    boolean firstElement = true;
+    for (Poi p : pois) {
+      if (!query.contains("around:") && !contains(query, p.lat(), p.lng())) continue;
+      if (!firstElement) json.append(',');
+      firstElement = false;
+      json.append(String.format(Locale.US,
+        "{\"type\":\"node\",\"id\":%d,\"lat\":%.7f,\"lon\":%.7f,\"tags\":{\"amenity\":\"restaurant\",\"name\":\"%s\"}}",
+        p.id(), p.lat(), p.lng(), p.name()));
+    }
+    byte[] body = json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  /** Whether the bounding box in {@code query} holds the point, as Overpass would decide. */
+  private static boolean contains(String query, double lat, double lng) {
+    Matcher m = BBOX.matcher(query);
+    if (!m.find()) return false;
+    return lat >= Double.parseDouble(m.group(1)) && lng >= Double.parseDouble(m.group(2))
+      && lat <= Double.parseDouble(m.group(3)) && lng <= Double.parseDouble(m.group(4));
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!condition.getAsBoolean()) {
+      assertThat(System.nanoTime()).as("condition not met within 10s").isLessThan(deadline);
+      Thread.sleep(20);
+    }
+  }
+}
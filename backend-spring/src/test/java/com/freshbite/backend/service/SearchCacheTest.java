@@ -0,0 +1,82 @@
+package com.freshbite.backend.service;
+
+import com.freshbite.backend.domain.Restaurant;
+import com.freshbite.backend.dto.RestaurantSearchResponse;
+import com.freshbite.backend.event.RestaurantCreatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link SearchCache} loads with a loader that blocks, standing in for a slow
+ * database query.
+ */
+class SearchCacheTest {
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final SearchCache cache = new SearchCache(new SimpleMeterRegistry(), 1_000, 10, 0.01);
+  private final AtomicInteger loads = new AtomicInteger();
+  private final CountDownLatch loading = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @AfterEach
+  void stop() {
+    release.countDown();
+    executor.shutdownNow();
+  }
+
+  @Test
+  void identicalSearchesShareOneLoad() throws Exception {
+    List<Future<List<RestaurantSearchResponse>>> calls = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      calls.add(executor.submit(() -> cache.restaurants(" Taco  ", this::slowLoad)));
+    }
+    assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+    release.countDown();
+    for (Future<List<RestaurantSearchResponse>> call : calls) {
+      assertThat(call.get(5, TimeUnit.SECONDS)).extracting(RestaurantSearchResponse::name).containsExactly("taco");
+    }
+    assertThat(loads).hasValue(1);
+
+    assertThat(cache.restaurants("taco", this::slowLoad)).hasSize(1);
+    assertThat(loads).as("served from the cache").hasValue(1);
+  }
+
+  @Test
+  void createDuringLoadIsNotBlockedAndTheLoadIsNotStored() throws Exception {
+    Future<List<RestaurantSearchResponse>> call = executor.submit(() -> cache.restaurants("taco", this::slowLoad));
+    assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // The loader is still running; invalidation must not wait on it
+    Restaurant created = new Restaurant();
+    created.setName("Taco Town");
+    executor.submit(() -> cache.onRestaurantCreated(new RestaurantCreatedEvent(created))).get(1, TimeUnit.SECONDS);
+
+    release.countDown();
+    assertThat(call.get(5, TimeUnit.SECONDS)).hasSize(1);
+    cache.restaurants("taco", this::slowLoad);
+    assertThat(loads).as("the overlapping load was not cached").hasValue(2);
+  }
+
+  private List<RestaurantSearchResponse> slowLoad(String query) {
+    loads.incrementAndGet();
+    loading.countDown();
+    try {
+      release.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return List.of(new RestaurantSearchResponse(
+      "r1", query, null, null, null, null, 30.0, -97.0, null, null));
+  }
+}
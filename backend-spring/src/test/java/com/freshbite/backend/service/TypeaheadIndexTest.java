@@ -0,0 +1,59 @@
+package com.freshbite.backend.service;
+
+import com.freshbite.backend.domain.Restaurant;
+import com.freshbite.backend.dto.SuggestionResponse;
+import com.freshbite.backend.event.ReviewCreatedEvent;
+import com.freshbite.backend.repository.DishAtRestaurantRepository;
+import com.freshbite.backend.repository.RestaurantRepository;
+import com.freshbite.backend.repository.ReviewRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link TypeaheadIndex} rebuilds while reviews arrive, with the repositories
+ * and {@link ReviewAggregateStore} mocked.
+ */
+class TypeaheadIndexTest {
+  private final DishAtRestaurantRepository dishAtRestaurantRepository = mock(DishAtRestaurantRepository.class);
+  private final RestaurantRepository restaurantRepository = mock(RestaurantRepository.class);
+  private final ReviewRepository reviewRepository = mock(ReviewRepository.class);
+  private final ReviewAggregateStore reviewAggregateStore = mock(ReviewAggregateStore.class);
+  private final TypeaheadIndex index = new TypeaheadIndex(
+    dishAtRestaurantRepository, restaurantRepository, reviewRepository, reviewAggregateStore, 0);
+
+  @Test
+  void reviewsDuringRebuildAreCountedOnce() {
+    Restaurant restaurant = new Restaurant();
+    restaurant.setId("r1");
+    restaurant.setName("Taqueria Uno");
+    restaurant.setCity("Austin");
+    when(restaurantRepository.findAll()).thenReturn(List.of(restaurant));
+    when(reviewRepository.countCreatedBefore(any())).thenReturn(List.<Object[]>of(new Object[] {"dar1", 3L}));
+
+    // Announced while the counts are read: the store already holds it, like the 3 older reviews
+    when(reviewAggregateStore.countsSince(any(), any())).thenAnswer(inv -> {
+      index.onReviewCreated(new ReviewCreatedEvent("dar1", "rv4", 5, Instant.now().minusMillis(5)));
+      return Optional.of(Map.of("dar1", 1L));
+    });
+    // Announced after the counts were read: only the replay adds it
+    when(dishAtRestaurantRepository.findActiveTypeaheadRows()).thenAnswer(inv -> {
+      Thread.sleep(5);
+      index.onReviewCreated(new ReviewCreatedEvent("dar1", "rv5", 4, Instant.now()));
+      return List.<Object[]>of(new Object[] {"dar1", "d1", "Al Pastor Taco", "r1"});
+    });
+
+    index.load();
+
+    assertThat(index.suggest("pastor", 5)).containsExactly(new SuggestionResponse("dish", "Al Pastor Taco", "d1", 5));
+    assertThat(index.suggest("austin", 5)).containsExactly(new SuggestionResponse("city", "Austin", null, 5));
+  }
+}
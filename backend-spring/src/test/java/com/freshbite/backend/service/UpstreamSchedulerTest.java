@@ -0,0 +1,139 @@
+package com.freshbite.backend.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link UpstreamScheduler} in front of a stand-in upstream that answers
+ * after 300 ms and counts the requests that reach it.
+ */
+class UpstreamSchedulerTest {
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final AtomicInteger hits = new AtomicInteger();
+  private HttpServer server;
+
+  @BeforeEach
+  void start() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/", this::answer);
+    server.setExecutor(executor);
+    server.start();
+  }
+
+  @AfterEach
+  void stop() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  @Test
+  void identicalCallsShareOneRequest() throws Exception {
+    UpstreamScheduler scheduler = scheduler(1, 1, 50, 10_000);
+
+    List<Future<String>> calls = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      calls.add(executor.submit(() -> scheduler.call(UpstreamScheduler.OVERPASS, "same", () -> get("/same"))));
+    }
+    for (Future<String> call : calls) assertThat(call.get(5, TimeUnit.SECONDS)).isEqualTo("/same");
+
+    assertThat(hits).hasValue(1);
+    assertThat(outcome("executed")).isEqualTo(1);
+    assertThat(outcome("coalesced")).isEqualTo(4);
+  }
+
+  @Test
+  void rejectsWhenQueueIsFull() throws Exception {
+    UpstreamScheduler scheduler = scheduler(1, 1, 2, 10_000);
+    scheduler.call(UpstreamScheduler.OVERPASS, "first", () -> get("/first")); // takes the only token
+
+    // Two distinct calls wait for tokens; a third finds the queue full
+    Future<String> second = executor.submit(() -> scheduler.call(UpstreamScheduler.OVERPASS, "second", () -> get("/second")));
+    Future<String> third = executor.submit(() -> scheduler.call(UpstreamScheduler.OVERPASS, "third", () -> get("/third")));
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (registry.get("upstream.queue.depth").tag("host", UpstreamScheduler.OVERPASS).gauge().value() < 2) {
+      assertThat(System.nanoTime()).as("two callers queued").isLessThan(deadline);
+      Thread.sleep(10);
+    }
+    assertThatThrownBy(() -> scheduler.call(UpstreamScheduler.OVERPASS, "fourth", () -> get("/fourth")))
+      .isInstanceOf(UpstreamScheduler.RejectedException.class)
+      .hasMessageContaining("queue full");
+
+    assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("/second");
+    assertThat(third.get(5, TimeUnit.SECONDS)).isEqualTo("/third");
+    assertThat(hits).hasValue(3);
+    assertThat(outcome("rejected")).isEqualTo(1);
+  }
+
+  @Test
+  void rejectsWhenWaitIsTooLong() throws Exception {
+    UpstreamScheduler scheduler = scheduler(0.5, 1, 50, 500);
+    long first = System.nanoTime();
+    scheduler.call(UpstreamScheduler.OVERPASS, "first", () -> get("/first"));
+
+    // The next token is ~2 s after the first call, well beyond the 500 ms limit
+    long start = System.nanoTime();
+    assertThatThrownBy(() -> scheduler.call(UpstreamScheduler.OVERPASS, "second", () -> get("/second")))
+      .isInstanceOf(UpstreamScheduler.RejectedException.class)
+      .hasMessageContaining("wait too long");
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).as("rejected without waiting").isLessThan(200);
+    assertThat(hits).hasValue(1);
+
+    // A rejected caller took no token, so two seconds after the first call the next goes through
+    long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - first);
+    Thread.sleep(Math.max(0, 2_100 - elapsedMs));
+    assertThat(scheduler.call(UpstreamScheduler.OVERPASS, "second", () -> get("/second"))).isEqualTo("/second");
+    assertThat(hits).hasValue(2);
+  }
+
+  private UpstreamScheduler scheduler(double overpassRate, int overpassBurst, int maxQueue, long maxWaitMs) {
+    return new UpstreamScheduler(registry, 1, 1, overpassRate, overpassBurst, maxQueue, maxWaitMs);
+  }
+
+  private double outcome(String outcome) {
+    return registry.counter("upstream.requests", "host", UpstreamScheduler.OVERPASS, "outcome", outcome).count();
+  }
+
+  private String get(String path) throws IOException {
+    URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    try (InputStream in = uri.toURL().openStream()) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  /** Echoes the request path after 300 ms, long enough for identical callers to pile up. */
+  private void answer(HttpExchange exchange) throws IOException {
+    hits.incrementAndGet();
+    try {
+      Thread.sleep(300);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    byte[] body = exchange.getRequestURI().getPath().getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+}
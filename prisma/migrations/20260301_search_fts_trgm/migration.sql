@@ -0,0 +1,49 @@
+-- ============================================================
+-- FreshBite: Full-text + trigram search
+-- ============================================================
+-- This migration:
+-- 1) Enables pg_trgm
+-- 2) Adds generated search_vector (tsvector, weighted) and
+--    search_text (lowercased concatenation) columns to Restaurant and Dish
+-- 3) Creates GIN indexes: tsvector for @@, gin_trgm_ops for
+--    LIKE '%q%' and word_similarity()
+--
+-- Used by the Spring backend when app.search.backend=postgres.
+-- Restaurant/place text uses the 'simple' config (proper nouns must
+-- not be stemmed); dish names and cuisines use 'english' so "tacos"
+-- matches "taco".
+-- ============================================================
+
+-- ── 1. Extension ────────────────────────────────────────────
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- ── 2. Restaurant ───────────────────────────────────────────
+ALTER TABLE "Restaurant" ADD COLUMN IF NOT EXISTS "search_vector" tsvector
+  GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce("name", '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce("city", '')), 'B') ||
+    setweight(to_tsvector('simple', coalesce("address", '') || ' ' || coalesce("state", '') || ' ' || "country"), 'C')
+  ) STORED;
+
+ALTER TABLE "Restaurant" ADD COLUMN IF NOT EXISTS "search_text" TEXT
+  GENERATED ALWAYS AS (
+    lower("name" || ' ' || coalesce("city", '') || ' ' || coalesce("address", '') || ' ' || coalesce("state", '') || ' ' || "country")
+  ) STORED;
+
+CREATE INDEX IF NOT EXISTS "Restaurant_search_vector_idx" ON "Restaurant" USING GIN ("search_vector");
+CREATE INDEX IF NOT EXISTS "Restaurant_search_text_trgm_idx" ON "Restaurant" USING GIN ("search_text" gin_trgm_ops);
+
+-- ── 3. Dish ─────────────────────────────────────────────────
+ALTER TABLE "Dish" ADD COLUMN IF NOT EXISTS "search_vector" tsvector
+  GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', coalesce("name", '')), 'A') ||
+    setweight(to_tsvector('english', coalesce("cuisine", '')), 'B')
+  ) STORED;
+
+ALTER TABLE "Dish" ADD COLUMN IF NOT EXISTS "search_text" TEXT
+  GENERATED ALWAYS AS (
+    lower("name" || ' ' || coalesce("cuisine", ''))
+  ) STORED;
+
+CREATE INDEX IF NOT EXISTS "Dish_search_vector_idx" ON "Dish" USING GIN ("search_vector");
+CREATE INDEX IF NOT EXISTS "Dish_search_text_trgm_idx" ON "Dish" USING GIN ("search_text" gin_trgm_ops);
@@ -0,0 +1,11 @@
+-- ============================================================
+-- FreshBite: Restaurant coordinate index
+-- ============================================================
+-- B-tree on (latitude, longitude) for the bounding-box prefilter
+-- in RestaurantRepository.findWithinRadius (/api/discover).
+-- Partial: rows without coordinates never match a radius query.
+-- ============================================================
+
+CREATE INDEX IF NOT EXISTS "Restaurant_latitude_longitude_idx"
+  ON "Restaurant" ("latitude", "longitude")
+  WHERE "latitude" IS NOT NULL AND "longitude" IS NOT NULL;
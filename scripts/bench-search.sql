@@ -0,0 +1,188 @@
+-- ============================================================
+-- FreshBite: search backend benchmark (like vs postgres)
+-- ============================================================
+-- Seeds 1M restaurants, 5k dishes and 1M DishAtRestaurant rows into a
+-- scratch schema with the same shape as public (including the generated
+-- search columns from migration 20260301_search_fts_trgm), then runs the
+-- queries behind app.search.backend=like and app.search.backend=postgres
+-- under EXPLAIN (ANALYZE, BUFFERS) so plans and latencies can be compared.
+--
+-- The queries are PREPAREd with the search term as $1, exactly as the
+-- repositories send them, so a guard like $1 = '' is not constant-folded
+-- away. Each one is explained twice: with a custom plan (what Postgres uses
+-- for the first executions of a server-prepared statement) and with the
+-- generic plan it may switch to afterwards, since pgjdbc server-prepares a
+-- statement from its fifth execution on.
+--
+-- Results: not recorded yet. No Postgres instance was available where this
+-- script was written, so no numbers are claimed here; paste the
+-- "Execution Time" lines of a run below when you have one.
+--
+-- Usage (after applying the migration):
+--   psql "$DATABASE_URL" -f scripts/bench-search.sql
+-- Seeding takes a few minutes. Drop with: DROP SCHEMA search_bench CASCADE;
+-- ============================================================
+
+\timing on
+SET client_min_messages = warning;
+
+DROP SCHEMA IF EXISTS search_bench CASCADE;
+CREATE SCHEMA search_bench;
+-- Unqualified "Restaurant"/"Dish"/... resolve to the bench tables; pg_trgm stays reachable in public
+SET search_path = search_bench, public;
+
+CREATE TABLE "Restaurant" (LIKE public."Restaurant" INCLUDING DEFAULTS INCLUDING GENERATED);
+CREATE TABLE "Dish" (LIKE public."Dish" INCLUDING DEFAULTS INCLUDING GENERATED);
+CREATE TABLE "DishAtRestaurant" (LIKE public."DishAtRestaurant" INCLUDING DEFAULTS);
+
+-- ── Seed ────────────────────────────────────────────────────
+\echo 'Seeding 1M restaurants...'
+INSERT INTO "Restaurant" (id, name, address, city, state, country, latitude, longitude, "createdAt", "updatedAt")
+SELECT
+  'r' || g,
+  (ARRAY['Golden','Little','Blue','Royal','Spicy','Happy','Urban','Old Town','Lucky','Green'])[1 + g % 10] || ' ' ||
+  (ARRAY['Dragon','Taco','Curry','Noodle','Pizza','Grill','Bistro','Kitchen','Diner','Sushi','Pho','Burger'])[1 + (g / 10) % 12] || ' ' ||
+  (ARRAY['House','Bar','Express','Garden','Palace','Corner','Co','Spot'])[1 + (g / 120) % 8] || ' ' || (g % 997),
+  (g % 9999) || ' ' || (ARRAY['Main St','Market St','Broadway','Mission St','Oak Ave','Pine St','1st Ave','Elm St'])[1 + g % 8],
+  (ARRAY['San Francisco','Oakland','San Jose','Seattle','Portland','Austin','Chicago','New York','Boston','Denver'])[1 + (g / 7) % 10],
+  (ARRAY['CA','CA','CA','WA','OR','TX','IL','NY','MA','CO'])[1 + (g / 7) % 10],
+  'USA',
+  25 + (g % 2400) / 100.0,
+  -124 + (g % 5700) / 100.0,
+  now() - (g % 1000) * interval '1 hour',
+  now()
+FROM generate_series(1, 1000000) g;
+
+\echo 'Seeding 5k dishes...'
+INSERT INTO "Dish" (id, name, cuisine, "createdAt", "updatedAt")
+SELECT
+  'd' || g,
+  (ARRAY['Chicken','Paneer','Beef','Tofu','Shrimp','Lamb','Veggie','Pork'])[1 + g % 8] || ' ' ||
+  (ARRAY['Tikka Masala','Tacos','Ramen','Pad Thai','Burrito','Biryani','Pho','Burger','Curry','Fried Rice'])[1 + (g / 8) % 10] || ' ' || g,
+  (ARRAY['Indian','Mexican','Japanese','Thai','American','Vietnamese','Chinese'])[1 + g % 7],
+  now(), now()
+FROM generate_series(1, 5000) g;
+
+\echo 'Seeding 1M dish-at-restaurant rows...'
+INSERT INTO "DishAtRestaurant" (id, "restaurantId", "dishId", "isActive", "createdAt", "updatedAt")
+SELECT 'x' || g, 'r' || g, 'd' || (1 + g % 5000), true, now() - (g % 1000) * interval '1 minute', now()
+FROM generate_series(1, 1000000) g;
+
+-- ── Indexes (same as public) ────────────────────────────────
+\echo 'Building indexes...'
+ALTER TABLE "Restaurant" ADD PRIMARY KEY (id);
+ALTER TABLE "Dish" ADD PRIMARY KEY (id);
+ALTER TABLE "DishAtRestaurant" ADD PRIMARY KEY (id);
+CREATE INDEX ON "DishAtRestaurant" ("restaurantId");
+CREATE INDEX ON "DishAtRestaurant" ("dishId");
+CREATE INDEX ON "Restaurant" (city);
+CREATE INDEX ON "Restaurant" (name);
+CREATE INDEX ON "Dish" (name);
+CREATE INDEX ON "Restaurant" USING GIN (search_vector);
+CREATE INDEX ON "Restaurant" USING GIN (search_text gin_trgm_ops);
+CREATE INDEX ON "Dish" USING GIN (search_vector);
+CREATE INDEX ON "Dish" USING GIN (search_text gin_trgm_ops);
+ANALYZE "Restaurant";
+ANALYZE "Dish";
+ANALYZE "DishAtRestaurant";
+
+-- ── Statements (as in RestaurantRepository / DishAtRestaurantRepository) ──
+PREPARE restaurants_like(text) AS
+SELECT r.* FROM "Restaurant" r
+WHERE ($1 = '' OR LOWER(r.name) LIKE LOWER(CONCAT('%', $1, '%'))
+       OR LOWER(r.city) LIKE LOWER(CONCAT('%', $1, '%'))
+       OR LOWER(r.address) LIKE LOWER(CONCAT('%', $1, '%'))
+       OR LOWER(r.country) LIKE LOWER(CONCAT('%', $1, '%'))
+       OR LOWER(COALESCE(r.state, '')) LIKE LOWER(CONCAT('%', $1, '%')))
+ORDER BY r."createdAt" DESC
+LIMIT 200;
+
+PREPARE restaurants_postgres(text) AS
+SELECT r.* FROM "Restaurant" r
+WHERE $1 = ''
+   OR r.search_vector @@ websearch_to_tsquery('simple', $1)
+   OR r.search_text LIKE '%' || lower($1) || '%'
+ORDER BY
+  CASE WHEN $1 = '' THEN 0
+       ELSE ts_rank(r.search_vector, websearch_to_tsquery('simple', $1))
+          + word_similarity(lower($1), r.search_text)
+  END DESC,
+  r."createdAt" DESC
+LIMIT 200;
+
+PREPARE dishes_like(text) AS
+SELECT dar.* FROM "DishAtRestaurant" dar
+JOIN "Dish" d ON dar."dishId" = d.id
+JOIN "Restaurant" r ON dar."restaurantId" = r.id
+WHERE dar."isActive" = true
+AND (
+  LOWER(d.name) LIKE LOWER(CONCAT('%', $1, '%'))
+  OR LOWER(r.name) LIKE LOWER(CONCAT('%', $1, '%'))
+  OR LOWER(r.address) LIKE LOWER(CONCAT('%', $1, '%'))
+  OR LOWER(r.city) LIKE LOWER(CONCAT('%', $1, '%'))
+  OR LOWER(COALESCE(d.cuisine, '')) LIKE LOWER(CONCAT('%', $1, '%'))
+)
+ORDER BY dar."createdAt" DESC
+LIMIT 50;
+
+PREPARE dishes_postgres(text) AS
+WITH dish_hits AS (
+  SELECT d.id,
+         ts_rank(d.search_vector, websearch_to_tsquery('english', $1))
+           + word_similarity(lower($1), d.search_text) AS rank
+  FROM "Dish" d
+  WHERE d.search_vector @@ websearch_to_tsquery('english', $1)
+     OR d.search_text LIKE '%' || lower($1) || '%'
+),
+restaurant_hits AS (
+  SELECT r.id,
+         ts_rank(r.search_vector, websearch_to_tsquery('simple', $1))
+           + word_similarity(lower($1), r.search_text) AS rank
+  FROM "Restaurant" r
+  WHERE r.search_vector @@ websearch_to_tsquery('simple', $1)
+     OR r.search_text LIKE '%' || lower($1) || '%'
+),
+hits AS (
+  SELECT dar.id, h.rank * 2 AS rank
+  FROM dish_hits h JOIN "DishAtRestaurant" dar ON dar."dishId" = h.id
+  UNION ALL
+  SELECT dar.id, h.rank
+  FROM restaurant_hits h JOIN "DishAtRestaurant" dar ON dar."restaurantId" = h.id
+)
+SELECT dar.* FROM "DishAtRestaurant" dar
+JOIN (SELECT id, SUM(rank) AS rank FROM hits GROUP BY id) m ON m.id = dar.id
+WHERE dar."isActive" = true
+ORDER BY m.rank DESC, dar."createdAt" DESC
+LIMIT 50;
+
+-- ── Custom plans ────────────────────────────────────────────
+SET plan_cache_mode = force_custom_plan;
+
+\echo '=== custom / restaurants / like / q=dragon ==='
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE restaurants_like('dragon');
+\echo '=== custom / restaurants / postgres / q=dragon ==='
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE restaurants_postgres('dragon');
+\echo '=== custom / restaurants / postgres / q=palace 42 (rare) ==='
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE restaurants_postgres('palace 42');
+\echo '=== custom / dishes / like / q=tikka ==='
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE dishes_like('tikka');
+\echo '=== custom / dishes / postgres / q=tikka ==='
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE dishes_postgres('tikka');
+
+-- ── Generic plans ───────────────────────────────────────────
+SET plan_cache_mode = force_generic_plan;
+
+\echo '=== generic / restaurants / like / q=dragon ==='
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE restaurants_like('dragon');
+\echo '=== generic / restaurants / postgres / q=dragon ==='
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE restaurants_postgres('dragon');
+\echo '=== generic / restaurants / postgres / q=palace 42 (rare) ==='
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE restaurants_postgres('palace 42');
+\echo '=== generic / dishes / like / q=tikka ==='
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE dishes_like('tikka');
+\echo '=== generic / dishes / postgres / q=tikka ==='
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE dishes_postgres('tikka');
+
+RESET plan_cache_mode;
+DEALLOCATE ALL;
+RESET search_path;
@@ -1,6 +1,6 @@
 /**
- * Run the partitioning + indexes migration SQL against the database.
- * Usage: npx tsx scripts/run-migration.ts
+ * Run a hand-written migration SQL file (default: partitioning + indexes) against the database.
+ * Usage: npx tsx scripts/run-migration.ts [migration-dir-name]
  */
 import { PrismaClient } from '@prisma/client';
 import * as fs from 'fs';
@@ -11,7 +11,8 @@ const prisma = new PrismaClient();
 async function main() {
   console.log('🚀 Running migration SQL...');
   
-  const sqlPath = path.join(__dirname, '../prisma/migrations/20260214_partitioning_and_indexes/migration.sql');
+  const migration = process.argv[2] ?? '20260214_partitioning_and_indexes';
+  const sqlPath = path.join(__dirname, '../prisma/migrations', migration, 'migration.sql');
   const sql = fs.readFileSync(sqlPath, 'utf-8');
   
   // Split into individual statements (skipping comments and empty lines)